@@ -0,0 +1,77 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import com.github.gundy.semver4j.SemVer;
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+import com.github.gundy.semver4j.model.VersionColumn;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Measures testing one range against a million versions, one {@link Version} at a time (with
+ * {@link Range#isSatisfiedBy} and with {@link Range#toPredicate}), and all at once with
+ * {@link VersionColumn#satisfying}, for a simple range and a long "||" range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BatchSatisfiesBenchmark {
+	private static final int COUNT = 1000000;
+
+	@Param({"caret", "or20"})
+	public String rangeKind;
+
+	/* the fraction of versions with pre-release identifiers */
+	@Param({"0.0", "0.1"})
+	public double preReleases;
+
+	private Range range;
+	private Version[] versions;
+	private VersionColumn column;
+
+	@Setup
+	public void setUp() {
+		range = SemVer.compile("caret".equals(rangeKind) ? "^5.3.0" : BenchmarkData.orRange(20));
+		List<String> strings = BenchmarkData.versionStrings(COUNT, preReleases);
+		versions = new Version[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			versions[i] = Version.fromString(strings.get(i));
+		}
+		column = VersionColumn.parse(strings);
+	}
+
+	@Benchmark
+	public BitSet eachSatisfies() {
+		BitSet satisfying = new BitSet(COUNT);
+		for (int i = 0; i < COUNT; i++) {
+			if (range.isSatisfiedBy(versions[i])) {
+				satisfying.set(i);
+			}
+		}
+		return satisfying;
+	}
+
+	@Benchmark
+	public BitSet eachPredicate() {
+		Predicate<Version> predicate = range.toPredicate();
+		BitSet satisfying = new BitSet(COUNT);
+		for (int i = 0; i < COUNT; i++) {
+			if (predicate.test(versions[i])) {
+				satisfying.set(i);
+			}
+		}
+		return satisfying;
+	}
+
+	@Benchmark
+	public BitSet column() {
+		return column.satisfying(range);
+	}
+}
@@ -0,0 +1,82 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the inputs used by the benchmarks.  Everything is derived from a fixed seed, so that two
+ * runs (eg. of different releases) measure exactly the same work.
+ */
+final class BenchmarkData {
+	private static final String[] PRE_RELEASE_NAMES = {"alpha", "beta", "rc", "SNAPSHOT", "dev", "pre"};
+
+	private BenchmarkData() {
+	}
+
+	static Random random() {
+		return new Random(0x5eed5eedL);
+	}
+
+	/**
+	 * @param count The number of version strings to generate
+	 * @param preReleaseFraction The fraction (0..1) of versions that should have pre-release identifiers
+	 * @return version strings spread over a realistic range of major, minor and patch numbers, some with
+	 *         build metadata
+	 */
+	static List<String> versionStrings(int count, double preReleaseFraction) {
+		Random random = random();
+		List<String> versions = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			versions.add(versionString(random, preReleaseFraction));
+		}
+		return versions;
+	}
+
+	static String versionString(Random random, double preReleaseFraction) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(random.nextInt(20)).append('.').append(random.nextInt(30)).append('.').append(random.nextInt(100));
+		if (random.nextDouble() < preReleaseFraction) {
+			sb.append('-').append(PRE_RELEASE_NAMES[random.nextInt(PRE_RELEASE_NAMES.length)]);
+			int numbers = 1 + random.nextInt(2);
+			for (int i = 0; i < numbers; i++) {
+				sb.append('.').append(random.nextInt(20));
+			}
+		}
+		if (random.nextInt(10) == 0) {
+			sb.append("+build.").append(random.nextInt(10000));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param alternatives The number of alternatives to join with "||"
+	 * @return a range made up of caret, tilde, hyphen and comparator-pair alternatives
+	 */
+	static String orRange(int alternatives) {
+		Random random = random();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < alternatives; i++) {
+			if (i > 0) {
+				sb.append(" || ");
+			}
+			int major = random.nextInt(20);
+			int minor = random.nextInt(30);
+			switch (i % 4) {
+				case 0:
+					sb.append('^').append(major).append('.').append(minor).append(".0");
+					break;
+				case 1:
+					sb.append('~').append(major).append('.').append(minor);
+					break;
+				case 2:
+					sb.append(major).append('.').append(minor).append(".0 - ").append(major).append('.').append(minor + 1).append(".x");
+					break;
+				default:
+					sb.append(">=").append(major).append('.').append(minor).append(".0-beta.2 <").append(major + 1).append(".0.0");
+					break;
+			}
+		}
+		return sb.toString();
+	}
+}
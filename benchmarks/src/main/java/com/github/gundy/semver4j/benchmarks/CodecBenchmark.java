@@ -0,0 +1,76 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import com.github.gundy.semver4j.SemVer;
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+import com.github.gundy.semver4j.model.VersionCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rebuilding a list of 1000 versions, and a 20-way "||" range, from {@link VersionCodec}'s encoding
+ * against parsing them again from their strings (which is how they'd otherwise be passed around).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CodecBenchmark {
+	private static final int COUNT = 1000;
+
+	/* the fraction of versions with pre-release identifiers */
+	@Param({"0.0", "0.8"})
+	public double preReleaseFraction;
+
+	private List<String> versionStrings;
+	private ByteBuffer encodedVersions;
+	private String rangeExpression;
+	private ByteBuffer encodedRange;
+
+	@Setup
+	public void setUp() {
+		versionStrings = BenchmarkData.versionStrings(COUNT, preReleaseFraction);
+		List<Version> versions = new ArrayList<Version>(COUNT);
+		for (String version : versionStrings) {
+			versions.add(Version.fromString(version));
+		}
+		encodedVersions = ByteBuffer.allocate(64 * COUNT);
+		VersionCodec.writeVersions(versions, encodedVersions);
+		encodedVersions.flip();
+
+		rangeExpression = BenchmarkData.orRange(20);
+		encodedRange = ByteBuffer.allocate(64 * 1024);
+		VersionCodec.writeRange(SemVer.compile(rangeExpression), encodedRange);
+		encodedRange.flip();
+	}
+
+	@Benchmark
+	public List<Version> parseVersions() {
+		List<Version> versions = new ArrayList<Version>(COUNT);
+		for (String version : versionStrings) {
+			versions.add(Version.fromString(version));
+		}
+		return versions;
+	}
+
+	@Benchmark
+	public List<Version> readVersions() {
+		return VersionCodec.readVersions(encodedVersions.duplicate());
+	}
+
+	@Benchmark
+	public Range parseRange() {
+		return Range.fromString(rangeExpression);
+	}
+
+	@Benchmark
+	public Range readRange() {
+		return VersionCodec.readRange(encodedRange.duplicate());
+	}
+}
@@ -0,0 +1,103 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import com.github.gundy.semver4j.model.Version;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Version#compareTo}, both on its own and while sorting a list of versions, and
+ * {@link Version#stringComparator()}, which sorts version strings without parsing them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CompareBenchmark {
+	private static final int COUNT = 1024;
+
+	/* the fraction of versions with pre-release identifiers */
+	@Param({"0.0", "0.8"})
+	public double preReleaseFraction;
+
+	@Param({"10000"})
+	public int sortSize;
+
+	private Version[] versions;
+	private Version[] unsorted;
+	private String[] strings;
+	private String[] unsortedStrings;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		versions = parse(BenchmarkData.versionStrings(COUNT, preReleaseFraction));
+		unsorted = parse(BenchmarkData.versionStrings(sortSize, preReleaseFraction));
+		strings = toStrings(versions);
+		unsortedStrings = toStrings(unsorted);
+	}
+
+	private static Version[] parse(List<String> strings) {
+		List<Version> parsed = new ArrayList<Version>(strings.size());
+		for (String string : strings) {
+			parsed.add(Version.fromString(string));
+		}
+		return parsed.toArray(new Version[parsed.size()]);
+	}
+
+	private static String[] toStrings(Version[] versions) {
+		String[] strings = new String[versions.length];
+		for (int i = 0; i < versions.length; i++) {
+			strings[i] = versions[i].toString();
+		}
+		return strings;
+	}
+
+	@Benchmark
+	public int compareTo() {
+		next = (next + 1) & (COUNT - 1);
+		return versions[next].compareTo(versions[(next * 7 + 3) & (COUNT - 1)]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Version[] sort() {
+		Version[] copy = unsorted.clone();
+		Arrays.sort(copy, Version.reverseComparator());
+		return copy;
+	}
+
+	@Benchmark
+	public int compareStrings() {
+		next = (next + 1) & (COUNT - 1);
+		return Version.stringComparator().compare(strings[next], strings[(next * 7 + 3) & (COUNT - 1)]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String[] parseAndSortStrings() {
+		Version[] parsed = new Version[unsortedStrings.length];
+		for (int i = 0; i < parsed.length; i++) {
+			parsed[i] = Version.fromString(unsortedStrings[i]);
+		}
+		Arrays.sort(parsed);
+		String[] sorted = new String[parsed.length];
+		for (int i = 0; i < parsed.length; i++) {
+			sorted[i] = parsed[i].toString();
+		}
+		return sorted;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String[] sortStrings() {
+		String[] copy = unsortedStrings.clone();
+		Arrays.sort(copy, Version.stringComparator());
+		return copy;
+	}
+}
@@ -0,0 +1,131 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with "-rf csv", printing each benchmark's score from both runs
+ * and the relative change.  Secondary results, such as those from the GC profiler (eg.
+ * "gc.alloc.rate.norm"), are compared in the same way.
+ *
+ * Usage: java -cp target/benchmarks.jar com.github.gundy.semver4j.benchmarks.CompareResults before.csv after.csv
+ */
+public final class CompareResults {
+	private CompareResults() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: CompareResults <before.csv> <after.csv>");
+			System.exit(2);
+		}
+		Map<String, Result> before = read(args[0]);
+		Map<String, Result> after = read(args[1]);
+		System.out.println(String.format(Locale.ROOT, "%-90s %16s %16s %9s  %s", "Benchmark", "Before", "After", "Change", "Unit"));
+		for (Map.Entry<String, Result> entry : before.entrySet()) {
+			Result b = entry.getValue();
+			Result a = after.get(entry.getKey());
+			if (a == null) {
+				System.out.println(String.format(Locale.ROOT, "%-90s %16.3f %16s %9s  %s", entry.getKey(), b.score, "-", "-", b.unit));
+			} else {
+				double change = b.score == 0 ? 0 : (a.score - b.score) / b.score * 100;
+				System.out.println(String.format(Locale.ROOT, "%-90s %16.3f %16.3f %+8.1f%%  %s", entry.getKey(), b.score, a.score, change, b.unit));
+			}
+		}
+		for (Map.Entry<String, Result> entry : after.entrySet()) {
+			if (!before.containsKey(entry.getKey())) {
+				Result a = entry.getValue();
+				System.out.println(String.format(Locale.ROOT, "%-90s %16s %16.3f %9s  %s", entry.getKey(), "-", a.score, "-", a.unit));
+			}
+		}
+	}
+
+	private static final class Result {
+		private final double score;
+		private final String unit;
+
+		private Result(double score, String unit) {
+			this.score = score;
+			this.unit = unit;
+		}
+	}
+
+	/* keyed by benchmark name, parameters and mode */
+	private static Map<String, Result> read(String file) throws IOException {
+		Map<String, Result> results = new LinkedHashMap<String, Result>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+		try {
+			List<String> header = parseLine(reader.readLine());
+			int benchmark = header.indexOf("Benchmark");
+			int mode = header.indexOf("Mode");
+			int score = header.indexOf("Score");
+			int unit = header.indexOf("Unit");
+			if (benchmark < 0 || mode < 0 || score < 0 || unit < 0) {
+				throw new IOException(file + " doesn't look like a JMH CSV result file");
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				List<String> fields = parseLine(line);
+				StringBuilder key = new StringBuilder(shortName(fields.get(benchmark)));
+				for (int i = 0; i < header.size(); i++) {
+					if (header.get(i).startsWith("Param: ") && i < fields.size() && !fields.get(i).isEmpty()) {
+						key.append(' ').append(header.get(i).substring("Param: ".length())).append('=').append(fields.get(i));
+					}
+				}
+				key.append(" (").append(fields.get(mode)).append(')');
+				results.put(key.toString(), new Result(Double.parseDouble(fields.get(score).replace(',', '.')), fields.get(unit)));
+			}
+		} finally {
+			reader.close();
+		}
+		return results;
+	}
+
+	private static String shortName(String benchmark) {
+		String prefix = CompareResults.class.getPackage().getName() + ".";
+		return benchmark.startsWith(prefix) ? benchmark.substring(prefix.length()) : benchmark;
+	}
+
+	/* splits a CSV line, honouring double quoted fields */
+	private static List<String> parseLine(String line) {
+		List<String> fields = new ArrayList<String>();
+		if (line == null) {
+			return fields;
+		}
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,88 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import com.github.gundy.semver4j.SemVer;
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+import com.github.gundy.semver4j.model.VersionCatalog;
+import com.github.gundy.semver4j.model.VersionIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Version#maxSatisfying} and {@link Version#parallelMaxSatisfying} over version strings,
+ * {@link Version#maxVersionSatisfying} over parsed versions, {@link VersionIndex#maxSatisfying} over an index of them, and
+ * {@link VersionCatalog#maxSatisfying} over a catalog of them in an off-heap buffer, for collections of 10 to 100k versions.
+ * {@link Version#topVersionsSatisfying} finds the greatest ten satisfying versions in the same single pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MaxSatisfyingBenchmark {
+	@Param({"10", "1000", "100000"})
+	public int size;
+
+	/* a range that matches about a third of the generated versions, and one that matches almost none */
+	@Param({">=3.0.0 <10.0.0-0", "~19.29.99"})
+	public String range;
+
+	private List<String> versionStrings;
+	private List<Version> versions;
+	private VersionIndex index;
+	private VersionCatalog catalog;
+	private Range compiledRange;
+
+	@Setup
+	public void setUp() throws IOException {
+		versionStrings = BenchmarkData.versionStrings(size, 0.3);
+		versions = new ArrayList<Version>(size);
+		for (String version : versionStrings) {
+			versions.add(Version.fromString(version));
+		}
+		index = new VersionIndex(versions);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VersionCatalog.write(versions, out);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(out.size());
+		buffer.put(out.toByteArray());
+		catalog = VersionCatalog.wrap(buffer);
+		compiledRange = SemVer.compile(range);
+	}
+
+	@Benchmark
+	public String maxSatisfyingStrings() {
+		return Version.maxSatisfying(versionStrings, compiledRange);
+	}
+
+	@Benchmark
+	public String parallelMaxSatisfyingStrings() {
+		return Version.parallelMaxSatisfying(versionStrings, compiledRange);
+	}
+
+	@Benchmark
+	public Version maxVersionSatisfying() {
+		return Version.maxVersionSatisfying(versions, compiledRange);
+	}
+
+	@Benchmark
+	public List<Version> topVersionsSatisfying() {
+		return Version.topVersionsSatisfying(versions, compiledRange, 10);
+	}
+
+	@Benchmark
+	public Version indexMaxSatisfying() {
+		return index.maxSatisfying(compiledRange);
+	}
+
+	@Benchmark
+	public Version catalogMaxSatisfying() {
+		return catalog.maxSatisfying(compiledRange);
+	}
+}
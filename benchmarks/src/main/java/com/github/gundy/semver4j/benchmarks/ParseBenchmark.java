@@ -0,0 +1,59 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import com.github.gundy.semver4j.SemVer;
+import com.github.gundy.semver4j.model.Version;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Version#fromString} and {@link SemVer#valid}, cycling through a fixed set of version strings, and
+ * {@link SemVer#valid} over strings that aren't versions (eg. tags like "latest" or "release-2016").
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ParseBenchmark {
+	private static final int COUNT = 1024;
+
+	/* the fraction of versions with pre-release identifiers */
+	@Param({"0.0", "0.8"})
+	public double preReleaseFraction;
+
+	private String[] versions;
+	private String[] invalidVersions;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		List<String> strings = BenchmarkData.versionStrings(COUNT, preReleaseFraction);
+		versions = strings.toArray(new String[COUNT]);
+		invalidVersions = new String[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			/* mostly rejected after a few characters, as tags usually are, and some only at the end */
+			invalidVersions[i] = i % 4 == 0 ? versions[i] + "_" : "release-" + versions[i];
+		}
+	}
+
+	@Benchmark
+	public Version fromString() {
+		next = (next + 1) & (COUNT - 1);
+		return Version.fromString(versions[next]);
+	}
+
+	@Benchmark
+	public boolean valid() {
+		next = (next + 1) & (COUNT - 1);
+		return SemVer.valid(versions[next]);
+	}
+
+	@Benchmark
+	public boolean validRejected() {
+		next = (next + 1) & (COUNT - 1);
+		return SemVer.valid(invalidVersions[next]);
+	}
+}
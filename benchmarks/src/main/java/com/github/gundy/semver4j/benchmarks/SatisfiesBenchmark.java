@@ -0,0 +1,77 @@
+package com.github.gundy.semver4j.benchmarks;
+
+import com.github.gundy.semver4j.SemVer;
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Measures {@link Version#satisfies}, with the range given as a string (compiled on every call) and
+ * as a precompiled {@link Range} and as the {@link Range#toPredicate predicate} of one, for a simple range, a pre-release bound and a long "||" range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SatisfiesBenchmark {
+	private static final int COUNT = 1024;
+
+	@Param({"caret", "prerelease", "or20"})
+	public String rangeKind;
+
+	private String range;
+	private Range compiledRange;
+	private Predicate<Version> predicate;
+	private String[] versionStrings;
+	private Version[] versions;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		if ("caret".equals(rangeKind)) {
+			range = "^5.3.0";
+		} else if ("prerelease".equals(rangeKind)) {
+			range = ">=5.3.0-beta.2 <6.0.0";
+		} else {
+			range = BenchmarkData.orRange(20);
+		}
+		compiledRange = SemVer.compile(range);
+		predicate = compiledRange.toPredicate();
+		List<String> strings = BenchmarkData.versionStrings(COUNT, 0.5);
+		versionStrings = strings.toArray(new String[COUNT]);
+		versions = new Version[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			versions[i] = Version.fromString(versionStrings[i]);
+		}
+	}
+
+	@Benchmark
+	public boolean satisfiesString() {
+		next = (next + 1) & (COUNT - 1);
+		return versions[next].satisfies(range);
+	}
+
+	@Benchmark
+	public boolean satisfiesCompiled() {
+		next = (next + 1) & (COUNT - 1);
+		return versions[next].satisfies(compiledRange);
+	}
+
+	@Benchmark
+	public boolean satisfiesPredicate() {
+		next = (next + 1) & (COUNT - 1);
+		return predicate.test(versions[next]);
+	}
+
+	@Benchmark
+	public boolean semVerSatisfies() {
+		next = (next + 1) & (COUNT - 1);
+		return SemVer.satisfies(versionStrings[next], range);
+	}
+}
@@ -0,0 +1,111 @@
+package com.github.gundy.semver4j;
+
+import java.util.BitSet;
+
+/**
+ * The result of evaluating a list of ranges against a list of versions with {@link SemVer#batchSatisfies}
+ * or {@link SemVer#batchSatisfiesVersions}.  Ranges and versions are referred to by their positions in
+ * the lists that were evaluated.
+ *
+ * Each distinct range string and each distinct version string was parsed only once, and the results are
+ * stored once for each of them, as one bit per (distinct range, distinct version) pair.  Instances are
+ * immutable.
+ */
+public final class BatchResult {
+	private final int rangeCount;
+	private final int versionCount;
+	/* the distinct range and version that each range and version refer to; -1 if it's invalid */
+	private final int[] rangeSlots;
+	private final int[] versionSlots;
+	/* for each distinct version, the position of the first version that refers to it */
+	private final int[] firstVersionIndex;
+	/* for each distinct range, the distinct versions that satisfy it */
+	private final BitSet[] satisfying;
+	/* for each distinct range, the distinct version that's the maximum satisfying one, or -1 */
+	private final int[] maxSatisfying;
+
+	BatchResult(int[] rangeSlots, int[] versionSlots, int[] firstVersionIndex, BitSet[] satisfying, int[] maxSatisfying) {
+		this.rangeCount = rangeSlots.length;
+		this.versionCount = versionSlots.length;
+		this.rangeSlots = rangeSlots;
+		this.versionSlots = versionSlots;
+		this.firstVersionIndex = firstVersionIndex;
+		this.satisfying = satisfying;
+		this.maxSatisfying = maxSatisfying;
+	}
+
+	public int getRangeCount() {
+		return rangeCount;
+	}
+
+	public int getVersionCount() {
+		return versionCount;
+	}
+
+	/**
+	 * @param range The position of a range
+	 * @return true if the range could be compiled
+	 */
+	public boolean isValidRange(int range) {
+		return rangeSlots[range] >= 0;
+	}
+
+	/**
+	 * @param version The position of a version
+	 * @return true if the version could be parsed
+	 */
+	public boolean isValidVersion(int version) {
+		return versionSlots[version] >= 0;
+	}
+
+	/**
+	 * @param range The position of a range
+	 * @param version The position of a version
+	 * @return true if the version satisfies the range; false if it doesn't, or if either of them is invalid
+	 */
+	public boolean satisfies(int range, int version) {
+		int rangeSlot = rangeSlots[range];
+		int versionSlot = versionSlots[version];
+		return rangeSlot >= 0 && versionSlot >= 0 && satisfying[rangeSlot].get(versionSlot);
+	}
+
+	/**
+	 * @param range The position of a range
+	 * @return the positions of the versions that satisfy the range
+	 */
+	public BitSet getSatisfying(int range) {
+		BitSet result = new BitSet(versionCount);
+		int rangeSlot = rangeSlots[range];
+		if (rangeSlot >= 0) {
+			BitSet bits = satisfying[rangeSlot];
+			for (int version = 0; version < versionCount; version++) {
+				if (versionSlots[version] >= 0 && bits.get(versionSlots[version])) {
+					result.set(version);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param range The position of a range
+	 * @return the number of versions that satisfy the range
+	 */
+	public int countSatisfying(int range) {
+		return getSatisfying(range).cardinality();
+	}
+
+	/**
+	 * Returns the position of the maximum version that satisfies a range.  If several satisfying versions
+	 * compare equal, the position of the first of them is returned.
+	 * @param range The position of a range
+	 * @return the position of the maximum satisfying version, or -1 if no version satisfies the range
+	 */
+	public int maxSatisfyingIndex(int range) {
+		int rangeSlot = rangeSlots[range];
+		if (rangeSlot < 0 || maxSatisfying[rangeSlot] < 0) {
+			return -1;
+		}
+		return firstVersionIndex[maxSatisfying[rangeSlot]];
+	}
+}
@@ -1,25 +1,48 @@
 package com.github.gundy.semver4j;
 
+import com.github.gundy.semver4j.cache.BoundedCache;
+import com.github.gundy.semver4j.metrics.Instrumentation;
+import com.github.gundy.semver4j.metrics.Metrics;
+import com.github.gundy.semver4j.model.Range;
 import com.github.gundy.semver4j.model.Version;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  *
  */
 public final class SemVer {
+	private static final Function<String, Range> RANGE_COMPILER = new Function<String, Range>() {
+		@Override
+		public Range apply(String range) {
+			return Range.fromString(range);
+		}
+	};
+
+	/* invalid ranges compile to null, which the cache doesn't keep */
+	private static final Function<String, Range> RANGE_COMPILER_OR_NULL = new Function<String, Range>() {
+		@Override
+		public Range apply(String range) {
+			return Range.tryParse(range).getValue();
+		}
+	};
+
+	private static volatile BoundedCache<String, Range> rangeCache;
+
 	/**
 	 * Check whether a specified version string parses as a valid semver version.
 	 * @param version The version string to check (eg. "1.0.3-alpha.01+build")
 	 * @return true if the version parses successfully, false otherwise.
      */
 	public static boolean valid(String version) {
-		try {
-			Version.fromString(version);
-			return true;
-		} catch (Exception e) {
-			return false;
-		}
+		return Version.tryParse(version).isSuccess();
 	}
 
 	/**
@@ -29,21 +52,259 @@ public final class SemVer {
      * @return true if the given version falls within the range, false otherwise.
      */
 	public static boolean satisfies(String versionToTest, String range) {
-		try {
-			Version version = Version.fromString(versionToTest);
-			return version.satisfies(range);
-		} catch (Exception e) {
+		Version version = Version.tryParse(versionToTest).getValue();
+		if (version == null) {
 			return false;
 		}
+		Range compiled = compileOrNull(range);
+		return compiled != null && compiled.isSatisfiedBy(version);
+	}
+
+	/**
+	 * Compile a range expression once, so that it can be evaluated against many versions.
+	 * @param range A range, specified in node semver range format (eg. "^1.2.3 || &gt;=2.0.0 &lt;3")
+	 * @return the compiled range
+	 * @throws IllegalArgumentException if the range expression can't be compiled
+	 */
+	public static Range compile(String range) {
+		BoundedCache<String, Range> cache = rangeCache;
+		if (cache == null || range == null) {
+			return Range.fromString(range);
+		}
+		return lookUp(cache, range, RANGE_COMPILER);
+	}
+
+	/* compile a range expression as compile does, but return null (without throwing) if it isn't valid */
+	private static Range compileOrNull(String range) {
+		BoundedCache<String, Range> cache = rangeCache;
+		if (cache == null || range == null) {
+			return Range.tryParse(range).getValue();
+		}
+		return lookUp(cache, range, RANGE_COMPILER_OR_NULL);
+	}
+
+	private static Range lookUp(BoundedCache<String, Range> cache, String range, final Function<String, Range> compiler) {
+		Instrumentation instrumentation = Metrics.getInstrumentation();
+		if (instrumentation == null) {
+			return cache.computeIfAbsent(range, compiler);
+		}
+		final boolean[] compiled = new boolean[1];
+		Range cached = cache.computeIfAbsent(range, new Function<String, Range>() {
+			@Override
+			public Range apply(String expression) {
+				compiled[0] = true;
+				return compiler.apply(expression);
+			}
+		});
+		instrumentation.rangeCacheLookup(range, !compiled[0]);
+		return cached;
+	}
+
+	/**
+	 * Cache compiled ranges (by their text) for {@link #compile}, {@link #satisfies}, {@link #maxSatisfying} and
+	 * {@link #minSatisfying}, replacing any cache that's already enabled.  Caching is off unless this is called.
+	 * @param capacity The maximum number of compiled ranges to keep
+	 */
+	public static void enableRangeCache(int capacity) {
+		rangeCache = new BoundedCache<String, Range>(capacity);
+	}
+
+	/**
+	 * Stop caching compiled ranges, and discard any that have been cached.
+	 */
+	public static void disableRangeCache() {
+		rangeCache = null;
+	}
+
+	/**
+	 * @return the cache of compiled ranges (eg. to read its hit, miss and eviction counts), or null if it isn't enabled
+	 */
+	public static BoundedCache<String, Range> getRangeCache() {
+		return rangeCache;
 	}
 
 	/**
 	 * Returns the maximum version from a given collection of versions that satisfies a given range.
 	 * @param versionsToTest The collection of versions to test against the range
 	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
-	 * @return true if the given version falls within the range, false otherwise.
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public static String maxSatisfying(Iterable<String> versionsToTest, String range) {
+		return Version.maxSatisfying(versionsToTest, compile(range));
+	}
+
+	/**
+	 * Same as {@link #maxSatisfying(Iterable, String)}, for clients compiled against releases that took a collection.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the maximum satisfying version, or null if no version satisfies the range
 	 */
 	public static String maxSatisfying(Collection<String> versionsToTest, String range) {
-		return Version.maxSatisfying(versionsToTest, range);
+		return maxSatisfying((Iterable<String>) versionsToTest, range);
+	}
+
+	/**
+	 * Returns the greatest versions from a given collection of versions that satisfy a given range, greatest
+	 * first, holding no more than k versions at a time.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @param k The maximum number of versions to return
+	 * @return up to k satisfying versions, in descending order
+	 * @see Version#topSatisfying(Iterable, Range, int)
+	 */
+	public static List<String> topSatisfying(Iterable<String> versionsToTest, String range, int k) {
+		return Version.topSatisfying(versionsToTest, compile(range), k);
+	}
+
+	/**
+	 * Iterates over the versions from a given collection of versions that satisfy a given range, greatest first.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return an iterator over the satisfying versions, in descending order
+	 * @see Version#descendingSatisfying(Iterable, Range)
+	 */
+	public static Iterator<String> descendingSatisfying(Iterable<String> versionsToTest, String range) {
+		return Version.descendingSatisfying(versionsToTest, compile(range));
+	}
+
+	/**
+	 * Returns the maximum version from a given list of versions that satisfies a given range, parsing and
+	 * evaluating large lists in parallel.
+	 * @param versionsToTest The list of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 * @see Version#parallelMaxSatisfying(List, Range)
+	 */
+	public static String parallelMaxSatisfying(List<String> versionsToTest, String range) {
+		return Version.parallelMaxSatisfying(versionsToTest, compile(range));
+	}
+
+	/**
+	 * Returns the minimum version from a given collection of versions that satisfies a given range.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the minimum satisfying version, or null if no version satisfies the range
+	 */
+	public static String minSatisfying(Iterable<String> versionsToTest, String range) {
+		return Version.minSatisfying(versionsToTest, compile(range));
+	}
+
+	/**
+	 * Same as {@link #minSatisfying(Iterable, String)}, so that it pairs with {@link #maxSatisfying(Collection, String)}.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the minimum satisfying version, or null if no version satisfies the range
+	 */
+	public static String minSatisfying(Collection<String> versionsToTest, String range) {
+		return minSatisfying((Iterable<String>) versionsToTest, range);
+	}
+
+	/**
+	 * Evaluate every one of a list of ranges against every one of a list of versions.  Each distinct range
+	 * and version string is compiled or parsed only once, however many times it appears in the lists.
+	 * Ranges and versions that can't be parsed are satisfied by nothing, as with {@link #satisfies}.
+	 * @param ranges Ranges, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @param versions The versions to test against each range (eg. "1.0.3")
+	 * @return the result of each (range, version) pair, by position in the given lists
+	 */
+	public static BatchResult batchSatisfies(List<String> ranges, List<String> versions) {
+		Map<String, Integer> distinctVersions = new HashMap<String, Integer>();
+		List<Version> parsedVersions = new ArrayList<Version>();
+		List<Integer> firstVersionIndex = new ArrayList<Integer>();
+		int[] versionSlots = new int[versions.size()];
+		int position = 0;
+		for (String version : versions) {
+			Integer slot = distinctVersions.get(version);
+			if (slot == null) {
+				Version parsed = Version.tryParse(version).getValue();
+				if (parsed == null) {
+					slot = -1;
+				} else {
+					parsedVersions.add(parsed.intern());
+					firstVersionIndex.add(position);
+					slot = parsedVersions.size() - 1;
+				}
+				distinctVersions.put(version, slot);
+			}
+			versionSlots[position++] = slot;
+		}
+		return evaluate(ranges, versionSlots, parsedVersions, firstVersionIndex);
+	}
+
+	/**
+	 * Evaluate every one of a list of ranges against every one of a list of versions.  Each distinct range
+	 * string is compiled only once, and equal versions are only evaluated once.  Ranges that can't be
+	 * compiled are satisfied by nothing.
+	 * @param ranges Ranges, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @param versions The versions to test against each range
+	 * @return the result of each (range, version) pair, by position in the given lists
+	 */
+	public static BatchResult batchSatisfiesVersions(List<String> ranges, List<Version> versions) {
+		Map<Version, Integer> distinctVersions = new HashMap<Version, Integer>();
+		List<Version> uniqueVersions = new ArrayList<Version>();
+		List<Integer> firstVersionIndex = new ArrayList<Integer>();
+		int[] versionSlots = new int[versions.size()];
+		int position = 0;
+		for (Version version : versions) {
+			if (version == null) {
+				throw new IllegalArgumentException("Versions must not contain null");
+			}
+			Integer slot = distinctVersions.get(version);
+			if (slot == null) {
+				uniqueVersions.add(version);
+				firstVersionIndex.add(position);
+				slot = uniqueVersions.size() - 1;
+				distinctVersions.put(version, slot);
+			}
+			versionSlots[position++] = slot;
+		}
+		return evaluate(ranges, versionSlots, uniqueVersions, firstVersionIndex);
+	}
+
+	private static BatchResult evaluate(List<String> ranges, int[] versionSlots, List<Version> versions, List<Integer> firstVersionIndex) {
+		Map<String, Integer> distinctRanges = new HashMap<String, Integer>();
+		List<Range> compiledRanges = new ArrayList<Range>();
+		int[] rangeSlots = new int[ranges.size()];
+		int position = 0;
+		for (String range : ranges) {
+			Integer slot = distinctRanges.get(range);
+			if (slot == null) {
+				Range compiled = compileOrNull(range);
+				if (compiled == null) {
+					slot = -1;
+				} else {
+					compiledRanges.add(compiled);
+					slot = compiledRanges.size() - 1;
+				}
+				distinctRanges.put(range, slot);
+			}
+			rangeSlots[position++] = slot;
+		}
+
+		Version[] candidates = versions.toArray(new Version[versions.size()]);
+		BitSet[] satisfying = new BitSet[compiledRanges.size()];
+		int[] maxSatisfying = new int[compiledRanges.size()];
+		for (int r = 0; r < satisfying.length; r++) {
+			Range range = compiledRanges.get(r);
+			BitSet bits = new BitSet(candidates.length);
+			int max = -1;
+			for (int v = 0; v < candidates.length; v++) {
+				if (range.isSatisfiedBy(candidates[v])) {
+					bits.set(v);
+					/* distinct versions are in order of first appearance, so the first of any equal versions wins */
+					if (max < 0 || candidates[v].compareTo(candidates[max]) > 0) {
+						max = v;
+					}
+				}
+			}
+			satisfying[r] = bits;
+			maxSatisfying[r] = max;
+		}
+
+		int[] firstIndex = new int[firstVersionIndex.size()];
+		for (int i = 0; i < firstIndex.length; i++) {
+			firstIndex[i] = firstVersionIndex.get(i);
+		}
+		return new BatchResult(rangeSlots, versionSlots, firstIndex, satisfying, maxSatisfying);
 	}
 }
@@ -0,0 +1,157 @@
+package com.github.gundy.semver4j.cache;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A size-bounded, concurrent cache.
+ *
+ * Lookups are lock-free: a hit only marks its entry as recently used.  When an insert takes the cache
+ * over capacity, entries are evicted in CLOCK ("second chance") order, which approximates least
+ * recently used eviction; only inserting threads ever take the (eviction) lock.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of cached values
+ */
+public final class BoundedCache<K, V> {
+	private final int capacity;
+	private final ConcurrentHashMap<K, Entry<K, V>> entries;
+	private final Queue<Entry<K, V>> clock = new ConcurrentLinkedQueue<Entry<K, V>>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param capacity The maximum number of entries to keep
+	 */
+	public BoundedCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be > 0");
+		}
+		this.capacity = capacity;
+		this.entries = new ConcurrentHashMap<K, Entry<K, V>>(Math.min(capacity, 1 << 16));
+	}
+
+	/**
+	 * Look up a value, without computing it if it's missing.
+	 * @param key The key to look up
+	 * @return the cached value, or null if there isn't one
+	 */
+	public V get(K key) {
+		Entry<K, V> entry = entries.get(key);
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		if (!entry.referenced) {
+			entry.referenced = true;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Look up a value, computing and caching it if it's missing.  The value may be computed by more
+	 * than one thread at a time, but only one of the results is kept (and returned to all of them).
+	 * @param key The key to look up
+	 * @param compute Computes the value for a key; exceptions are passed on, and nothing is cached
+	 * @return the cached value
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> compute) {
+		V value = get(key);
+		if (value != null) {
+			return value;
+		}
+		value = compute.apply(key);
+		if (value == null) {
+			return null;
+		}
+		Entry<K, V> entry = new Entry<K, V>(key, value);
+		Entry<K, V> existing = entries.putIfAbsent(key, entry);
+		if (existing != null) {
+			return existing.value;
+		}
+		clock.offer(entry);
+		if (entries.size() > capacity) {
+			evict();
+		}
+		return value;
+	}
+
+	private void evict() {
+		evictionLock.lock();
+		try {
+			while (entries.size() > capacity) {
+				Entry<K, V> entry = clock.poll();
+				if (entry == null) {
+					return;
+				}
+				if (entry.referenced) {
+					/* second chance */
+					entry.referenced = false;
+					clock.offer(entry);
+				} else if (entries.remove(entry.key, entry)) {
+					evictions.increment();
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Remove all entries (the counters are left as they are).
+	 */
+	public void clear() {
+		evictionLock.lock();
+		try {
+			entries.clear();
+			clock.clear();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "BoundedCache{size=" + size() + ", capacity=" + capacity
+			+ ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "}";
+	}
+
+	private static final class Entry<K, V> {
+		private final K key;
+		private final V value;
+		private volatile boolean referenced;
+
+		private Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.github.gundy.semver4j.metrics;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link Instrumentation} that emits JDK Flight Recorder events: semver4j.VersionParse, semver4j.RangeCompile,
+ * semver4j.RangeEvaluation and semver4j.CacheLookup, in the "SemVer4J" category.
+ *
+ * The event types are defined at runtime through the jdk.jfr API, so this class loads (and the library
+ * runs) on JDKs without Flight Recorder; use {@link #isAvailable} to check before creating one.  Events
+ * are only built while a recording has them enabled, but since evaluations are so frequent, the
+ * semver4j.RangeEvaluation event should usually be left disabled, or given a threshold on its nanos field.
+ */
+public final class FlightRecorderInstrumentation implements Instrumentation {
+	private static final String CATEGORY = "SemVer4J";
+
+	private final EventType versionParse;
+	private final EventType rangeCompile;
+	private final EventType rangeEvaluation;
+	private final EventType cacheLookup;
+
+	/**
+	 * @throws IllegalStateException if Flight Recorder isn't available
+	 */
+	public FlightRecorderInstrumentation() {
+		try {
+			Jfr jfr = new Jfr();
+			versionParse = jfr.eventType("VersionParse", "Version Parse", "A version string was parsed",
+				jfr.field(boolean.class, "failed", "Failed"),
+				jfr.timespan("nanos", "Duration"));
+			rangeCompile = jfr.eventType("RangeCompile", "Range Compile", "A range expression was compiled",
+				jfr.field(String.class, "range", "Range"),
+				jfr.field(boolean.class, "failed", "Failed"),
+				jfr.timespan("nanos", "Duration"));
+			rangeEvaluation = jfr.eventType("RangeEvaluation", "Range Evaluation", "A compiled range was evaluated against a version",
+				jfr.field(String.class, "range", "Range"),
+				jfr.timespan("nanos", "Duration"));
+			cacheLookup = jfr.eventType("CacheLookup", "Cache Lookup", "A range or version was looked up in a cache",
+				jfr.field(String.class, "cache", "Cache"),
+				jfr.field(String.class, "key", "Key"),
+				jfr.field(boolean.class, "hit", "Hit"));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Flight Recorder isn't available", e);
+		} catch (LinkageError e) {
+			throw new IllegalStateException("Flight Recorder isn't available", e);
+		}
+	}
+
+	/**
+	 * @return whether this JDK has a Flight Recorder API that events can be emitted through
+	 */
+	public static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.EventFactory");
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		} catch (LinkageError e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void versionParsed(long nanos) {
+		versionParse.emit(false, nanos);
+	}
+
+	@Override
+	public void versionParseFailed(long nanos) {
+		versionParse.emit(true, nanos);
+	}
+
+	@Override
+	public void rangeCompiled(String range, long nanos) {
+		rangeCompile.emit(range, false, nanos);
+	}
+
+	@Override
+	public void rangeCompileFailed(String range, long nanos) {
+		rangeCompile.emit(range, true, nanos);
+	}
+
+	@Override
+	public void rangeEvaluated(String range, long nanos) {
+		rangeEvaluation.emit(range, nanos);
+	}
+
+	@Override
+	public void rangeCacheLookup(String range, boolean hit) {
+		cacheLookup.emit("ranges", range, hit);
+	}
+
+	@Override
+	public void internCacheLookup(String version, boolean hit) {
+		cacheLookup.emit("versions", version, hit);
+	}
+
+	/* the reflective entry points into the jdk.jfr API */
+	private static final class Jfr {
+		private final Constructor<?> annotationElement;
+		private final Constructor<?> valueDescriptor;
+		private final Method create;
+		private final Method newEvent;
+		private final Method getEventType;
+		private final Method isEnabled;
+		private final Method set;
+		private final Method commit;
+		private final Class<?> name;
+		private final Class<?> label;
+		private final Class<?> description;
+		private final Class<?> category;
+		private final Class<?> timespan;
+
+		private Jfr() throws ReflectiveOperationException {
+			annotationElement = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+			valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+			Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+			create = eventFactory.getMethod("create", List.class, List.class);
+			newEvent = eventFactory.getMethod("newEvent");
+			getEventType = eventFactory.getMethod("getEventType");
+			isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+			Class<?> event = Class.forName("jdk.jfr.Event");
+			set = event.getMethod("set", int.class, Object.class);
+			commit = event.getMethod("commit");
+			name = Class.forName("jdk.jfr.Name");
+			label = Class.forName("jdk.jfr.Label");
+			description = Class.forName("jdk.jfr.Description");
+			category = Class.forName("jdk.jfr.Category");
+			timespan = Class.forName("jdk.jfr.Timespan");
+		}
+
+		private EventType eventType(String eventName, String eventLabel, String eventDescription, Object... fields)
+			throws ReflectiveOperationException {
+			List<Object> annotations = Arrays.asList(
+				annotationElement.newInstance(name, "semver4j." + eventName),
+				annotationElement.newInstance(label, eventLabel),
+				annotationElement.newInstance(description, eventDescription),
+				annotationElement.newInstance(category, new String[] {CATEGORY})
+			);
+			Object factory = create.invoke(null, annotations, Arrays.asList(fields));
+			return new EventType(this, factory, getEventType.invoke(factory));
+		}
+
+		private Object field(Class<?> type, String fieldName, String fieldLabel) throws ReflectiveOperationException {
+			return valueDescriptor.newInstance(type, fieldName,
+				Collections.singletonList(annotationElement.newInstance(label, fieldLabel)));
+		}
+
+		private Object timespan(String fieldName, String fieldLabel) throws ReflectiveOperationException {
+			List<Object> annotations = new ArrayList<Object>();
+			annotations.add(annotationElement.newInstance(label, fieldLabel));
+			annotations.add(annotationElement.newInstance(timespan, "NANOSECONDS"));
+			return valueDescriptor.newInstance(long.class, fieldName, annotations);
+		}
+	}
+
+	private static final class EventType {
+		private final Jfr jfr;
+		private final Object factory;
+		private final Object type;
+
+		private EventType(Jfr jfr, Object factory, Object type) {
+			this.jfr = jfr;
+			this.factory = factory;
+			this.type = type;
+		}
+
+		private void emit(Object... values) {
+			try {
+				if (!(Boolean) jfr.isEnabled.invoke(type)) {
+					return;
+				}
+				Object event = jfr.newEvent.invoke(factory);
+				for (int i = 0; i < values.length; i++) {
+					jfr.set.invoke(event, i, values[i]);
+				}
+				jfr.commit.invoke(event);
+			} catch (InvocationTargetException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException("Couldn't emit Flight Recorder event", e.getCause());
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Couldn't emit Flight Recorder event", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.github.gundy.semver4j.metrics;
+
+/**
+ * Receives events from the parsing and evaluation hot paths, once installed with {@link Metrics#install}.
+ *
+ * Every method does nothing by default, so implementations only need to override the events they're
+ * interested in.  Methods are called on the thread doing the work, from any number of threads at once,
+ * so they should be quick and thread safe; exceptions they throw are passed on to the caller.  Times are
+ * in nanoseconds, as measured by {@link System#nanoTime}.
+ */
+public interface Instrumentation {
+
+	/**
+	 * A version string (or part of a sequence of characters or bytes) was parsed.
+	 * @param nanos How long parsing took
+	 */
+	default void versionParsed(long nanos) {
+	}
+
+	/**
+	 * A version string was rejected.
+	 * @param nanos How long it took to reject it
+	 */
+	default void versionParseFailed(long nanos) {
+	}
+
+	/**
+	 * A range expression was compiled.
+	 * @param range The range expression
+	 * @param nanos How long compiling it took
+	 */
+	default void rangeCompiled(String range, long nanos) {
+	}
+
+	/**
+	 * A range expression was rejected.
+	 * @param range The range expression
+	 * @param nanos How long it took to reject it
+	 */
+	default void rangeCompileFailed(String range, long nanos) {
+	}
+
+	/**
+	 * A compiled range was evaluated against a version.
+	 * @param range The expression the range was compiled from
+	 * @param nanos How long evaluating it took
+	 */
+	default void rangeEvaluated(String range, long nanos) {
+	}
+
+	/**
+	 * A range expression was looked up in the cache of compiled ranges.
+	 * @param range The range expression
+	 * @param hit Whether the compiled range was in the cache
+	 * @see com.github.gundy.semver4j.SemVer#enableRangeCache
+	 */
+	default void rangeCacheLookup(String range, boolean hit) {
+	}
+
+	/**
+	 * A version string was looked up in the cache of interned versions.
+	 * @param version The version string
+	 * @param hit Whether the version was in the cache
+	 * @see com.github.gundy.semver4j.model.Version#enableInterning
+	 */
+	default void internCacheLookup(String version, boolean hit) {
+	}
+}
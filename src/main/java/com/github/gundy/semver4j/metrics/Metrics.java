@@ -0,0 +1,40 @@
+package com.github.gundy.semver4j.metrics;
+
+/**
+ * The {@link Instrumentation} that the library reports to, if any.
+ *
+ * Nothing is installed by default, and then each instrumented operation costs a single read of a
+ * volatile field: no clock is read, and no event is built.  Once an instrumentation is installed,
+ * each parse, compile and evaluation reads the clock twice, and every event is one call to it.
+ */
+public final class Metrics {
+	private static volatile Instrumentation instrumentation;
+
+	private Metrics() {
+	}
+
+	/**
+	 * Report events to an instrumentation, replacing any that's already installed.
+	 * @param instrumentation The instrumentation to report to (eg. a {@link MetricsRecorder})
+	 */
+	public static void install(Instrumentation instrumentation) {
+		if (instrumentation == null) {
+			throw new IllegalArgumentException("Instrumentation must not be null");
+		}
+		Metrics.instrumentation = instrumentation;
+	}
+
+	/**
+	 * Stop reporting events.
+	 */
+	public static void uninstall() {
+		instrumentation = null;
+	}
+
+	/**
+	 * @return the installed instrumentation, or null if there isn't one
+	 */
+	public static Instrumentation getInstrumentation() {
+		return instrumentation;
+	}
+}
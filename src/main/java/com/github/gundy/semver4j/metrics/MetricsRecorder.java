@@ -0,0 +1,255 @@
+package com.github.gundy.semver4j.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link Instrumentation} that counts events, for reading by a metrics library or a diagnostic endpoint.
+ *
+ * Besides totals, it estimates how much time is spent on each range expression (compiling it, plus
+ * evaluating it), to find the expressions that are the most expensive overall.  Compiles are always
+ * counted, while evaluations (which are far more frequent) are sampled: one in every {@code sampleInterval}
+ * of them, chosen at random, is counted {@code sampleInterval} times over.  Only a bounded number of
+ * distinct expressions are tracked, as a space-saving sketch: once that many have been seen, a new one
+ * replaces the cheapest tracked expression and starts from its total, so that an expression that only
+ * becomes expensive later (eg. after a deployment) still displaces those that have been cheap all along.
+ * The total of an expression is therefore an overestimate, by at most the total of the one it replaced,
+ * while the most expensive expressions (those that cost more than 1/maxTrackedRanges of the time spent on
+ * all of them) are always among those tracked.
+ */
+public final class MetricsRecorder implements Instrumentation {
+	private static final Comparator<Map.Entry<String, LongAdder>> MOST_EXPENSIVE_FIRST = new Comparator<Map.Entry<String, LongAdder>>() {
+		@Override
+		public int compare(Map.Entry<String, LongAdder> a, Map.Entry<String, LongAdder> b) {
+			return Long.compare(b.getValue().sum(), a.getValue().sum());
+		}
+	};
+
+	private final int sampleInterval;
+	private final int maxTrackedRanges;
+
+	private final LongAdder versionsParsed = new LongAdder();
+	private final LongAdder versionParseFailures = new LongAdder();
+	private final LongAdder versionParseNanos = new LongAdder();
+	private final LongAdder rangesCompiled = new LongAdder();
+	private final LongAdder rangeCompileFailures = new LongAdder();
+	private final LongAdder rangeCompileNanos = new LongAdder();
+	private final LongAdder evaluations = new LongAdder();
+	private final LongAdder evaluationNanos = new LongAdder();
+	private final LongAdder rangeCacheHits = new LongAdder();
+	private final LongAdder rangeCacheMisses = new LongAdder();
+	private final LongAdder internCacheHits = new LongAdder();
+	private final LongAdder internCacheMisses = new LongAdder();
+
+	/* estimated nanoseconds spent on each tracked range expression; entries are only added or replaced under the lock */
+	private final ConcurrentHashMap<String, LongAdder> rangeNanos = new ConcurrentHashMap<String, LongAdder>();
+	private final Object trackingLock = new Object();
+
+	/**
+	 * Samples one in every 64 evaluations, and tracks up to 1000 distinct range expressions.
+	 */
+	public MetricsRecorder() {
+		this(64, 1000);
+	}
+
+	/**
+	 * @param sampleInterval The average number of evaluations per sample (1 to sample every evaluation)
+	 * @param maxTrackedRanges The maximum number of distinct range expressions to estimate the cost of at a time
+	 */
+	public MetricsRecorder(int sampleInterval, int maxTrackedRanges) {
+		if (sampleInterval <= 0) {
+			throw new IllegalArgumentException("Sample interval must be > 0");
+		}
+		if (maxTrackedRanges < 0) {
+			throw new IllegalArgumentException("Maximum number of tracked ranges must be >= 0");
+		}
+		this.sampleInterval = sampleInterval;
+		this.maxTrackedRanges = maxTrackedRanges;
+	}
+
+	@Override
+	public void versionParsed(long nanos) {
+		versionsParsed.increment();
+		versionParseNanos.add(nanos);
+	}
+
+	@Override
+	public void versionParseFailed(long nanos) {
+		versionParseFailures.increment();
+		versionParseNanos.add(nanos);
+	}
+
+	@Override
+	public void rangeCompiled(String range, long nanos) {
+		rangesCompiled.increment();
+		rangeCompileNanos.add(nanos);
+		addRangeNanos(range, nanos);
+	}
+
+	@Override
+	public void rangeCompileFailed(String range, long nanos) {
+		rangeCompileFailures.increment();
+		rangeCompileNanos.add(nanos);
+		addRangeNanos(range, nanos);
+	}
+
+	@Override
+	public void rangeEvaluated(String range, long nanos) {
+		evaluations.increment();
+		evaluationNanos.add(nanos);
+		if (sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0) {
+			addRangeNanos(range, nanos * sampleInterval);
+		}
+	}
+
+	@Override
+	public void rangeCacheLookup(String range, boolean hit) {
+		(hit ? rangeCacheHits : rangeCacheMisses).increment();
+	}
+
+	@Override
+	public void internCacheLookup(String version, boolean hit) {
+		(hit ? internCacheHits : internCacheMisses).increment();
+	}
+
+	private void addRangeNanos(String range, long nanos) {
+		if (range == null) {
+			return;
+		}
+		LongAdder total = rangeNanos.get(range);
+		if (total == null) {
+			total = track(range);
+			if (total == null) {
+				return;
+			}
+		}
+		total.add(nanos);
+	}
+
+	/* start tracking an expression, replacing the cheapest tracked one if there are already as many as allowed */
+	private LongAdder track(String range) {
+		if (maxTrackedRanges == 0) {
+			return null;
+		}
+		synchronized (trackingLock) {
+			LongAdder total = rangeNanos.get(range);
+			if (total != null) {
+				return total;
+			}
+			total = new LongAdder();
+			if (rangeNanos.size() >= maxTrackedRanges) {
+				Map.Entry<String, LongAdder> cheapest = null;
+				long cheapestNanos = Long.MAX_VALUE;
+				for (Map.Entry<String, LongAdder> entry : rangeNanos.entrySet()) {
+					long nanos = entry.getValue().sum();
+					if (nanos < cheapestNanos) {
+						cheapest = entry;
+						cheapestNanos = nanos;
+					}
+				}
+				rangeNanos.remove(cheapest.getKey());
+				/* anything still being added to the replaced total is lost, as it would be to sampling */
+				total.add(cheapestNanos);
+			}
+			rangeNanos.put(range, total);
+			return total;
+		}
+	}
+
+	/**
+	 * Returns the range expressions that the most time has been spent on, compiling and evaluating them.
+	 * @param count The maximum number of expressions to return
+	 * @return the estimated nanoseconds spent on each expression, most expensive first
+	 */
+	public Map<String, Long> getMostExpensiveRanges(int count) {
+		List<Map.Entry<String, LongAdder>> entries = new ArrayList<Map.Entry<String, LongAdder>>(rangeNanos.entrySet());
+		Collections.sort(entries, MOST_EXPENSIVE_FIRST);
+		Map<String, Long> mostExpensive = new LinkedHashMap<String, Long>();
+		for (Map.Entry<String, LongAdder> entry : entries) {
+			if (mostExpensive.size() >= count) {
+				break;
+			}
+			mostExpensive.put(entry.getKey(), entry.getValue().sum());
+		}
+		return mostExpensive;
+	}
+
+	/**
+	 * Set every count back to zero, and forget every range expression.
+	 */
+	public void reset() {
+		for (LongAdder counter : new LongAdder[] {
+			versionsParsed, versionParseFailures, versionParseNanos, rangesCompiled, rangeCompileFailures, rangeCompileNanos,
+			evaluations, evaluationNanos, rangeCacheHits, rangeCacheMisses, internCacheHits, internCacheMisses
+		}) {
+			counter.reset();
+		}
+		synchronized (trackingLock) {
+			rangeNanos.clear();
+		}
+	}
+
+	public long getVersionsParsed() {
+		return versionsParsed.sum();
+	}
+
+	public long getVersionParseFailures() {
+		return versionParseFailures.sum();
+	}
+
+	public long getVersionParseNanos() {
+		return versionParseNanos.sum();
+	}
+
+	public long getRangesCompiled() {
+		return rangesCompiled.sum();
+	}
+
+	public long getRangeCompileFailures() {
+		return rangeCompileFailures.sum();
+	}
+
+	public long getRangeCompileNanos() {
+		return rangeCompileNanos.sum();
+	}
+
+	public long getEvaluations() {
+		return evaluations.sum();
+	}
+
+	public long getEvaluationNanos() {
+		return evaluationNanos.sum();
+	}
+
+	public long getRangeCacheHits() {
+		return rangeCacheHits.sum();
+	}
+
+	public long getRangeCacheMisses() {
+		return rangeCacheMisses.sum();
+	}
+
+	public long getInternCacheHits() {
+		return internCacheHits.sum();
+	}
+
+	public long getInternCacheMisses() {
+		return internCacheMisses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "MetricsRecorder{versionsParsed=" + getVersionsParsed() + ", versionParseFailures=" + getVersionParseFailures()
+			+ ", rangesCompiled=" + getRangesCompiled() + ", rangeCompileFailures=" + getRangeCompileFailures()
+			+ ", evaluations=" + getEvaluations() + ", rangeCacheHits=" + getRangeCacheHits()
+			+ ", rangeCacheMisses=" + getRangeCacheMisses() + ", internCacheHits=" + getInternCacheHits()
+			+ ", internCacheMisses=" + getInternCacheMisses() + "}";
+	}
+}
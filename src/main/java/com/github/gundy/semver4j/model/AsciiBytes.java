@@ -0,0 +1,71 @@
+package com.github.gundy.semver4j.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A view of UTF-8 encoded bytes as characters, one character per byte, for parsing without decoding.
+ *
+ * Everything the version and range grammars accept is ASCII, which UTF-8 encodes as the same single
+ * bytes, while every byte of a multi-byte UTF-8 sequence is outside the ASCII range, and so is
+ * rejected by the parsers like any other unexpected character.  Indexes are byte offsets.
+ */
+final class AsciiBytes implements CharSequence {
+	private final byte[] bytes;
+	private final ByteBuffer buffer;
+	private final int offset;
+	private final int length;
+
+	AsciiBytes(byte[] bytes, int offset, int length) {
+		this(bytes, null, offset, length);
+	}
+
+	/* uses absolute gets, so the buffer's position is neither used nor changed; the bytes must be below its limit */
+	AsciiBytes(ByteBuffer buffer, int offset, int length) {
+		this(null, buffer, offset, length);
+	}
+
+	private AsciiBytes(byte[] bytes, ByteBuffer buffer, int offset, int length) {
+		int size = bytes != null ? bytes.length : buffer.limit();
+		if (offset < 0 || length < 0 || offset > size - length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", size " + size);
+		}
+		this.bytes = bytes;
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+		}
+		return (char) ((bytes != null ? bytes[offset + index] : buffer.get(offset + index)) & 0xff);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || start > end || end > length) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+		return new AsciiBytes(bytes, buffer, offset + start, end - start);
+	}
+
+	@Override
+	public String toString() {
+		if (bytes != null) {
+			return new String(bytes, offset, length, StandardCharsets.UTF_8);
+		}
+		byte[] copy = new byte[length];
+		for (int i = 0; i < length; i++) {
+			copy[i] = buffer.get(offset + i);
+		}
+		return new String(copy, StandardCharsets.UTF_8);
+	}
+}
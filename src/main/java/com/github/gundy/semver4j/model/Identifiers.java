@@ -0,0 +1,53 @@
+package com.github.gundy.semver4j.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of identifiers, backed directly by an array, as held by every {@link Version}.
+ *
+ * Versions without pre-release or build identifiers (nearly all of them) share a single empty list, so
+ * that they hold no lists of their own, and the others hold one small object and an array per list, rather
+ * than an unmodifiable wrapper around an {@link java.util.ArrayList} and its (usually oversized) array.
+ */
+final class Identifiers extends AbstractList<Version.Identifier> implements RandomAccess {
+	static final Identifiers EMPTY = new Identifiers(new Version.Identifier[0]);
+
+	private final Version.Identifier[] identifiers;
+
+	private Identifiers(Version.Identifier[] identifiers) {
+		this.identifiers = identifiers;
+	}
+
+	/* a compact copy of a list of identifiers, or the list itself if it's already one */
+	static Identifiers of(List<Version.Identifier> identifiers) {
+		if (identifiers instanceof Identifiers) {
+			return (Identifiers) identifiers;
+		} else if (identifiers.isEmpty()) {
+			return EMPTY;
+		}
+		Version.Identifier[] copy = identifiers.toArray(new Version.Identifier[identifiers.size()]);
+		for (Version.Identifier identifier : copy) {
+			if (identifier == null) {
+				throw new IllegalArgumentException("Identifier lists must not contain null");
+			}
+		}
+		return new Identifiers(copy);
+	}
+
+	/* a list of identifiers that takes over an array of them (which mustn't contain null, or be changed after) */
+	static Identifiers wrap(Version.Identifier[] identifiers) {
+		return identifiers.length == 0 ? EMPTY : new Identifiers(identifiers);
+	}
+
+	@Override
+	public Version.Identifier get(int index) {
+		return identifiers[index];
+	}
+
+	@Override
+	public int size() {
+		return identifiers.length;
+	}
+}
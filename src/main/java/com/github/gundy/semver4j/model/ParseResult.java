@@ -0,0 +1,117 @@
+package com.github.gundy.semver4j.model;
+
+/**
+ * The outcome of {@link Version#tryParse} or {@link Range#tryParse}: either the parsed value, or what was
+ * wrong with the input and where.
+ *
+ * Rejecting input this way throws no exception (and so captures no stack trace), and the error message is
+ * only built if it's asked for, so rejecting invalid input costs no more than accepting valid input.
+ *
+ * @param <T> the type of the parsed value
+ */
+public final class ParseResult<T> {
+
+	/**
+	 * The kinds of problem that make an input invalid.
+	 */
+	public enum ErrorKind {
+		/** the input was null */
+		NULL_INPUT,
+		/** a number (eg. a major version) was missing */
+		EXPECTED_NUMBER,
+		/** a number doesn't fit in an int */
+		NUMBER_TOO_LARGE,
+		/** a pre-release or build identifier was missing, eg. after a period */
+		EXPECTED_IDENTIFIER,
+		/** a version was missing from a range, eg. after an operator */
+		EXPECTED_VERSION,
+		/** a space was missing from a range, eg. around the hyphen of a hyphen range */
+		EXPECTED_SPACE,
+		/** a wildcard was used where it's not allowed, eg. "&gt;x" or "1.x.3" */
+		INVALID_WILDCARD,
+		/** any other character that isn't allowed where it appears */
+		UNEXPECTED_CHARACTER
+	}
+
+	private final T value;
+	private final ErrorKind errorKind;
+	private final String errorDescription;
+	private final int errorOffset;
+	/* "version" or "range", and the text that was rejected, for the error message */
+	private final String inputType;
+	private final CharSequence input;
+
+	private ParseResult(T value, ErrorKind errorKind, String errorDescription, int errorOffset, String inputType, CharSequence input) {
+		this.value = value;
+		this.errorKind = errorKind;
+		this.errorDescription = errorDescription;
+		this.errorOffset = errorOffset;
+		this.inputType = inputType;
+		this.input = input;
+	}
+
+	static <T> ParseResult<T> success(T value) {
+		return new ParseResult<T>(value, null, null, -1, null, null);
+	}
+
+	static <T> ParseResult<T> failure(ErrorKind kind, String description, int offset, String inputType, CharSequence input) {
+		return new ParseResult<T>(null, kind, description, offset, inputType, input);
+	}
+
+	/**
+	 * @return true if the input was valid
+	 */
+	public boolean isSuccess() {
+		return errorKind == null;
+	}
+
+	/**
+	 * @return the parsed value, or null if the input wasn't valid
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the parsed value
+	 * @throws IllegalArgumentException with the error message, if the input wasn't valid
+	 */
+	public T getValueOrThrow() {
+		if (errorKind != null) {
+			throw new IllegalArgumentException(getErrorMessage());
+		}
+		return value;
+	}
+
+	/**
+	 * @return what was wrong with the input, or null if it was valid
+	 */
+	public ErrorKind getErrorKind() {
+		return errorKind;
+	}
+
+	/**
+	 * @return the offset of the character at which the input was found to be invalid (0 for null input), or -1
+	 *         if it was valid
+	 */
+	public int getErrorOffset() {
+		return errorOffset;
+	}
+
+	/**
+	 * @return the message that fromString would have thrown for the input, or null if it was valid
+	 */
+	public String getErrorMessage() {
+		if (errorKind == null) {
+			return null;
+		} else if (input == null) {
+			return errorDescription;
+		}
+		return errorDescription + " at offset " + errorOffset + " in " + inputType + " \"" + input + "\"";
+	}
+
+	@Override
+	public String toString() {
+		return isSuccess() ? "ParseResult{value=" + value + "}" : "ParseResult{error=" + getErrorMessage() + "}";
+	}
+}
@@ -0,0 +1,607 @@
+package com.github.gundy.semver4j.model;
+
+import com.github.gundy.semver4j.generated.grammar.NodeSemverExpressionBaseVisitor;
+import com.github.gundy.semver4j.generated.grammar.NodeSemverExpressionLexer;
+import com.github.gundy.semver4j.generated.grammar.NodeSemverExpressionParser;
+import com.github.gundy.semver4j.metrics.Instrumentation;
+import com.github.gundy.semver4j.metrics.Metrics;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A node semver range expression, compiled once into an immutable tree of precomputed bounds.
+ *
+ * A range is a logical OR of alternatives, each of which is a logical AND of {@link Constraint}s.
+ * All versions used as bounds are computed when the range is compiled, so evaluating a range
+ * against a {@link Version} does no parsing and no allocation.  Instances are immutable and
+ * may be shared freely between threads.
+ */
+public final class Range {
+	private final String expression;
+	private final Constraint[][] alternatives;
+
+	Range(String expression, Constraint[][] alternatives) {
+		this.expression = expression;
+		this.alternatives = alternatives;
+	}
+
+	/**
+	 * Compile a range expression.
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the compiled range
+	 * @throws IllegalArgumentException if the range expression can't be compiled
+	 */
+	public static Range fromString(String range) {
+		return RangeParser.parse(range);
+	}
+
+	/**
+	 * Compile a range expression, without throwing an exception (or building an error message) if it isn't valid.
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the compiled range, or the kind and offset of the error that makes the expression invalid
+	 */
+	public static ParseResult<Range> tryParse(String range) {
+		return RangeParser.tryParse(range);
+	}
+
+	/*
+	 * reference implementation of fromString, lowering the ANTLR parse tree for the grammar in
+	 * NodeSemverExpression.g4; unless strict, whatever ANTLR's error recovery makes of invalid input is lowered too
+	 */
+	static Range fromStringUsingGrammar(String range, boolean strict) {
+		ParseTree tree = getParseTreeForRange(range, strict);
+		try {
+			return new CompilingVisitor(range).compile(tree);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid range expression: " + range, e);
+		} catch (IllegalArgumentException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid range expression: " + range, e);
+		}
+	}
+
+	static ParseTree getParseTreeForRange(final String range, boolean strict) {
+		ANTLRInputStream reader = new ANTLRInputStream(range);
+		NodeSemverExpressionLexer lexer = new NodeSemverExpressionLexer(reader);
+		lexer.removeErrorListeners();
+		TokenStream tokens = new CommonTokenStream(lexer);
+		NodeSemverExpressionParser parser = new NodeSemverExpressionParser(tokens);
+		parser.removeErrorListeners();
+		if (strict) {
+			ANTLRErrorListener errorListener = new BaseErrorListener() {
+				@Override
+				public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+					throw new IllegalArgumentException("Invalid range expression \"" + range + "\": " + msg);
+				}
+			};
+			lexer.addErrorListener(errorListener);
+			parser.addErrorListener(errorListener);
+		}
+		return parser.rangeSet();
+	}
+
+	/**
+	 * Check whether a given version falls within this range.
+	 * @param version The version to test
+	 * @return true if the version satisfies at least one of the alternatives of this range
+	 */
+	public boolean isSatisfiedBy(Version version) {
+		Instrumentation instrumentation = Metrics.getInstrumentation();
+		if (instrumentation == null) {
+			return anySatisfied(version);
+		}
+		long start = System.nanoTime();
+		boolean satisfied = anySatisfied(version);
+		instrumentation.rangeEvaluated(expression, System.nanoTime() - start);
+		return satisfied;
+	}
+
+	private boolean anySatisfied(Version version) {
+		for (Constraint[] alternative : alternatives) {
+			if (allSatisfied(alternative, version)) { /* short circuit evaluation */
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean allSatisfied(Constraint[] constraints, Version version) {
+		for (Constraint constraint : constraints) {
+			if (!constraint.isSatisfiedBy(version)) { /* short circuit evaluation */
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get a predicate that tests versions against this range, for ranges that are evaluated many times.
+	 * Where the JVM allows it, the range is turned into a chain of method handles with its bounds folded
+	 * in as constants, so that most ranges test a version with a few integer comparisons; otherwise the
+	 * predicate calls {@link #isSatisfiedBy}.
+	 * @return a predicate that's true for the versions that satisfy this range
+	 */
+	public Predicate<Version> toPredicate() {
+		return RangePredicates.of(this, expression, alternatives);
+	}
+
+	/**
+	 * Check whether some version satisfies both this range and another one.  This is worked out from the
+	 * bounds of the two ranges, without testing any versions.  Versions that differ only in their build
+	 * identifiers are treated as the same version.
+	 * @param other Another range
+	 * @return true if at least one version satisfies both ranges
+	 */
+	public boolean intersects(Range other) {
+		return !VersionSet.of(this).intersect(VersionSet.of(other)).isEmpty();
+	}
+
+	/**
+	 * Check whether every version that satisfies this range also satisfies another one.  This is worked out
+	 * from the bounds of the two ranges, without testing any versions.  Versions that differ only in their
+	 * build identifiers are treated as the same version.
+	 * @param other Another range
+	 * @return true if no version satisfies this range without also satisfying the other
+	 */
+	public boolean subsetOf(Range other) {
+		return VersionSet.of(this).isSubsetOf(VersionSet.of(other));
+	}
+
+	/**
+	 * Returns a range satisfied by exactly the versions that satisfy both this range and another one.
+	 * Its {@link #toString} describes how it was built, but isn't necessarily a valid range expression.
+	 * @param other Another range
+	 * @return the intersection of the two ranges
+	 */
+	public Range intersection(Range other) {
+		Constraint[][] intersection = new Constraint[alternatives.length * other.alternatives.length][];
+		int i = 0;
+		for (Constraint[] left : alternatives) {
+			for (Constraint[] right : other.alternatives) {
+				Constraint[] constraints = new Constraint[left.length + right.length];
+				System.arraycopy(left, 0, constraints, 0, left.length);
+				System.arraycopy(right, 0, constraints, left.length, right.length);
+				intersection[i++] = constraints;
+			}
+		}
+		return new Range("(" + expression + ") (" + other.expression + ")", intersection);
+	}
+
+	/**
+	 * Returns a range satisfied by exactly the versions that satisfy either this range or another one.
+	 * @param other Another range
+	 * @return the union of the two ranges
+	 */
+	public Range union(Range other) {
+		Constraint[][] union = new Constraint[alternatives.length + other.alternatives.length][];
+		System.arraycopy(alternatives, 0, union, 0, alternatives.length);
+		System.arraycopy(other.alternatives, 0, union, alternatives.length, other.alternatives.length);
+		return new Range(expression + " || " + other.expression, union);
+	}
+
+	Constraint[][] getAlternatives() {
+		return alternatives;
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	/**
+	 * A single comparator of a range (eg. "^1.2.3" or "&gt;=1.0"), lowered into a union of intervals
+	 * plus the rules governing which pre-release versions it may match.
+	 */
+	public static final class Constraint {
+		private static final Interval[] NO_INTERVALS = new Interval[0];
+		private static final Version[] NO_VERSIONS = new Version[0];
+
+		static final Constraint ANY = new Constraint(new Interval[] {Interval.ALL}, null, true, NO_VERSIONS);
+		static final Constraint ANY_RELEASE = new Constraint(new Interval[] {Interval.ALL}, null, false, NO_VERSIONS);
+		static final Constraint NONE = new Constraint(NO_INTERVALS, null, false, NO_VERSIONS);
+
+		private final Interval[] intervals;
+		private final Version exact;
+		private final boolean preReleasesUnrestricted;
+		private final Version[] preReleaseTuples;
+
+		Constraint(Interval[] intervals, Version exact, boolean preReleasesUnrestricted, Version[] preReleaseTuples) {
+			this.intervals = intervals;
+			this.exact = exact;
+			this.preReleasesUnrestricted = preReleasesUnrestricted;
+			this.preReleaseTuples = preReleaseTuples;
+		}
+
+		/**
+		 * @param version The version to test
+		 * @return true if the version satisfies this constraint
+		 */
+		public boolean isSatisfiedBy(Version version) {
+			/* versions with pre-release tags only match if a bound shares their major/minor/patch */
+			if (!preReleasesUnrestricted
+				&& !version.getPreReleaseIdentifiers().isEmpty()
+				&& !allowsPreReleasesOf(version)) {
+				return false;
+			}
+			for (Interval interval : intervals) {
+				if (interval.contains(version)) {
+					return true;
+				}
+			}
+			return exact != null && exact.equals(version);
+		}
+
+		Interval[] getIntervals() {
+			return intervals;
+		}
+
+		/* a version that also satisfies this constraint if it's exactly equal (including build identifiers), or null */
+		Version getExact() {
+			return exact;
+		}
+
+		boolean isPreReleasesUnrestricted() {
+			return preReleasesUnrestricted;
+		}
+
+		/* pre-release versions satisfy this constraint only if they share the major/minor/patch of one of these */
+		Version[] getPreReleaseTuples() {
+			return preReleaseTuples;
+		}
+
+		private boolean allowsPreReleasesOf(Version version) {
+			for (Version tuple : preReleaseTuples) {
+				if (majorMinorPatchMatch(tuple, version)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/* >=left <right, as used by tilde and caret ranges */
+		static Constraint leftInclusiveRightExclusive(Version left, Version right) {
+			return new Constraint(
+				new Interval[] {new Interval(left, true, right, false)},
+				null,
+				false,
+				preReleaseTuples(left, right)
+			);
+		}
+
+		static Constraint hyphen(Version left, Version right, boolean rightMinorSpecified, boolean rightPatchSpecified) {
+			if (!rightMinorSpecified && !rightPatchSpecified) {
+				return leftInclusiveRightExclusive(left, right.incrementMajor());
+			} else if (!rightPatchSpecified) {
+				return leftInclusiveRightExclusive(left, right.incrementMinor());
+			}
+			return new Constraint(
+				new Interval[] {new Interval(left, true, right, true)},
+				null,
+				false,
+				preReleaseTuples(left, right)
+			);
+		}
+
+		static Constraint tilde(Version left, boolean minorSpecified, boolean patchSpecified) {
+			if (!minorSpecified && !patchSpecified) {
+				return leftInclusiveRightExclusive(left, left.incrementMajor());
+			}
+			return leftInclusiveRightExclusive(left, left.incrementMinor());
+		}
+
+		/* a caret range; only bounds of the RangeParser extension may have a wildcard minor or patch (eg. "^0.0.x") */
+		static Constraint caret(Version left, boolean minorWildcard, boolean patchWildcard) {
+			Version right;
+			if (left.getMajor() != 0 || minorWildcard) {
+				right = left.incrementMajor();
+			} else if (left.getMinor() != 0 || patchWildcard) {
+				right = left.incrementMinor();
+			} else {
+				right = left.incrementPatch();
+			}
+			return leftInclusiveRightExclusive(left, right);
+		}
+
+		/**
+		 * A primitive operator (eg. "&gt;=1.2.x") applied to a partially specified version.
+		 * @param operator one of "&gt;", "&gt;=", "&lt;", "&lt;=" or "="
+		 * @param text the text of the (partially specified) version, as written in the range
+		 * @param minorSpecified true if the minor version was given as a number
+		 * @param patchSpecified true if the patch version was given as a number
+		 */
+		static Constraint operator(String operator, String text, boolean minorSpecified, boolean patchSpecified) {
+			Version version = partialVersion(text, patchSpecified);
+			if (">".equals(operator)) {
+				if (!minorSpecified || !patchSpecified) {
+					if (!patchSpecified) {
+						version = version.incrementMinor();
+					}
+					if (!minorSpecified) {
+						version = version.incrementMajor();
+					}
+					return new Constraint(
+						new Interval[] {new Interval(version, true, null, false)}, null, false, preReleaseTuples(version)
+					);
+				}
+				return new Constraint(
+					new Interval[] {new Interval(version, false, null, false)}, null, false, preReleaseTuples(version)
+				);
+			}
+			Interval interval;
+			if (">=".equals(operator)) {
+				interval = new Interval(version, true, null, false);
+			} else if ("<".equals(operator)) {
+				return new Constraint(
+					new Interval[] {new Interval(null, false, version, false)}, null, false, preReleaseTuples(version)
+				);
+			} else if ("<=".equals(operator)) {
+				interval = new Interval(null, false, version, true);
+			} else if ("=".equals(operator)) {
+				interval = new Interval(version, true, version, true);
+			} else {
+				return NONE;
+			}
+			return new Constraint(
+				new Interval[] {interval, wildcardInterval(version, minorSpecified, patchSpecified)},
+				exactVersionOrNull(text),
+				false,
+				preReleaseTuples(version)
+			);
+		}
+
+		/**
+		 * A bare (partially specified) version such as "1.2.x" or "1.2.3".
+		 */
+		static Constraint wildcard(String text, boolean minorSpecified, boolean patchSpecified) {
+			Version version = partialVersion(text, patchSpecified);
+			Version exact = exactVersionOrNull(text);
+			return new Constraint(
+				new Interval[] {wildcardInterval(version, minorSpecified, patchSpecified)},
+				exact,
+				false,
+				exact != null ? preReleaseTuples(exact) : NO_VERSIONS
+			);
+		}
+
+		static Constraint fullySpecified(Version version, boolean minorSpecified, boolean patchSpecified) {
+			if (!minorSpecified || !patchSpecified) {
+				return new Constraint(
+					new Interval[] {wildcardInterval(version, minorSpecified, false)},
+					null,
+					false,
+					NO_VERSIONS
+				);
+			}
+			return new Constraint(
+				new Interval[] {new Interval(version, true, version, true)}, null, false, preReleaseTuples(version)
+			);
+		}
+
+		/*
+		 * the version given by a (possibly partial, or wildcarded) version in a range; missing parts are zero.  Only
+		 * a version without a patch number can have wildcards (for its minor or patch), and only one with a patch
+		 * number can have pre-release or build identifiers, so that the identifiers are never rewritten
+		 */
+		static Version partialVersion(String text, boolean patchSpecified) {
+			if (patchSpecified) {
+				return VersionParser.parseBound(text);
+			}
+			return VersionParser.parseBound(text.replace(".x", "").replace(".X", "").replace(".*", ""));
+		}
+
+		/* release versions whose specified major/minor/patch fields all match those of the given version */
+		private static Interval wildcardInterval(Version version, boolean minorSpecified, boolean patchSpecified) {
+			Version lower = Version.builder().major(version.getMajor()).build();
+			if (!minorSpecified) {
+				return new Interval(lower, true, lower.incrementMajor(), false);
+			}
+			lower = Version.builder().major(version.getMajor()).minor(version.getMinor()).build();
+			if (!patchSpecified) {
+				return new Interval(lower, true, lower.incrementMinor(), false);
+			}
+			lower = Version.builder().major(version.getMajor()).minor(version.getMinor()).patch(version.getPatch()).build();
+			return new Interval(lower, true, lower.incrementPatch(), false);
+		}
+
+		/* the version whose canonical form is exactly the given text, if there is one */
+		private static Version exactVersionOrNull(String text) {
+			String trimmed = text.trim();
+			try {
+				Version version = VersionParser.parseBound(trimmed);
+				return version.toString().equals(trimmed) ? version : null;
+			} catch (RuntimeException e) {
+				return null;
+			}
+		}
+
+		private static Version[] preReleaseTuples(Version... bounds) {
+			List<Version> tuples = new ArrayList<Version>();
+			for (Version bound : bounds) {
+				if (!bound.getPreReleaseIdentifiers().isEmpty()) {
+					tuples.add(bound);
+				}
+			}
+			return tuples.isEmpty() ? NO_VERSIONS : tuples.toArray(new Version[tuples.size()]);
+		}
+	}
+
+	/**
+	 * An interval of versions; a null bound is unbounded.
+	 */
+	public static final class Interval {
+		static final Interval ALL = new Interval(null, false, null, false);
+
+		private final Version lower;
+		private final boolean lowerInclusive;
+		private final Version upper;
+		private final boolean upperInclusive;
+
+		Interval(Version lower, boolean lowerInclusive, Version upper, boolean upperInclusive) {
+			this.lower = lower;
+			this.lowerInclusive = lowerInclusive;
+			this.upper = upper;
+			this.upperInclusive = upperInclusive;
+		}
+
+		Version getLower() {
+			return lower;
+		}
+
+		boolean isLowerInclusive() {
+			return lowerInclusive;
+		}
+
+		Version getUpper() {
+			return upper;
+		}
+
+		boolean isUpperInclusive() {
+			return upperInclusive;
+		}
+
+		public boolean contains(Version version) {
+			if (lower != null) {
+				int result = version.compareTo(lower);
+				if (result < 0 || result == 0 && !lowerInclusive) {
+					return false;
+				}
+			}
+			if (upper != null) {
+				int result = version.compareTo(upper);
+				if (result > 0 || result == 0 && !upperInclusive) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	static boolean majorMinorPatchMatch(Version left, Version right) {
+		return left.getMajor() == right.getMajor()
+			&& left.getMinor() == right.getMinor()
+			&& left.getPatch() == right.getPatch();
+	}
+
+	/**
+	 * Lowers an ANTLR parse tree into a {@link Range}, mirroring the semantics of
+	 * {@link com.github.gundy.semver4j.visitor.SemVerRangeExpressionVisitor}.
+	 */
+	private static final class CompilingVisitor extends NodeSemverExpressionBaseVisitor<Constraint> {
+		private final String expression;
+
+		private CompilingVisitor(String expression) {
+			this.expression = expression;
+		}
+
+		private Range compile(ParseTree tree) {
+			if (!(tree instanceof NodeSemverExpressionParser.LogicalOrOfMultipleRangesContext)) {
+				throw new IllegalArgumentException("Invalid range expression: " + expression);
+			}
+			List<NodeSemverExpressionParser.BasicRangeContext> basicRanges =
+				((NodeSemverExpressionParser.LogicalOrOfMultipleRangesContext) tree).basicRange();
+			Constraint[][] alternatives = new Constraint[basicRanges.size()][];
+			for (int i = 0; i < alternatives.length; i++) {
+				alternatives[i] = compileBasicRange(basicRanges.get(i));
+			}
+			return new Range(expression, alternatives);
+		}
+
+		private Constraint[] compileBasicRange(NodeSemverExpressionParser.BasicRangeContext ctx) {
+			/* the range must be the last child; anything else is left over from error recovery */
+			ParseTree range = ctx.getChildCount() > 0 ? ctx.getChild(ctx.getChildCount() - 1) : null;
+			if (range instanceof NodeSemverExpressionParser.LogicalAndOfSimpleExpressionsContext) {
+				List<NodeSemverExpressionParser.SimpleContext> simples =
+					((NodeSemverExpressionParser.LogicalAndOfSimpleExpressionsContext) range).simple();
+				Constraint[] constraints = new Constraint[simples.size()];
+				for (int i = 0; i < constraints.length; i++) {
+					constraints[i] = visit(simples.get(i));
+					if (constraints[i] == null) {
+						throw new IllegalArgumentException("Invalid range expression: " + expression);
+					}
+				}
+				return constraints;
+			} else if (range instanceof NodeSemverExpressionParser.HyphenatedRangeOfFullySpecifiedVersionsContext
+				|| range instanceof NodeSemverExpressionParser.EmptyRangeContext) {
+				return new Constraint[] {visit(range)};
+			}
+			throw new IllegalArgumentException("Invalid range expression: " + expression);
+		}
+
+		@Override
+		public Constraint visitHyphenatedRangeOfFullySpecifiedVersions(NodeSemverExpressionParser.HyphenatedRangeOfFullySpecifiedVersionsContext ctx) {
+			return Constraint.hyphen(
+				Constraint.partialVersion(ctx.left.getText(), !isEmpty(ctx.left.patch)),
+				Constraint.partialVersion(ctx.right.getText(), !isEmpty(ctx.right.patch)),
+				!isEmpty(ctx.right.minor),
+				!isEmpty(ctx.right.patch)
+			);
+		}
+
+		@Override
+		public Constraint visitEmptyRange(NodeSemverExpressionParser.EmptyRangeContext ctx) {
+			return Constraint.ANY;
+		}
+
+		@Override
+		public Constraint visitOperator(NodeSemverExpressionParser.OperatorContext ctx) {
+			NodeSemverExpressionParser.PartialWildcardSemverContext version = ctx.partialWildcardSemver();
+			return Constraint.operator(
+				ctx.unaryOperator().getText(),
+				version.getText(),
+				!isEmpty(version.minor),
+				!isEmpty(version.patch)
+			);
+		}
+
+		@Override
+		public Constraint visitWildcardOperator(NodeSemverExpressionParser.WildcardOperatorContext ctx) {
+			return Constraint.ANY_RELEASE;
+		}
+
+		@Override
+		public Constraint visitFullySpecifiedSemver(NodeSemverExpressionParser.FullySpecifiedSemverContext ctx) {
+			return Constraint.fullySpecified(
+				Constraint.partialVersion(ctx.getText(), !isEmpty(ctx.fullSemver().patch)),
+				!isEmpty(ctx.fullSemver().minor),
+				!isEmpty(ctx.fullSemver().patch)
+			);
+		}
+
+		@Override
+		public Constraint visitWildcardRange(NodeSemverExpressionParser.WildcardRangeContext ctx) {
+			NodeSemverExpressionParser.PartialWildcardSemverContext version = ctx.partialWildcardSemver();
+			return Constraint.wildcard(version.getText(), !isEmpty(version.minor), !isEmpty(version.patch));
+		}
+
+		@Override
+		public Constraint visitTildeRange(NodeSemverExpressionParser.TildeRangeContext ctx) {
+			return Constraint.tilde(
+				Constraint.partialVersion(ctx.fullSemver().getText(), !isEmpty(ctx.fullSemver().patch)),
+				!isEmpty(ctx.fullSemver().minor),
+				!isEmpty(ctx.fullSemver().patch)
+			);
+		}
+
+		@Override
+		public Constraint visitCaretRange(NodeSemverExpressionParser.CaretRangeContext ctx) {
+			/* the grammar has no wildcards in caret bounds */
+			return Constraint.caret(
+				Constraint.partialVersion(ctx.fullSemver().getText(), !isEmpty(ctx.fullSemver().patch)), false, false);
+		}
+
+		private static boolean isEmpty(NodeSemverExpressionParser.IntegerContext ctx) {
+			return ctx == null || ctx.getText() == null || "".equals(ctx.getText());
+		}
+	}
+}
@@ -0,0 +1,397 @@
+package com.github.gundy.semver4j.model;
+
+import com.github.gundy.semver4j.metrics.Instrumentation;
+import com.github.gundy.semver4j.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser for the range grammar given in NodeSemverExpression.g4.
+ *
+ * Builds a {@link Range} directly, without an intermediate token stream or parse tree.  Besides
+ * the grammar itself, a few forms that node's semver library also accepts are allowed: "x" and "X"
+ * as wildcard major versions, "~&gt;" for tilde ranges, wildcards in the bounds of tilde, caret and
+ * hyphen ranges, and any amount of whitespace around and between comparators.
+ */
+final class RangeParser {
+	private final String text;
+	private final int length;
+	private int pos;
+
+	/* shape of the last version read by version() */
+	private int versionStart;
+	private int versionEnd;
+	private boolean majorWildcard;
+	/* whether the minor or patch version was written as a wildcard, rather than left out */
+	private boolean minorWildcard;
+	private boolean patchWildcard;
+	private boolean minorSpecified;
+	private boolean patchSpecified;
+
+	/* the text of the last comparator read by simple(), if it was a bare version that may start a hyphen range */
+	private String bareVersion;
+
+	private RangeParser(String text) {
+		this.text = text;
+		this.length = text.length();
+	}
+
+	/**
+	 * Parse a range expression.
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the compiled range
+	 * @throws IllegalArgumentException if the range expression isn't valid
+	 */
+	static Range parse(String range) {
+		if (range == null) {
+			throw new IllegalArgumentException("Range must not be null");
+		}
+		try {
+			return new RangeParser(range).reportedRangeSet();
+		} catch (SyntaxError e) {
+			throw new IllegalArgumentException(e.toResult("range", range).getErrorMessage());
+		}
+	}
+
+	/**
+	 * Parse a range expression, without throwing an exception if it isn't valid.
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the compiled range, or what's wrong with the expression
+	 */
+	static ParseResult<Range> tryParse(String range) {
+		if (range == null) {
+			return ParseResult.failure(ParseResult.ErrorKind.NULL_INPUT, "Range must not be null", 0, "range", null);
+		}
+		try {
+			return ParseResult.success(new RangeParser(range).reportedRangeSet());
+		} catch (SyntaxError e) {
+			return e.toResult("range", range);
+		}
+	}
+
+	private Range reportedRangeSet() {
+		Instrumentation instrumentation = Metrics.getInstrumentation();
+		if (instrumentation == null) {
+			return rangeSet();
+		}
+		long start = System.nanoTime();
+		Range compiled;
+		try {
+			compiled = rangeSet();
+		} catch (SyntaxError e) {
+			instrumentation.rangeCompileFailed(text, System.nanoTime() - start);
+			throw e;
+		}
+		instrumentation.rangeCompiled(text, System.nanoTime() - start);
+		return compiled;
+	}
+
+	/* rangeSet: basicRange (LOGICAL_OR_OPERATOR basicRange)* EOF */
+	private Range rangeSet() {
+		List<Range.Constraint[]> alternatives = new ArrayList<Range.Constraint[]>();
+		alternatives.add(range());
+		while (acceptLogicalOr()) {
+			alternatives.add(range());
+		}
+		if (pos != length) {
+			throw error(ParseResult.ErrorKind.UNEXPECTED_CHARACTER, "Unexpected character");
+		}
+		return new Range(text, alternatives.toArray(new Range.Constraint[alternatives.size()][]));
+	}
+
+	/*
+	 * range
+	 *   : left=fullSemver SPACE HYPHEN SPACE right=fullSemver
+	 *   | simple (SPACE simple)*
+	 *   |
+	 */
+	private Range.Constraint[] range() {
+		skipSpaces();
+		if (atEndOfRange()) {
+			return new Range.Constraint[] {Range.Constraint.ANY};
+		}
+		List<Range.Constraint> constraints = new ArrayList<Range.Constraint>(2);
+		constraints.add(simple());
+		String left = bareVersion;
+		boolean leftPatchSpecified = patchSpecified;
+		boolean spaced = skipSpaces();
+		if (left != null && spaced && pos < length && text.charAt(pos) == '-') {
+			pos++;
+			if (!skipSpaces()) {
+				throw error(ParseResult.ErrorKind.EXPECTED_SPACE, "Expected space after hyphen");
+			}
+			return new Range.Constraint[] {hyphenatedRange(left, leftPatchSpecified)};
+		}
+		while (!atEndOfRange()) {
+			if (!spaced) {
+				throw error(ParseResult.ErrorKind.EXPECTED_SPACE, "Expected space between comparators");
+			}
+			constraints.add(simple());
+			spaced = skipSpaces();
+		}
+		return constraints.toArray(new Range.Constraint[constraints.size()]);
+	}
+
+	private Range.Constraint hyphenatedRange(String left, boolean leftPatchSpecified) {
+		version();
+		String right = boundVersionText();
+		skipSpaces();
+		if (!atEndOfRange()) {
+			throw error(ParseResult.ErrorKind.UNEXPECTED_CHARACTER, "Unexpected character after hyphen range");
+		}
+		try {
+			return Range.Constraint.hyphen(
+				Range.Constraint.partialVersion(left, leftPatchSpecified),
+				Range.Constraint.partialVersion(right, patchSpecified),
+				minorSpecified,
+				patchSpecified
+			);
+		} catch (IllegalArgumentException e) {
+			throw boundTooLarge();
+		}
+	}
+
+	/*
+	 * simple
+	 *   : partialWildcardSemver
+	 *   | unaryOperator SPACE* partialWildcardSemver
+	 *   | (GT EQ | LT EQ)? ASTERISK
+	 *   | TILDE SPACE* fullSemver
+	 *   | CARET SPACE* fullSemver
+	 */
+	private Range.Constraint simple() {
+		bareVersion = null;
+		char c = text.charAt(pos);
+		if (c == '~') {
+			pos++;
+			accept('>');
+			skipSpaces();
+			version();
+			String bound = boundVersionText();
+			try {
+				return Range.Constraint.tilde(Range.Constraint.partialVersion(bound, patchSpecified), minorSpecified, patchSpecified);
+			} catch (IllegalArgumentException e) {
+				throw boundTooLarge();
+			}
+		} else if (c == '^') {
+			pos++;
+			skipSpaces();
+			version();
+			String bound = boundVersionText();
+			try {
+				return Range.Constraint.caret(Range.Constraint.partialVersion(bound, patchSpecified), minorWildcard, patchWildcard);
+			} catch (IllegalArgumentException e) {
+				throw boundTooLarge();
+			}
+		} else if (c == '>' || c == '<' || c == '=' && pos + 1 < length && !isVersionStart(text.charAt(pos + 1))) {
+			String operator = unaryOperator();
+			skipSpaces();
+			version();
+			if (majorWildcard) {
+				if (!">=".equals(operator) && !"<=".equals(operator)) {
+					throw error(ParseResult.ErrorKind.INVALID_WILDCARD, "Wildcard may only follow >= or <=");
+				}
+				return Range.Constraint.ANY_RELEASE;
+			}
+			try {
+				return Range.Constraint.operator(operator, versionText(), minorSpecified, patchSpecified);
+			} catch (IllegalArgumentException e) {
+				throw boundTooLarge();
+			}
+		}
+		version();
+		if (majorWildcard) {
+			return Range.Constraint.ANY_RELEASE;
+		}
+		bareVersion = versionText();
+		try {
+			return Range.Constraint.wildcard(bareVersion, minorSpecified, patchSpecified);
+		} catch (IllegalArgumentException e) {
+			throw boundTooLarge();
+		}
+	}
+
+	/* unaryOperator: (GT EQ? | LT EQ? | EQ) */
+	private String unaryOperator() {
+		char c = text.charAt(pos++);
+		if (c == '=') {
+			return "=";
+		} else if (accept('=')) {
+			return c == '>' ? ">=" : "<=";
+		}
+		return c == '>' ? ">" : "<";
+	}
+
+	/*
+	 * partialWildcardSemver (a superset of fullSemver)
+	 *   : EQ? ('V'|'v')? major=integer ('.' wildcard ('.' wildcard)? )?
+	 *   | EQ? ('V'|'v')? major=integer ('.' minor=integer ('.' wildcard)? )?
+	 *   | EQ? ('V'|'v')? major=integer ('.' minor=integer ('.' patch=integer (HYPHEN? identifiers)? (PLUS identifiers)?)?)?
+	 *
+	 * A wildcard major version is allowed here too (eg. "x.x"); callers decide whether they accept it.
+	 */
+	private void version() {
+		versionStart = pos;
+		majorWildcard = false;
+		minorWildcard = false;
+		patchWildcard = false;
+		minorSpecified = false;
+		patchSpecified = false;
+		accept('=');
+		if (!accept('v')) {
+			accept('V');
+		}
+		boolean wildcard = acceptWildcard();
+		if (!wildcard) {
+			checkIntegerSize(integer());
+		}
+		majorWildcard = wildcard;
+		if (accept('.')) {
+			if (!acceptWildcard()) {
+				if (wildcard) {
+					throw error(ParseResult.ErrorKind.INVALID_WILDCARD, "Expected wildcard");
+				}
+				checkIntegerSize(integer());
+				minorSpecified = true;
+			} else {
+				wildcard = true;
+				minorWildcard = true;
+			}
+			if (accept('.')) {
+				if (acceptWildcard()) {
+					patchWildcard = true;
+				} else {
+					if (wildcard) {
+						throw error(ParseResult.ErrorKind.INVALID_WILDCARD, "Expected wildcard");
+					}
+					int patchStart = integer();
+					if (pos < length && text.charAt(pos) == '.' && pos - patchStart > 1) {
+						/* the pre-release may follow the patch version without a hyphen, so "1.2.34.5" is 1.2.3-4.5 */
+						pos--;
+					}
+					checkIntegerSize(patchStart);
+					patchSpecified = true;
+					if (pos < length && isIdentifierChar(text.charAt(pos))) {
+						identifiers();
+					}
+					if (accept('+')) {
+						identifiers();
+					}
+				}
+			}
+		}
+		if (pos < length && !isSpace(text.charAt(pos)) && text.charAt(pos) != '|') {
+			throw error(ParseResult.ErrorKind.UNEXPECTED_CHARACTER, "Unexpected character in version");
+		}
+		versionEnd = pos;
+	}
+
+	/* identifiers: part (PERIOD part)* */
+	private void identifiers() {
+		do {
+			int start = pos;
+			while (pos < length && isIdentifierChar(text.charAt(pos))) {
+				pos++;
+			}
+			if (start == pos) {
+				throw error(ParseResult.ErrorKind.EXPECTED_IDENTIFIER, "Expected identifier");
+			}
+		} while (accept('.'));
+	}
+
+	/* integer: ZERO | NON_ZERO_NUMBER (ZERO | NON_ZERO_NUMBER)*; returns the index of its first digit */
+	private int integer() {
+		int start = pos;
+		if (pos >= length || !isDigit(text.charAt(pos))) {
+			throw error(ParseResult.ErrorKind.EXPECTED_NUMBER, "Expected number");
+		}
+		if (text.charAt(pos++) != '0') {
+			while (pos < length && isDigit(text.charAt(pos))) {
+				pos++;
+			}
+		}
+		return start;
+	}
+
+	/* checks that the number in text[start, pos) fits in an int, as VersionParser does */
+	private void checkIntegerSize(int start) {
+		long value = 0;
+		for (int i = start; i < pos; i++) {
+			value = value * 10 + (text.charAt(i) - '0');
+			if (value > Integer.MAX_VALUE) {
+				pos = i;
+				throw error(ParseResult.ErrorKind.NUMBER_TOO_LARGE, "Number too large");
+			}
+		}
+	}
+
+	private String versionText() {
+		return text.substring(versionStart, versionEnd);
+	}
+
+	/* the text of a bound of a tilde, caret or hyphen range, which must have a numeric major version */
+	private String boundVersionText() {
+		if (majorWildcard) {
+			throw error(ParseResult.ErrorKind.EXPECTED_VERSION, "Expected version");
+		}
+		return versionText();
+	}
+
+	private boolean acceptWildcard() {
+		return accept('x') || accept('X') || accept('*');
+	}
+
+	private boolean acceptLogicalOr() {
+		if (pos + 1 < length && text.charAt(pos) == '|' && text.charAt(pos + 1) == '|') {
+			pos += 2;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean atEndOfRange() {
+		return pos == length || text.charAt(pos) == '|';
+	}
+
+	private boolean skipSpaces() {
+		int start = pos;
+		while (pos < length && isSpace(text.charAt(pos))) {
+			pos++;
+		}
+		return pos > start;
+	}
+
+	private boolean accept(char c) {
+		if (pos < length && text.charAt(pos) == c) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	private SyntaxError error(ParseResult.ErrorKind kind, String message) {
+		return new SyntaxError(kind, message, pos);
+	}
+
+	/* an upper bound, incremented from the last version read, overflowed (eg. the upper bound of "^2147483647") */
+	private SyntaxError boundTooLarge() {
+		return new SyntaxError(ParseResult.ErrorKind.NUMBER_TOO_LARGE, "Number too large", versionStart);
+	}
+
+	private static boolean isVersionStart(char c) {
+		return isDigit(c) || c == 'v' || c == 'V';
+	}
+
+	private static boolean isSpace(char c) {
+		return c == ' ' || c == '\t';
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isIdentifierChar(char c) {
+		return c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '-';
+	}
+}
@@ -0,0 +1,278 @@
+package com.github.gundy.semver4j.model;
+
+import com.github.gundy.semver4j.metrics.Instrumentation;
+import com.github.gundy.semver4j.metrics.Metrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Predicate;
+
+/**
+ * Turns a {@link Range} into a {@link Predicate} built from method handle combinators, for evaluating a
+ * range many times.
+ *
+ * The alternatives and constraints of the range are flattened into a single chain of guards, each of
+ * which tests a version against one bound, with the bound bound in as a constant.  Bounds without
+ * pre-release identifiers (nearly all of them) are compared against the packed sort keys of the version,
+ * so that such a range tests a version with a few long comparisons and no loops or virtual calls.  If
+ * method handles can't be used, the predicate falls back to {@link Range#isSatisfiedBy}.
+ */
+final class RangePredicates {
+	private static final MethodType TEST = MethodType.methodType(boolean.class, Version.class);
+
+	/* the leaf tests, or null if method handles can't be used */
+	private static final Leaves LEAVES = Leaves.lookUp(MethodHandles.lookup());
+
+	private RangePredicates() {
+	}
+
+	static Predicate<Version> of(Range range, String expression, Range.Constraint[][] alternatives) {
+		if (LEAVES == null) {
+			return new Interpreted(range);
+		}
+		try {
+			return new Compiled(expression, LEAVES.range(alternatives));
+		} catch (RuntimeException e) {
+			return new Interpreted(range);
+		}
+	}
+
+	/* whether ranges are turned into method handles in this JVM */
+	static boolean isAvailable() {
+		return LEAVES != null;
+	}
+
+	private static final class Compiled implements Predicate<Version> {
+		private final String expression;
+		private final MethodHandle test;
+
+		private Compiled(String expression, MethodHandle test) {
+			this.expression = expression;
+			this.test = test;
+		}
+
+		@Override
+		public boolean test(Version version) {
+			Instrumentation instrumentation = Metrics.getInstrumentation();
+			if (instrumentation == null) {
+				return invoke(version);
+			}
+			long start = System.nanoTime();
+			boolean satisfied = invoke(version);
+			instrumentation.rangeEvaluated(expression, System.nanoTime() - start);
+			return satisfied;
+		}
+
+		private boolean invoke(Version version) {
+			if (version == null) {
+				throw new NullPointerException("version");
+			}
+			try {
+				return (boolean) test.invokeExact(version);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return expression;
+		}
+	}
+
+	private static final class Interpreted implements Predicate<Version> {
+		private final Range range;
+
+		private Interpreted(Range range) {
+			this.range = range;
+		}
+
+		@Override
+		public boolean test(Version version) {
+			return range.isSatisfiedBy(version);
+		}
+
+		@Override
+		public String toString() {
+			return range.toString();
+		}
+	}
+
+	/* the method handles that predicates are built from */
+	private static final class Leaves {
+		private final MethodHandle alwaysTrue;
+		private final MethodHandle alwaysFalse;
+		private final MethodHandle isRelease;
+		private final MethodHandle isPreReleaseOf;
+		private final MethodHandle atLeast;
+		private final MethodHandle above;
+		private final MethodHandle atMost;
+		private final MethodHandle below;
+		private final MethodHandle compareAtLeast;
+		private final MethodHandle compareAbove;
+		private final MethodHandle compareAtMost;
+		private final MethodHandle compareBelow;
+		private final MethodHandle equalTo;
+
+		private Leaves(MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+			alwaysTrue = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0, Version.class);
+			alwaysFalse = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, Version.class);
+			isRelease = lookup.findStatic(RangePredicates.class, "isRelease", TEST);
+			MethodType keys = MethodType.methodType(boolean.class, Version.class, long.class, long.class);
+			isPreReleaseOf = lookup.findStatic(RangePredicates.class, "isPreReleaseOf", keys);
+			atLeast = lookup.findStatic(RangePredicates.class, "atLeast", keys);
+			above = lookup.findStatic(RangePredicates.class, "above", keys);
+			atMost = lookup.findStatic(RangePredicates.class, "atMost", keys);
+			below = lookup.findStatic(RangePredicates.class, "below", keys);
+			MethodType bound = MethodType.methodType(boolean.class, Version.class, Version.class);
+			compareAtLeast = lookup.findStatic(RangePredicates.class, "compareAtLeast", bound);
+			compareAbove = lookup.findStatic(RangePredicates.class, "compareAbove", bound);
+			compareAtMost = lookup.findStatic(RangePredicates.class, "compareAtMost", bound);
+			compareBelow = lookup.findStatic(RangePredicates.class, "compareBelow", bound);
+			equalTo = lookup.findStatic(RangePredicates.class, "equalTo", bound);
+		}
+
+		private static Leaves lookUp(MethodHandles.Lookup lookup) {
+			try {
+				return new Leaves(lookup);
+			} catch (ReflectiveOperationException e) {
+				return null;
+			} catch (RuntimeException e) {
+				return null;
+			} catch (LinkageError e) {
+				return null;
+			}
+		}
+
+		/* any of the alternatives */
+		private MethodHandle range(Range.Constraint[][] alternatives) {
+			MethodHandle test = alwaysFalse;
+			for (int i = alternatives.length - 1; i >= 0; i--) {
+				test = or(alternative(alternatives[i]), test);
+			}
+			return test;
+		}
+
+		/* all of the constraints */
+		private MethodHandle alternative(Range.Constraint[] constraints) {
+			MethodHandle test = alwaysTrue;
+			for (int i = constraints.length - 1; i >= 0; i--) {
+				test = and(constraint(constraints[i]), test);
+			}
+			return test;
+		}
+
+		private MethodHandle constraint(Range.Constraint constraint) {
+			MethodHandle test = constraint.getExact() != null
+				? MethodHandles.insertArguments(equalTo, 1, constraint.getExact())
+				: alwaysFalse;
+			Range.Interval[] intervals = constraint.getIntervals();
+			for (int i = intervals.length - 1; i >= 0; i--) {
+				test = or(interval(intervals[i]), test);
+			}
+			if (!constraint.isPreReleasesUnrestricted()) {
+				/* pre-release versions only match if a bound shares their major/minor/patch */
+				MethodHandle allowed = isRelease;
+				for (Version tuple : constraint.getPreReleaseTuples()) {
+					allowed = or(allowed, MethodHandles.insertArguments(isPreReleaseOf, 1, tuple.getSortKeyHigh(), tuple.getSortKeyLow() & ~1L));
+				}
+				test = and(allowed, test);
+			}
+			return test;
+		}
+
+		private MethodHandle interval(Range.Interval interval) {
+			MethodHandle test = alwaysTrue;
+			if (interval.getUpper() != null) {
+				test = bound(interval.getUpper(), interval.isUpperInclusive() ? atMost : below,
+					interval.isUpperInclusive() ? compareAtMost : compareBelow);
+			}
+			if (interval.getLower() != null) {
+				test = and(bound(interval.getLower(), interval.isLowerInclusive() ? atLeast : above,
+					interval.isLowerInclusive() ? compareAtLeast : compareAbove), test);
+			}
+			return test;
+		}
+
+		/* releases compare by their sort keys alone; pre-releases need their identifiers compared too */
+		private MethodHandle bound(Version bound, MethodHandle byKeys, MethodHandle byComparing) {
+			if (bound.getPreReleaseIdentifiers().isEmpty()) {
+				return MethodHandles.insertArguments(byKeys, 1, bound.getSortKeyHigh(), bound.getSortKeyLow());
+			}
+			return MethodHandles.insertArguments(byComparing, 1, bound);
+		}
+
+		private MethodHandle and(MethodHandle left, MethodHandle right) {
+			if (left == alwaysTrue) {
+				return right;
+			} else if (right == alwaysTrue) {
+				return left;
+			} else if (left == alwaysFalse || right == alwaysFalse) {
+				return alwaysFalse;
+			}
+			return MethodHandles.guardWithTest(left, right, alwaysFalse);
+		}
+
+		private MethodHandle or(MethodHandle left, MethodHandle right) {
+			if (left == alwaysFalse) {
+				return right;
+			} else if (right == alwaysFalse) {
+				return left;
+			} else if (left == alwaysTrue || right == alwaysTrue) {
+				return alwaysTrue;
+			}
+			return MethodHandles.guardWithTest(left, alwaysTrue, right);
+		}
+	}
+
+	/* the leaf tests, which are looked up by name (so they're package-private, rather than unused private methods) */
+	static boolean isRelease(Version version) {
+		return (version.getSortKeyLow() & 1) != 0;
+	}
+
+	/* a pre-release of the major/minor/patch with the given (pre-release) sort keys */
+	static boolean isPreReleaseOf(Version version, long high, long low) {
+		return version.getSortKeyHigh() == high && version.getSortKeyLow() == low;
+	}
+
+	static boolean atLeast(Version version, long high, long low) {
+		return version.getSortKeyHigh() > high || version.getSortKeyHigh() == high && version.getSortKeyLow() >= low;
+	}
+
+	static boolean above(Version version, long high, long low) {
+		return version.getSortKeyHigh() > high || version.getSortKeyHigh() == high && version.getSortKeyLow() > low;
+	}
+
+	static boolean atMost(Version version, long high, long low) {
+		return version.getSortKeyHigh() < high || version.getSortKeyHigh() == high && version.getSortKeyLow() <= low;
+	}
+
+	static boolean below(Version version, long high, long low) {
+		return version.getSortKeyHigh() < high || version.getSortKeyHigh() == high && version.getSortKeyLow() < low;
+	}
+
+	static boolean compareAtLeast(Version version, Version bound) {
+		return version.compareTo(bound) >= 0;
+	}
+
+	static boolean compareAbove(Version version, Version bound) {
+		return version.compareTo(bound) > 0;
+	}
+
+	static boolean compareAtMost(Version version, Version bound) {
+		return version.compareTo(bound) <= 0;
+	}
+
+	static boolean compareBelow(Version version, Version bound) {
+		return version.compareTo(bound) < 0;
+	}
+
+	static boolean equalTo(Version version, Version exact) {
+		return exact.equals(version);
+	}
+}
@@ -0,0 +1,302 @@
+package com.github.gundy.semver4j.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Range queries over versions sorted in ascending order, wherever they're stored.
+ *
+ * Each query lowers the compiled {@link Range} into spans of the sorted versions by binary searching
+ * its bounds, so finding the maximum or minimum satisfying version, or counting the satisfying
+ * versions, takes time logarithmic in the number of versions (for a given range) rather than
+ * testing every version.  Pre-release versions are only matched when a comparator of the range has
+ * a pre-release bound with the same major/minor/patch, exactly as {@link Range#isSatisfiedBy} does.
+ */
+abstract class SortedVersions {
+	/* every version in the span satisfies the range */
+	private static final int ALL = 0;
+	/* every release version in the span satisfies the range, and no pre-release version does */
+	private static final int RELEASES = 1;
+	/* the span may contain versions that satisfy the range; each must be checked */
+	private static final int CHECK = 2;
+
+	private static final List<Version.Identifier> NO_IDENTIFIERS = Collections.emptyList();
+	private static final List<Version.Identifier> ZERO = Collections.singletonList(Version.Identifier.fromString("0"));
+
+	abstract int size();
+
+	abstract Version get(int index);
+
+	/* compares the versions at two indexes, ignoring their build identifiers */
+	abstract int compare(int i, int j);
+
+	/* the index of the first version that's >= the given version */
+	abstract int lowerBound(Version version);
+
+	/* the index of the first version that's > the given version */
+	abstract int upperBound(Version version);
+
+	/* the number of release versions before the given index */
+	abstract int releasesBefore(int index);
+
+	/* the index of the first release version at or after the given index, or size() if there's none */
+	abstract int nextRelease(int index);
+
+	/* the index of the last release version at or before the given index, or -1 if there's none */
+	abstract int previousRelease(int index);
+
+	/* the index of the maximum satisfying version (the first of several that compare equal), or -1 */
+	final int maxSatisfyingIndex(Range range) {
+		int max = -1;
+		for (Span span : spans(range)) {
+			if (span.to - 1 <= max) {
+				continue;
+			}
+			int candidate = -1;
+			if (span.kind == ALL) {
+				candidate = span.to - 1;
+			} else if (span.kind == RELEASES) {
+				candidate = previousRelease(span.to - 1) >= span.from ? previousRelease(span.to - 1) : -1;
+			} else {
+				for (int i = span.to - 1; i >= span.from && i > max; i--) {
+					if (range.isSatisfiedBy(get(i))) {
+						candidate = i;
+						break;
+					}
+				}
+			}
+			if (candidate > max) {
+				max = candidate;
+			}
+		}
+		if (max < 0) {
+			return -1;
+		}
+		/* the first satisfying version of those that compare equal to the maximum */
+		int first = max;
+		while (first > 0 && compare(first - 1, max) == 0) {
+			first--;
+		}
+		for (int i = first; i < max; i++) {
+			if (range.isSatisfiedBy(get(i))) {
+				return i;
+			}
+		}
+		return max;
+	}
+
+	/* the index of the minimum satisfying version, or -1 */
+	final int minSatisfyingIndex(Range range) {
+		int size = size();
+		int min = size;
+		for (Span span : spans(range)) {
+			if (span.from >= min) {
+				continue;
+			}
+			int candidate = size;
+			if (span.kind == ALL) {
+				candidate = span.from;
+			} else if (span.kind == RELEASES) {
+				candidate = nextRelease(span.from) < span.to ? nextRelease(span.from) : size;
+			} else {
+				for (int i = span.from; i < span.to && i < min; i++) {
+					if (range.isSatisfiedBy(get(i))) {
+						candidate = i;
+						break;
+					}
+				}
+			}
+			if (candidate < min) {
+				min = candidate;
+			}
+		}
+		return min < size ? min : -1;
+	}
+
+	final int countSatisfyingVersions(Range range) {
+		int count = 0;
+		for (Span piece : disjointSpans(spans(range))) {
+			if (piece.kind == ALL) {
+				count += piece.to - piece.from;
+			} else if (piece.kind == RELEASES) {
+				count += releasesBefore(piece.to) - releasesBefore(piece.from);
+			} else {
+				for (int i = piece.from; i < piece.to; i++) {
+					if (range.isSatisfiedBy(get(i))) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	final List<Version> allSatisfyingVersions(Range range) {
+		List<Version> satisfying = new ArrayList<Version>();
+		for (Span piece : disjointSpans(spans(range))) {
+			if (piece.kind == ALL) {
+				for (int i = piece.from; i < piece.to; i++) {
+					satisfying.add(get(i));
+				}
+			} else if (piece.kind == RELEASES) {
+				for (int i = nextRelease(piece.from); i < piece.to; i = nextRelease(i + 1)) {
+					satisfying.add(get(i));
+				}
+			} else {
+				for (int i = piece.from; i < piece.to; i++) {
+					Version version = get(i);
+					if (range.isSatisfiedBy(version)) {
+						satisfying.add(version);
+					}
+				}
+			}
+		}
+		return satisfying;
+	}
+
+	private static final class Span {
+		private final int from;
+		private final int to;
+		private final int kind;
+
+		private Span(int from, int to, int kind) {
+			this.from = from;
+			this.to = to;
+			this.kind = kind;
+		}
+	}
+
+	/* spans (possibly overlapping) that together hold exactly the versions satisfying the range */
+	private List<Span> spans(Range range) {
+		List<Span> spans = new ArrayList<Span>();
+		for (Range.Constraint[] alternative : range.getAlternatives()) {
+			addSpans(alternative, spans);
+		}
+		return spans;
+	}
+
+	private void addSpans(Range.Constraint[] alternative, List<Span> spans) {
+		/* the spans of versions within the bounds of every constraint; kind is either ALL or CHECK here */
+		List<Span> pieces = Collections.singletonList(new Span(0, size(), ALL));
+		/* the major/minor/patch tuples whose pre-releases every constraint allows, or null if they all allow any */
+		List<Version> tuples = null;
+		for (Range.Constraint constraint : alternative) {
+			pieces = intersect(pieces, constraintSpans(constraint));
+			if (pieces.isEmpty()) {
+				return;
+			}
+			if (!constraint.isPreReleasesUnrestricted()) {
+				tuples = tuples == null
+					? new ArrayList<Version>(Arrays.asList(constraint.getPreReleaseTuples()))
+					: retainTuples(tuples, constraint.getPreReleaseTuples());
+			}
+		}
+		for (Span piece : pieces) {
+			if (piece.kind == CHECK || tuples == null) {
+				spans.add(piece);
+				continue;
+			}
+			spans.add(new Span(piece.from, piece.to, RELEASES));
+			for (Version tuple : tuples) {
+				/* the pre-releases of a tuple sort after x.y.z-0 and before x.y.z */
+				int from = Math.max(piece.from, lowerBound(
+					new Version(tuple.getMajor(), tuple.getMinor(), tuple.getPatch(), ZERO, NO_IDENTIFIERS)
+				));
+				int to = Math.min(piece.to, lowerBound(
+					new Version(tuple.getMajor(), tuple.getMinor(), tuple.getPatch(), NO_IDENTIFIERS, NO_IDENTIFIERS)
+				));
+				if (from < to) {
+					spans.add(new Span(from, to, ALL));
+				}
+			}
+		}
+	}
+
+	private List<Span> constraintSpans(Range.Constraint constraint) {
+		List<Span> spans = new ArrayList<Span>();
+		for (Range.Interval interval : constraint.getIntervals()) {
+			int from = interval.getLower() == null ? 0
+				: interval.isLowerInclusive() ? lowerBound(interval.getLower()) : upperBound(interval.getLower());
+			int to = interval.getUpper() == null ? size()
+				: interval.isUpperInclusive() ? upperBound(interval.getUpper()) : lowerBound(interval.getUpper());
+			if (from < to) {
+				spans.add(new Span(from, to, ALL));
+			}
+		}
+		Version exact = constraint.getExact();
+		if (exact != null) {
+			/* equality includes build identifiers, which the sort order ignores */
+			int from = lowerBound(exact);
+			int to = upperBound(exact);
+			if (from < to) {
+				spans.add(new Span(from, to, CHECK));
+			}
+		}
+		return spans;
+	}
+
+	private static List<Span> intersect(List<Span> left, List<Span> right) {
+		List<Span> intersection = new ArrayList<Span>();
+		for (Span l : left) {
+			for (Span r : right) {
+				int from = Math.max(l.from, r.from);
+				int to = Math.min(l.to, r.to);
+				if (from < to) {
+					intersection.add(new Span(from, to, l.kind == CHECK || r.kind == CHECK ? CHECK : ALL));
+				}
+			}
+		}
+		return intersection;
+	}
+
+	private static List<Version> retainTuples(List<Version> tuples, Version[] allowed) {
+		List<Version> retained = new ArrayList<Version>();
+		for (Version tuple : tuples) {
+			for (Version other : allowed) {
+				if (Range.majorMinorPatchMatch(tuple, other)) {
+					retained.add(tuple);
+					break;
+				}
+			}
+		}
+		return retained;
+	}
+
+	/*
+	 * splits overlapping spans into disjoint ones, in ascending order; where spans of different kinds
+	 * overlap, ALL wins, and otherwise any CHECK span means that every version there must be checked
+	 */
+	private static List<Span> disjointSpans(List<Span> spans) {
+		int[] bounds = new int[spans.size() * 2];
+		for (int i = 0; i < spans.size(); i++) {
+			bounds[2 * i] = spans.get(i).from;
+			bounds[2 * i + 1] = spans.get(i).to;
+		}
+		Arrays.sort(bounds);
+		List<Span> pieces = new ArrayList<Span>();
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			int from = bounds[i];
+			int to = bounds[i + 1];
+			if (from == to) {
+				continue;
+			}
+			int kind = -1;
+			for (Span span : spans) {
+				if (span.from <= from && span.to >= to) {
+					if (span.kind == ALL) {
+						kind = ALL;
+						break;
+					} else if (span.kind == CHECK || kind == -1) {
+						kind = span.kind;
+					}
+				}
+			}
+			if (kind != -1) {
+				pieces.add(new Span(from, to, kind));
+			}
+		}
+		return pieces;
+	}
+}
@@ -0,0 +1,25 @@
+package com.github.gundy.semver4j.model;
+
+/**
+ * Unwinds a parser from the point where its input was found to be invalid.  It's caught before it
+ * leaves the parser, and turned into a {@link ParseResult} or an {@link IllegalArgumentException}, so
+ * it doesn't capture a stack trace.
+ */
+final class SyntaxError extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private final ParseResult.ErrorKind kind;
+	private final String description;
+	private final int offset;
+
+	SyntaxError(ParseResult.ErrorKind kind, String description, int offset) {
+		super(description, null, false, false);
+		this.kind = kind;
+		this.description = description;
+		this.offset = offset;
+	}
+
+	<T> ParseResult<T> toResult(String inputType, CharSequence input) {
+		return ParseResult.failure(kind, description, offset, inputType, input);
+	}
+}
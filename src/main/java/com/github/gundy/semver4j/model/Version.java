@@ -1,54 +1,92 @@
 package com.github.gundy.semver4j.model;
 
+import com.github.gundy.semver4j.cache.BoundedCache;
 import com.github.gundy.semver4j.generated.grammar.*;
-import com.github.gundy.semver4j.visitor.SemVerRangeExpressionVisitor;
+import com.github.gundy.semver4j.metrics.Instrumentation;
+import com.github.gundy.semver4j.metrics.Metrics;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.tree.ParseTree;
 
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
 public class Version implements Comparable<Version> {
 
 	private static final ForwardComparator FORWARD_COMPARATOR = new ForwardComparator();
 	private static final ReverseComparator REVERSE_COMPARATOR = new ReverseComparator();
 
-	private final int major;
-	private final int minor;
-	private final int patch;
-	private final List<Identifier> preReleaseIdentifiers;
-	private final List<Identifier> buildIdentifiers;
+	/* below this many versions, the parallel variants of maxSatisfying evaluate sequentially */
+	static final int PARALLEL_THRESHOLD = 4096;
 
-	private Version(int major, int minor, int patch, List<Identifier> preReleaseIdentifiers, List<Identifier> buildIdentifiers) {
-		if (major < 0) throw new IllegalArgumentException("Major version must be >= 0");
-		this.major = major;
+	private static final Function<String, Version> INTERNING_PARSER = new Function<String, Version>() {
+		@Override
+		public Version apply(String version) {
+			return VersionParser.parse(version).intern();
+		}
+	};
 
-		if (minor < 0) throw new IllegalArgumentException("Minor version must be >= 0");
-		this.minor = minor;
+	/* canonical instances, keyed both by the strings they were parsed from and by their own toString() */
+	private static volatile BoundedCache<String, Version> internCache;
 
+	/*
+	 * major.minor.patch, packed so that most comparisons need no more than two primitive comparisons: major
+	 * and minor in the high key, and patch followed by a bit that's set for releases (which sort after
+	 * pre-releases) in the low key.  Versions with equal keys that both have pre-release identifiers are
+	 * compared identifier by identifier.  The numbers themselves aren't stored separately, to keep versions
+	 * small: tens of millions of them may be held at once.
+	 */
+	private final long sortKeyHigh;
+	private final long sortKeyLow;
+	private final Identifiers preReleaseIdentifiers;
+	private final Identifiers buildIdentifiers;
+	/* computed when it's first needed (in the space that would otherwise be padding), or 0 */
+	private int hash;
+
+	Version(int major, int minor, int patch, List<Identifier> preReleaseIdentifiers, List<Identifier> buildIdentifiers) {
+		if (major < 0) throw new IllegalArgumentException("Major version must be >= 0");
+		if (minor < 0) throw new IllegalArgumentException("Minor version must be >= 0");
 		if (patch < 0) throw new IllegalArgumentException("Patch version must be >= 0");
-		this.patch = patch;
 
 		if (preReleaseIdentifiers == null) {
 			throw new IllegalArgumentException("Pre-release identifier list must not be null");
 		}
-		this.preReleaseIdentifiers = preReleaseIdentifiers;
+		this.preReleaseIdentifiers = Identifiers.of(preReleaseIdentifiers);
 		if (buildIdentifiers == null) {
 			throw new IllegalArgumentException("Build identifier list must not be null");
 		}
-		this.buildIdentifiers = buildIdentifiers;
+		this.buildIdentifiers = Identifiers.of(buildIdentifiers);
+
+		this.sortKeyHigh = (long) major << 31 | minor;
+		this.sortKeyLow = (long) patch << 1 | (preReleaseIdentifiers.isEmpty() ? 1 : 0);
 	}
 
 	public int getMajor() {
-		return major;
+		return (int) (sortKeyHigh >>> 31);
 	}
 
 	public int getMinor() {
-		return minor;
+		return (int) sortKeyHigh & Integer.MAX_VALUE;
 	}
 
 	public int getPatch() {
-		return patch;
+		return (int) (sortKeyLow >>> 1);
+	}
+
+	/* major and minor, packed as described above */
+	long getSortKeyHigh() {
+		return sortKeyHigh;
+	}
+
+	/* patch and the release bit, packed as described above */
+	long getSortKeyLow() {
+		return sortKeyLow;
 	}
 
 	public List<Identifier> getPreReleaseIdentifiers() {
@@ -60,81 +98,596 @@ public class Version implements Comparable<Version> {
 	}
 
 	public Version incrementMajor() {
-		return new Version(major+1,0,0, Collections.<Identifier>emptyList(), Collections.<Identifier>emptyList());
+		return new Version(getMajor()+1,0,0, Identifiers.EMPTY, Identifiers.EMPTY);
 	}
 
 	public Version incrementMinor() {
-		return new Version(major,minor+1,0, Collections.<Identifier>emptyList(), Collections.<Identifier>emptyList());
+		return new Version(getMajor(),getMinor()+1,0, Identifiers.EMPTY, Identifiers.EMPTY);
 	}
 
 	public Version incrementPatch() {
-		return new Version(major,minor,patch+1, Collections.<Identifier>emptyList(), Collections.<Identifier>emptyList());
+		return new Version(getMajor(),getMinor(),getPatch()+1, Identifiers.EMPTY, Identifiers.EMPTY);
 	}
 
 	public boolean satisfies(String expression) {
-		ParseTree tree = getParseTreeForRange(expression);
+		return satisfies(Range.fromString(expression));
+	}
+
+	public boolean satisfies(Range range) {
+		return range.isSatisfiedBy(this);
+	}
 
-		SemVerRangeExpressionVisitor visitor = new SemVerRangeExpressionVisitor(this);
-		return visitor.visit(tree);
+	/**
+	 * Returns the maximum version from a given collection of versions that satisfies a given range.  If several
+	 * satisfying versions compare equal, the first of them is returned.
+	 * @param versions The versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public static Version maxVersionSatisfying(Iterable<Version> versions, String range) {
+		return maxVersionSatisfying(versions, Range.fromString(range));
+	}
 
+	public static Version maxVersionSatisfying(Iterable<Version> versions, Range range) {
+		return maxVersionSatisfying(versions.iterator(), range);
 	}
 
+	/**
+	 * Same as {@link #maxVersionSatisfying(Iterable, String)}, for clients compiled against releases that took a
+	 * collection.
+	 * @param versions The versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
 	public static Version maxVersionSatisfying(Collection<Version> versions, String range) {
-		/* compile expression once; use on all versions */
-		ParseTree tree = getParseTreeForRange(range);
+		return maxVersionSatisfying((Iterable<Version>) versions, range);
+	}
 
-		ArrayList<Version> matchingVersions = new ArrayList<Version>();
-		for (Version version : versions) {
-			if (new SemVerRangeExpressionVisitor(version).visit(tree)) {
-				matchingVersions.add(version);
-			}
-		}
-		Collections.sort(matchingVersions, Version.reverseComparator());
-		if (matchingVersions.size()>0) {
-			return matchingVersions.get(0);
-		} else {
-			return null;
-		}
+	/**
+	 * Same as {@link #maxVersionSatisfying(Iterable, Range)}, for clients compiled against releases that took a
+	 * collection.
+	 * @param versions The versions to test against the range
+	 * @param range A compiled range
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public static Version maxVersionSatisfying(Collection<Version> versions, Range range) {
+		return maxVersionSatisfying((Iterable<Version>) versions, range);
 	}
 
-	private static ParseTree getParseTreeForRange(String range) {
-		ANTLRInputStream reader = new ANTLRInputStream(range);
-		NodeSemverExpressionLexer lexer = new NodeSemverExpressionLexer(reader);
-		lexer.removeErrorListeners();
-		TokenStream tokens = new CommonTokenStream(lexer);
-		NodeSemverExpressionParser parser = new NodeSemverExpressionParser(tokens);
-		parser.removeErrorListeners();
-		return parser.rangeSet();
+	public static Version maxVersionSatisfying(Iterator<Version> versions, Range range) {
+		return bestVersionSatisfying(versions, range, 1);
+	}
+
+	public static Version maxVersionSatisfying(Stream<Version> versions, Range range) {
+		return versions.collect(maxSatisfyingCollector(range));
+	}
+
+	/**
+	 * Returns the minimum version from a given collection of versions that satisfies a given range.  If several
+	 * satisfying versions compare equal, the first of them is returned.
+	 * @param versions The versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the minimum satisfying version, or null if no version satisfies the range
+	 */
+	public static Version minVersionSatisfying(Iterable<Version> versions, String range) {
+		return minVersionSatisfying(versions, Range.fromString(range));
+	}
+
+	public static Version minVersionSatisfying(Iterable<Version> versions, Range range) {
+		return minVersionSatisfying(versions.iterator(), range);
+	}
+
+	public static Version minVersionSatisfying(Iterator<Version> versions, Range range) {
+		return bestVersionSatisfying(versions, range, -1);
+	}
+
+	public static Version minVersionSatisfying(Stream<Version> versions, Range range) {
+		return versions.collect(minSatisfyingCollector(range));
 	}
 
 	/**
 	 * Returns the maximum version from a given collection of versions that satisfies a given range.
 	 * @param versionsToTest The collection of versions to test against the range
 	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
-	 * @return true if the given version falls within the range, false otherwise.
+	 * @return the maximum satisfying version, or null if no version satisfies the range
 	 */
-	public static String maxSatisfying(Collection<String> versionsToTest, String range) {
+	public static String maxSatisfying(Iterable<String> versionsToTest, String range) {
 		/* compile expression once; use on all versions */
-		ParseTree tree = getParseTreeForRange(range);
+		return maxSatisfying(versionsToTest, Range.fromString(range));
+	}
+
+	/**
+	 * Returns the maximum version from a given collection of versions that satisfies a given range.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A compiled range
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public static String maxSatisfying(Iterable<String> versionsToTest, Range range) {
+		return maxSatisfying(versionsToTest.iterator(), range);
+	}
+
+	/**
+	 * Same as {@link #maxSatisfying(Iterable, String)}, for clients compiled against releases that took a collection.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public static String maxSatisfying(Collection<String> versionsToTest, String range) {
+		return maxSatisfying((Iterable<String>) versionsToTest, range);
+	}
+
+	/**
+	 * Same as {@link #maxSatisfying(Iterable, Range)}, for clients compiled against releases that took a collection.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A compiled range
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public static String maxSatisfying(Collection<String> versionsToTest, Range range) {
+		return maxSatisfying((Iterable<String>) versionsToTest, range);
+	}
+
+	public static String maxSatisfying(Iterator<String> versionsToTest, Range range) {
+		return bestSatisfying(versionsToTest, range, 1);
+	}
+
+	/**
+	 * Returns the minimum version from a given collection of versions that satisfies a given range.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return the minimum satisfying version, or null if no version satisfies the range
+	 */
+	public static String minSatisfying(Iterable<String> versionsToTest, String range) {
+		return minSatisfying(versionsToTest, Range.fromString(range));
+	}
+
+	public static String minSatisfying(Iterable<String> versionsToTest, Range range) {
+		return minSatisfying(versionsToTest.iterator(), range);
+	}
+
+	public static String minSatisfying(Iterator<String> versionsToTest, Range range) {
+		return bestSatisfying(versionsToTest, range, -1);
+	}
+
+	/**
+	 * Returns the greatest versions from a given collection of versions that satisfy a given range, greatest
+	 * first, in a single pass that holds no more than k versions at a time (so in O(n log k) time and O(k)
+	 * space).  Satisfying versions that compare equal are returned in the order they're given.
+	 * @param versions The versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @param k The maximum number of versions to return
+	 * @return up to k satisfying versions, in descending order
+	 */
+	public static List<Version> topVersionsSatisfying(Iterable<Version> versions, String range, int k) {
+		return topVersionsSatisfying(versions, Range.fromString(range), k);
+	}
+
+	public static List<Version> topVersionsSatisfying(Iterable<Version> versions, Range range, int k) {
+		return topVersionsSatisfying(versions.iterator(), range, k);
+	}
+
+	public static List<Version> topVersionsSatisfying(Iterator<Version> versions, Range range, int k) {
+		return Arrays.asList(top(versions, range, k));
+	}
 
-		ArrayList<Version> matchingVersions = new ArrayList<Version>();
-		for (String strVersion : versionsToTest) {
-			Version version = Version.builder().fromString(strVersion);
-			if (new SemVerRangeExpressionVisitor(version).visit(tree)) {
-				matchingVersions.add(version);
+	/**
+	 * Returns the greatest versions from a given collection of versions that satisfy a given range, greatest
+	 * first, holding no more than k versions at a time.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @param k The maximum number of versions to return
+	 * @return up to k satisfying versions, in descending order
+	 * @see #topVersionsSatisfying(Iterable, Range, int)
+	 */
+	public static List<String> topSatisfying(Iterable<String> versionsToTest, String range, int k) {
+		return topSatisfying(versionsToTest, Range.fromString(range), k);
+	}
+
+	public static List<String> topSatisfying(Iterable<String> versionsToTest, Range range, int k) {
+		return topSatisfying(versionsToTest.iterator(), range, k);
+	}
+
+	public static List<String> topSatisfying(Iterator<String> versionsToTest, Range range, int k) {
+		Version[] top = top(versionsToTest, range, k);
+		List<String> strings = new ArrayList<String>(top.length);
+		for (Version version : top) {
+			strings.add(version.toString());
+		}
+		return strings;
+	}
+
+	/**
+	 * Iterates over the versions from a given collection of versions that satisfy a given range, greatest
+	 * first.  Every version is tested against the range when this is called, but the satisfying versions are
+	 * only put in order as they're iterated over, so taking the first few of n costs O(n), and each one after
+	 * that O(log n).  Satisfying versions that compare equal are returned in the order they're given.
+	 * @param versions The versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return an iterator over the satisfying versions, in descending order
+	 */
+	public static Iterator<Version> descendingVersionsSatisfying(Iterable<Version> versions, String range) {
+		return descendingVersionsSatisfying(versions, Range.fromString(range));
+	}
+
+	/**
+	 * Iterates over the versions from a given collection of versions that satisfy a given range, greatest
+	 * first.
+	 * @param versions The versions to test against the range
+	 * @param range A compiled range
+	 * @return an iterator over the satisfying versions, in descending order
+	 * @see #descendingVersionsSatisfying(Iterable, String)
+	 */
+	public static Iterator<Version> descendingVersionsSatisfying(Iterable<Version> versions, Range range) {
+		return descending(versions.iterator(), range);
+	}
+
+	/**
+	 * Iterates over the versions from a given collection of versions that satisfy a given range, greatest
+	 * first.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A range, specified in node semver range format (eg. "&lt;1.0.2 || &gt;1.3")
+	 * @return an iterator over the satisfying versions, in descending order
+	 * @see #descendingVersionsSatisfying(Iterable, String)
+	 */
+	public static Iterator<String> descendingSatisfying(Iterable<String> versionsToTest, String range) {
+		return descendingSatisfying(versionsToTest, Range.fromString(range));
+	}
+
+	/**
+	 * Iterates over the versions from a given collection of versions that satisfy a given range, greatest
+	 * first.
+	 * @param versionsToTest The collection of versions to test against the range
+	 * @param range A compiled range
+	 * @return an iterator over the satisfying versions, in descending order
+	 * @see #descendingVersionsSatisfying(Iterable, String)
+	 */
+	public static Iterator<String> descendingSatisfying(Iterable<String> versionsToTest, Range range) {
+		final Iterator<Version> versions = descending(versionsToTest.iterator(), range);
+		return new Iterator<String>() {
+			@Override
+			public boolean hasNext() {
+				return versions.hasNext();
+			}
+
+			@Override
+			public String next() {
+				return versions.next().toString();
+			}
+		};
+	}
+
+	/* the k greatest satisfying versions (or version strings), greatest first */
+	private static Version[] top(Iterator<?> items, Range range, int k) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k must be >= 0");
+		}
+		/* the worst of the best k so far is at the root */
+		VersionHeap heap = new VersionHeap(1, Math.min(k, 64));
+		for (int position = 0; items.hasNext(); position++) {
+			Object item = items.next();
+			Version version = item instanceof Version ? (Version) item : Version.fromString((String) item);
+			if (heap.size() < k) {
+				if (range.isSatisfiedBy(version)) {
+					heap.add(version, position);
+				}
+			} else if (k > 0 && version.compareTo(heap.peek()) > 0 && range.isSatisfiedBy(version)) {
+				/* only versions that would displace one of the best so far are evaluated */
+				heap.replaceRoot(version, position);
 			}
 		}
-		Collections.sort(matchingVersions, Version.reverseComparator());
-		if (matchingVersions.size()>0) {
-			return matchingVersions.get(0).toString();
-		} else {
-			return null;
+		Version[] top = new Version[heap.size()];
+		for (int i = top.length - 1; i >= 0; i--) {
+			top[i] = heap.poll();
+		}
+		return top;
+	}
+
+	/* the satisfying versions (or version strings), greatest first */
+	private static Iterator<Version> descending(Iterator<?> items, Range range) {
+		final VersionHeap heap = new VersionHeap(-1, 16);
+		for (int position = 0; items.hasNext(); position++) {
+			Object item = items.next();
+			Version version = item instanceof Version ? (Version) item : Version.fromString((String) item);
+			if (range.isSatisfiedBy(version)) {
+				heap.append(version, position);
+			}
 		}
+		heap.heapify();
+		return new Iterator<Version>() {
+			@Override
+			public boolean hasNext() {
+				return heap.size() > 0;
+			}
+
+			@Override
+			public Version next() {
+				if (heap.size() == 0) {
+					throw new NoSuchElementException();
+				}
+				return heap.poll();
+			}
+		};
+	}
+
+	/**
+	 * Returns the maximum version from a given list of version strings that satisfies a given range, splitting
+	 * large lists into chunks that are parsed and evaluated in parallel (in the common fork/join pool).  Lists
+	 * shorter than a few thousand versions are evaluated sequentially.  The result is the same as that of
+	 * {@link #maxSatisfying(Iterable, Range)}.
+	 * @param versionsToTest The list of versions to test against the range
+	 * @param range A compiled range
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 * @throws IllegalArgumentException if any of the versions can't be parsed
+	 */
+	public static String parallelMaxSatisfying(List<String> versionsToTest, Range range) {
+		Version max = parallelMax(versionsToTest, range);
+		return max != null ? max.toString() : null;
+	}
+
+	/**
+	 * Returns the maximum version from a given list of versions that satisfies a given range, splitting large
+	 * lists into chunks that are evaluated in parallel (in the common fork/join pool).  Lists shorter than a
+	 * few thousand versions are evaluated sequentially.  The result is the same as that of
+	 * {@link #maxVersionSatisfying(Iterable, Range)}.
+	 * @param versions The list of versions to test against the range
+	 * @param range A compiled range
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public static Version parallelMaxVersionSatisfying(List<Version> versions, Range range) {
+		return parallelMax(versions, range);
+	}
+
+	private static Version parallelMax(List<?> versions, Range range) {
+		if (!(versions instanceof RandomAccess)) {
+			versions = new ArrayList<Object>(versions);
+		}
+		return new MaxSatisfyingTask(versions, range, 0, versions.size()).invoke();
+	}
+
+	/* the maximum satisfying version of a slice of a list of versions or version strings */
+	private static final class MaxSatisfyingTask extends RecursiveTask<Version> {
+		private static final long serialVersionUID = 1L;
+
+		private final List<?> versions;
+		private final Range range;
+		private final int from;
+		private final int to;
+
+		private MaxSatisfyingTask(List<?> versions, Range range, int from, int to) {
+			this.versions = versions;
+			this.range = range;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Version compute() {
+			if (to - from <= PARALLEL_THRESHOLD) {
+				Version best = null;
+				for (int i = from; i < to; i++) {
+					Object item = versions.get(i);
+					Version version = item instanceof Version ? (Version) item : Version.fromString((String) item);
+					if ((best == null || version.compareTo(best) > 0) && range.isSatisfiedBy(version)) {
+						best = version;
+					}
+				}
+				return best;
+			}
+			int middle = (from + to) >>> 1;
+			MaxSatisfyingTask left = new MaxSatisfyingTask(versions, range, from, middle);
+			left.fork();
+			Version rightMax = new MaxSatisfyingTask(versions, range, middle, to).compute();
+			Version leftMax = left.join();
+			/* the left half holds the earlier versions, so it wins ties */
+			if (leftMax == null || rightMax != null && rightMax.compareTo(leftMax) > 0) {
+				return rightMax;
+			}
+			return leftMax;
+		}
+	}
+
+	/**
+	 * A collector that reduces a stream of versions to the maximum version that satisfies a given range (or
+	 * null if none does).  If several satisfying versions compare equal, the first of them is collected.
+	 * @param range A compiled range
+	 * @return the collector
+	 */
+	public static Collector<Version, ?, Version> maxSatisfyingCollector(Range range) {
+		return satisfyingCollector(range, 1);
+	}
+
+	/**
+	 * A collector that reduces a stream of versions to the minimum version that satisfies a given range (or
+	 * null if none does).  If several satisfying versions compare equal, the first of them is collected.
+	 * @param range A compiled range
+	 * @return the collector
+	 */
+	public static Collector<Version, ?, Version> minSatisfyingCollector(Range range) {
+		return satisfyingCollector(range, -1);
+	}
+
+	/* the satisfying version that compares furthest in the given direction (1 for max, -1 for min), in a single pass */
+	private static Version bestVersionSatisfying(Iterator<Version> versions, Range range, int direction) {
+		Version best = null;
+		while (versions.hasNext()) {
+			Version version = versions.next();
+			/* comparing is cheaper than evaluating the range, so only evaluate versions that would be an improvement */
+			if ((best == null || version.compareTo(best) * direction > 0) && range.isSatisfiedBy(version)) {
+				best = version;
+			}
+		}
+		return best;
+	}
+
+	private static String bestSatisfying(Iterator<String> versionsToTest, Range range, int direction) {
+		Version best = null;
+		while (versionsToTest.hasNext()) {
+			Version version = Version.fromString(versionsToTest.next());
+			if ((best == null || version.compareTo(best) * direction > 0) && range.isSatisfiedBy(version)) {
+				best = version;
+			}
+		}
+		return best != null ? best.toString() : null;
+	}
+
+	private static Collector<Version, ?, Version> satisfyingCollector(final Range range, final int direction) {
+		return Collector.of(
+			new Supplier<Version[]>() {
+				@Override
+				public Version[] get() {
+					return new Version[1];
+				}
+			},
+			new BiConsumer<Version[], Version>() {
+				@Override
+				public void accept(Version[] best, Version version) {
+					if ((best[0] == null || version.compareTo(best[0]) * direction > 0) && range.isSatisfiedBy(version)) {
+						best[0] = version;
+					}
+				}
+			},
+			new BinaryOperator<Version[]>() {
+				@Override
+				public Version[] apply(Version[] left, Version[] right) {
+					/* left holds the earlier versions, so it wins ties */
+					if (left[0] == null || right[0] != null && right[0].compareTo(left[0]) * direction > 0) {
+						return right;
+					}
+					return left;
+				}
+			},
+			new Function<Version[], Version>() {
+				@Override
+				public Version apply(Version[] best) {
+					return best[0];
+				}
+			}
+		);
+	}
+
+	/**
+	 * Parse a version string, without throwing an exception (or building an error message) if it isn't valid,
+	 * for when invalid input is common.  Versions parsed this way aren't interned; see {@link #intern}.
+	 * @param version The version string to parse (eg. "=v1.0.3-alpha.01+build")
+	 * @return the parsed version, or the kind and offset of the error that makes the string invalid
+	 */
+	public static ParseResult<Version> tryParse(String version) {
+		return VersionParser.tryParse(version);
 	}
 
 	// convenience method
 	public static Version fromString(String version) {
-		return builder().fromString(version);
+		BoundedCache<String, Version> cache = internCache;
+		if (cache == null || version == null) {
+			return builder().fromString(version);
+		}
+		Instrumentation instrumentation = Metrics.getInstrumentation();
+		if (instrumentation == null) {
+			return cache.computeIfAbsent(version, INTERNING_PARSER);
+		}
+		final boolean[] parsed = new boolean[1];
+		Version interned = cache.computeIfAbsent(version, new Function<String, Version>() {
+			@Override
+			public Version apply(String key) {
+				parsed[0] = true;
+				return INTERNING_PARSER.apply(key);
+			}
+		});
+		instrumentation.internCacheLookup(version, !parsed[0]);
+		return interned;
+	}
+
+	/**
+	 * Parse a version from part of a sequence of characters (eg. a {@link StringBuilder} or a {@link java.nio.CharBuffer}),
+	 * without copying it first.  Versions parsed this way aren't interned; see {@link #intern}.
+	 * @param text The text containing the version
+	 * @param offset The index of the first character of the version
+	 * @param length The number of characters in the version
+	 * @return the parsed version
+	 * @throws IllegalArgumentException if the characters aren't a valid version
+	 * @throws IndexOutOfBoundsException if the offset and length don't describe part of the text
+	 */
+	public static Version fromCharSequence(CharSequence text, int offset, int length) {
+		return VersionParser.parse(text, offset, length);
+	}
+
+	/**
+	 * Parse a version from part of an array of UTF-8 encoded bytes, without decoding it first.  Versions parsed
+	 * this way aren't interned; see {@link #intern}.
+	 * @param bytes The bytes containing the version
+	 * @param offset The index of the first byte of the version
+	 * @param length The number of bytes in the version
+	 * @return the parsed version
+	 * @throws IllegalArgumentException if the bytes aren't a valid version
+	 * @throws IndexOutOfBoundsException if the offset and length don't describe part of the array
+	 */
+	public static Version fromUtf8(byte[] bytes, int offset, int length) {
+		if (bytes == null) {
+			throw new IllegalArgumentException("Version must not be null");
+		}
+		return VersionParser.parse(new AsciiBytes(bytes, offset, length), 0, length);
+	}
+
+	/**
+	 * Parse a version from part of a buffer of UTF-8 encoded bytes (eg. a memory mapped file), without decoding
+	 * it first.  The offset is an absolute index into the buffer, and the version must end at or before its limit;
+	 * the buffer's position and limit are left unchanged.
+	 * Versions parsed this way aren't interned; see {@link #intern}.
+	 * @param buffer The buffer containing the version
+	 * @param offset The index of the first byte of the version
+	 * @param length The number of bytes in the version
+	 * @return the parsed version
+	 * @throws IllegalArgumentException if the bytes aren't a valid version
+	 * @throws IndexOutOfBoundsException if the offset and length don't describe part of the buffer below its limit
+	 */
+	public static Version fromUtf8(ByteBuffer buffer, int offset, int length) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Version must not be null");
+		}
+		return VersionParser.parse(new AsciiBytes(buffer, offset, length), 0, length);
+	}
+
+	/**
+	 * Returns the canonical instance of this version, if interning is enabled.  Versions that are equal
+	 * (including their build identifiers) intern to the same instance for as long as it stays in the cache.
+	 * @return the canonical instance that's equal to this version, or this version if interning isn't enabled
+	 */
+	public Version intern() {
+		BoundedCache<String, Version> cache = internCache;
+		if (cache == null) {
+			return this;
+		}
+		final Version version = this;
+		return cache.computeIfAbsent(toString(), new Function<String, Version>() {
+			@Override
+			public Version apply(String key) {
+				return version;
+			}
+		});
+	}
+
+	/**
+	 * Intern the versions returned by {@link #fromString} and {@link #intern}, so that repeatedly parsing the
+	 * same string returns the same immutable instance, replacing any cache that's already enabled.  Interning
+	 * is off unless this is called.
+	 * @param capacity The maximum number of strings to keep (each version takes up to two entries: the string
+	 *                 it was parsed from, and its canonical form)
+	 */
+	public static void enableInterning(int capacity) {
+		internCache = new BoundedCache<String, Version>(capacity);
+	}
+
+	/**
+	 * Stop interning versions, and discard any that have been interned.
+	 */
+	public static void disableInterning() {
+		internCache = null;
+	}
+
+	/**
+	 * @return the cache of interned versions (eg. to read its hit, miss and eviction counts), or null if interning isn't enabled
+	 */
+	public static BoundedCache<String, Version> getInternCache() {
+		return internCache;
 	}
 
 	public static Builder builder() {
@@ -169,12 +722,25 @@ public class Version implements Comparable<Version> {
 			return this;
 		}
 		public Version fromString(String version) {
+			return VersionParser.parse(version);
+		}
+
+		/* reference implementation of fromString, using the ANTLR grammar in NodeSemverVersion.g4 */
+		static Version fromStringUsingGrammar(final String version) {
+			ANTLRErrorListener errorListener = new BaseErrorListener() {
+				@Override
+				public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+					throw new IllegalArgumentException("Invalid version \"" + version + "\": " + msg);
+				}
+			};
 			ANTLRInputStream reader = new ANTLRInputStream(version);
 			NodeSemverVersionLexer lexer = new NodeSemverVersionLexer(reader);
 			lexer.removeErrorListeners();
+			lexer.addErrorListener(errorListener);
 			TokenStream tokens = new CommonTokenStream(lexer);
 			NodeSemverVersionParser parser = new NodeSemverVersionParser(tokens);
 			parser.removeErrorListeners();
+			parser.addErrorListener(errorListener);
 			ParseTree tree = parser.fullySpecifiedVersion();
 			SemverVersionVisitor visitor = new SemverVersionVisitor();
 			return visitor.visit(tree);
@@ -184,8 +750,8 @@ public class Version implements Comparable<Version> {
 				major,
 				minor,
 				patch,
-				Collections.unmodifiableList(preReleaseIdentifiers),
-				Collections.unmodifiableList(buildIdentifiers)
+				preReleaseIdentifiers,
+				buildIdentifiers
 			);
 		}
 		private static class SemverVersionVisitor extends NodeSemverVersionBaseVisitor<Version> {
@@ -226,25 +792,18 @@ public class Version implements Comparable<Version> {
 
 	@Override
 	public String toString() {
-		String preRelease = join(".", preReleaseIdentifiers);
-		String build = join(".", buildIdentifiers);
-		return "" + major + "." + minor + "." + patch +
-			(preReleaseIdentifiers.size()>0 ? "-"+preRelease : "") +
-			(buildIdentifiers.size()>0 ? "+"+build : "");
-	}
-
-	private static String join(String joiner, Collection<?> objects) {
-		Iterator i = objects.iterator();
-		StringBuilder sb = new StringBuilder();
-		while (i.hasNext()) {
-			sb.append(i.next().toString());
-			if (i.hasNext()) {
-				sb.append(joiner);
-			}
-		}
+		StringBuilder sb = new StringBuilder(16).append(getMajor()).append('.').append(getMinor()).append('.').append(getPatch());
+		join(sb, '-', preReleaseIdentifiers);
+		join(sb, '+', buildIdentifiers);
 		return sb.toString();
 	}
 
+	private static void join(StringBuilder sb, char prefix, Identifiers identifiers) {
+		for (int i = 0; i < identifiers.size(); i++) {
+			sb.append(i == 0 ? prefix : '.').append(identifiers.get(i).getIdentifier());
+		}
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -252,9 +811,8 @@ public class Version implements Comparable<Version> {
 
 		Version that = (Version) o;
 
-		if (major != that.major) return false;
-		if (minor != that.minor) return false;
-		if (patch != that.patch) return false;
+		if (sortKeyHigh != that.sortKeyHigh) return false;
+		if (sortKeyLow != that.sortKeyLow) return false;
 		if (!preReleaseIdentifiers.equals(that.preReleaseIdentifiers)) return false;
 		return buildIdentifiers.equals(that.buildIdentifiers);
 
@@ -262,11 +820,15 @@ public class Version implements Comparable<Version> {
 
 	@Override
 	public int hashCode() {
-		int result = major;
-		result = 31 * result + minor;
-		result = 31 * result + patch;
-		result = 31 * result + preReleaseIdentifiers.hashCode();
-		result = 31 * result + buildIdentifiers.hashCode();
+		int result = hash;
+		if (result == 0) {
+			result = getMajor();
+			result = 31 * result + getMinor();
+			result = 31 * result + getPatch();
+			result = 31 * result + preReleaseIdentifiers.hashCode();
+			result = 31 * result + buildIdentifiers.hashCode();
+			hash = result;
+		}
 		return result;
 	}
 
@@ -274,32 +836,19 @@ public class Version implements Comparable<Version> {
 
 		@Override
 		public int compare(Version a, Version b) {
-			if (a.major < b.major) {
-				return -1;
-			} else if (a.major > b.major) {
-				return 1;
-			} else if (a.minor < b.minor) {
-				return -1;
-			} else if (a.minor > b.minor) {
-				return 1;
-			} else if (a.patch < b.patch) {
-				return -1;
-			} else if (a.patch > b.patch) {
-				return 1;
+			if (a.sortKeyHigh != b.sortKeyHigh) {
+				return a.sortKeyHigh < b.sortKeyHigh ? -1 : 1;
+			} else if (a.sortKeyLow != b.sortKeyLow) {
+				return a.sortKeyLow < b.sortKeyLow ? -1 : 1;
+			} else if ((a.sortKeyLow & 1) != 0) {
+				/* both are releases of the same major.minor.patch */
+				return 0;
 			} else {
 				return comparePreReleaseVersions(a,b);
 			}
 		}
 
 		private int comparePreReleaseVersions(Version a, Version b) {
-			if (a.preReleaseIdentifiers.equals(b.preReleaseIdentifiers)) {
-				return 0;
-			}
-			if (a.preReleaseIdentifiers.size() == 0 && b.preReleaseIdentifiers.size() != 0) {
-				return 1;
-			} else if (b.preReleaseIdentifiers.size() == 0 && a.preReleaseIdentifiers.size() != 0) {
-				return -1;
-			}
 			int length = a.preReleaseIdentifiers.size() < b.preReleaseIdentifiers.size()
 				? a.preReleaseIdentifiers.size()
 				: b.preReleaseIdentifiers.size();
@@ -344,31 +893,107 @@ public class Version implements Comparable<Version> {
 		return REVERSE_COMPARATOR;
 	}
 
+	/**
+	 * A comparator of version strings, that orders them as {@link #compareTo} orders the versions they
+	 * describe, without parsing them.  Strings are only scanned as far as it takes to order them, and only
+	 * rejected (with an IllegalArgumentException) if the part that's scanned isn't valid.
+	 * @return the comparator
+	 */
+	public static Comparator<CharSequence> stringComparator() {
+		return VersionStringComparator.INSTANCE;
+	}
+
 
 	public static final class Identifier implements Comparable<Identifier> {
-        private static final Pattern PATTERN_NUMERIC = Pattern.compile("^[0-9]+$");
-        private static final Pattern PATTERN_VALID = Pattern.compile("[\\-A-Za-z0-9]+");
+        /* shared instances of identifiers that appear in many versions */
+        private static final Identifier[] COMMON = {
+            new Identifier("alpha"), new Identifier("beta"), new Identifier("rc"), new Identifier("pre"),
+            new Identifier("SNAPSHOT"), new Identifier("dev"), new Identifier("nightly"), new Identifier("build"),
+            new Identifier("0"), new Identifier("1"), new Identifier("2"), new Identifier("3"), new Identifier("4"),
+            new Identifier("5"), new Identifier("6"), new Identifier("7"), new Identifier("8"), new Identifier("9")
+        };
+
+        /* numeric identifiers with more digits than this might not fit in a long */
+        private static final int MAX_LONG_DIGITS = 18;
+        /* the numericValue of numeric identifiers too large for a long, and of identifiers that aren't numeric */
+        private static final long TOO_LARGE = -1;
+        private static final long NOT_NUMERIC = -2;
+
         private final String identifier;
-        private final boolean isNumeric;
+        /* the value of a numeric identifier, or TOO_LARGE or NOT_NUMERIC (rather than a separate flag, to save space) */
+        private final long numericValue;
 
         private Identifier(String identifier) {
-			if (!PATTERN_VALID.matcher(identifier).matches()) {
-				throw new IllegalArgumentException("Identifier must match [-A-Za-z0-9]+");
-			}
+            if (identifier == null || identifier.isEmpty()) {
+                throw new IllegalArgumentException("Identifier must match [-A-Za-z0-9]+");
+            }
+            boolean numeric = true;
+            for (int i = 0; i < identifier.length(); i++) {
+                char c = identifier.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    continue;
+                }
+                if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '-')) {
+                    throw new IllegalArgumentException("Identifier must match [-A-Za-z0-9]+");
+                }
+                numeric = false;
+            }
             this.identifier = identifier;
-            this.isNumeric = PATTERN_NUMERIC.matcher(identifier).matches();
+            this.numericValue = numeric ? numericValue(identifier) : NOT_NUMERIC;
+        }
+
+        private static long numericValue(String digits) {
+            int start = 0;
+            while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+                start++;
+            }
+            if (digits.length() - start > MAX_LONG_DIGITS) {
+                return TOO_LARGE;
+            }
+            long value = 0;
+            for (int i = start; i < digits.length(); i++) {
+                value = value * 10 + (digits.charAt(i) - '0');
+            }
+            return value;
         }
 
         public static Identifier fromString(String identifier) {
+            if (identifier != null) {
+                for (Identifier common : COMMON) {
+                    if (common.identifier.equals(identifier)) {
+                        return common;
+                    }
+                }
+            }
             return new Identifier(identifier);
         }
 
+        /* the identifier text[start, end), without copying it if it's a common one */
+        static Identifier fromCharSequence(CharSequence text, int start, int end) {
+            int length = end - start;
+            for (Identifier common : COMMON) {
+                if (common.identifier.length() == length && regionMatches(text, start, common.identifier)) {
+                    return common;
+                }
+            }
+            return new Identifier(text.subSequence(start, end).toString());
+        }
+
+        private static boolean regionMatches(CharSequence text, int start, String identifier) {
+            for (int i = 0; i < identifier.length(); i++) {
+                if (text.charAt(start + i) != identifier.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         public String getIdentifier() {
             return identifier;
         }
 
         public boolean isNumeric() {
-            return isNumeric;
+            return numericValue != NOT_NUMERIC;
         }
 
         @Override
@@ -383,26 +1008,56 @@ public class Version implements Comparable<Version> {
 
             Identifier that = (Identifier) o;
 
-            return identifier != null ? identifier.equals(that.identifier) : that.identifier == null;
+            return identifier.equals(that.identifier);
 
         }
 
         @Override
         public int hashCode() {
-            return identifier != null ? identifier.hashCode() : 0;
+            return identifier.hashCode();
         }
 
         @Override
         public int compareTo(Identifier o) {
-            if (isNumeric() && !o.isNumeric()) {
+            if (this == o) {
+                return 0;
+            } else if (isNumeric() && !o.isNumeric()) {
                 return -1;
             } else if (!isNumeric() && o.isNumeric()) {
                 return 1;
             } else if (isNumeric()) {
-                return Long.valueOf(getIdentifier()).compareTo(Long.valueOf(o.getIdentifier()));
+                if (numericValue >= 0 && o.numericValue >= 0) {
+                    return numericValue < o.numericValue ? -1 : numericValue == o.numericValue ? 0 : 1;
+                }
+                return compareLargeNumbers(identifier, o.identifier);
             } else {
-                return getIdentifier().compareTo(o.getIdentifier());
+                return identifier.compareTo(o.identifier);
+            }
+        }
+
+        /* compares numbers too large for a long by their digits, ignoring leading zeros */
+        private static int compareLargeNumbers(String left, String right) {
+            int leftStart = 0;
+            while (leftStart < left.length() - 1 && left.charAt(leftStart) == '0') {
+                leftStart++;
+            }
+            int rightStart = 0;
+            while (rightStart < right.length() - 1 && right.charAt(rightStart) == '0') {
+                rightStart++;
+            }
+            int leftDigits = left.length() - leftStart;
+            int rightDigits = right.length() - rightStart;
+            if (leftDigits != rightDigits) {
+                return leftDigits < rightDigits ? -1 : 1;
+            }
+            for (int i = 0; i < leftDigits; i++) {
+                char l = left.charAt(leftStart + i);
+                char r = right.charAt(rightStart + i);
+                if (l != r) {
+                    return l < r ? -1 : 1;
+                }
             }
+            return 0;
         }
     }
 }
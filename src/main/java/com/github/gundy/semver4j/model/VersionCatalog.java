@@ -0,0 +1,514 @@
+package com.github.gundy.semver4j.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A sorted list of versions in a compact binary format, that's queried in place (eg. straight from a
+ * memory mapped file) instead of being parsed into {@link Version} objects first.
+ *
+ * Versions are stored in ascending order, as columns of major, minor and patch numbers, plus columns of
+ * indexes into a dictionary of distinct pre-release strings and one of distinct build strings.  The
+ * pre-release dictionary is sorted by precedence, so comparing two stored versions never decodes any
+ * identifiers.  Range queries work exactly as they do for a {@link VersionIndex}; only the versions
+ * that are returned (and those that need checking against an exact version) are decoded.  Catalogs
+ * are immutable, and may be shared freely between threads.
+ *
+ * The format (all integers big-endian) is a header of six ints (magic number, version count, pre-release
+ * dictionary size, build dictionary size, and the lengths of the pre-release and build text), the major,
+ * minor, patch, pre-release and build columns, a column of the number of releases before each version,
+ * the rank of each pre-release string, the offsets of each pre-release string and then of each build
+ * string, and finally the text of both dictionaries.
+ */
+public final class VersionCatalog extends SortedVersions {
+	private static final int MAGIC = 0x53564331; /* "SVC1" */
+	private static final int HEADER_INTS = 6;
+
+	private static final List<Version.Identifier> NO_IDENTIFIERS = Collections.emptyList();
+
+	/* orders pre-release strings by precedence, and then by their text */
+	private static final Comparator<String> BY_PRECEDENCE = new Comparator<String>() {
+		@Override
+		public int compare(String a, String b) {
+			int result = preReleaseVersion(a).compareTo(preReleaseVersion(b));
+			return result != 0 ? result : a.compareTo(b);
+		}
+	};
+
+	private final ByteBuffer buffer;
+	private final int size;
+	private final int preReleaseCount;
+	private final int buildCount;
+
+	/* byte offsets of each section of the buffer */
+	private final int majors;
+	private final int minors;
+	private final int patches;
+	private final int preReleases;
+	private final int builds;
+	private final int releasesBefore;
+	private final int preReleaseRanks;
+	private final int preReleaseOffsets;
+	private final int buildOffsets;
+	private final int preReleaseText;
+	private final int buildText;
+
+	/* the pre-release key of release versions, which is greater than that of any pre-release */
+	private final int releaseKey;
+
+	private VersionCatalog(ByteBuffer buffer) {
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Not a version catalog");
+		}
+		size = buffer.getInt(4);
+		preReleaseCount = buffer.getInt(8);
+		buildCount = buffer.getInt(12);
+		int preReleaseTextLength = buffer.getInt(16);
+		int buildTextLength = buffer.getInt(20);
+
+		long expectedCapacity = (HEADER_INTS + 6L * size + 1 + 2L * preReleaseCount + 1 + buildCount + 1) * 4
+			+ preReleaseTextLength + buildTextLength;
+		if (size < 0 || preReleaseCount < 0 || buildCount < 0 || preReleaseTextLength < 0 || buildTextLength < 0
+			|| buffer.capacity() != expectedCapacity) {
+			throw new IllegalArgumentException("Corrupt version catalog");
+		}
+		majors = HEADER_INTS * 4;
+		minors = majors + size * 4;
+		patches = minors + size * 4;
+		preReleases = patches + size * 4;
+		builds = preReleases + size * 4;
+		releasesBefore = builds + size * 4;
+		preReleaseRanks = releasesBefore + (size + 1) * 4;
+		preReleaseOffsets = preReleaseRanks + preReleaseCount * 4;
+		buildOffsets = preReleaseOffsets + (preReleaseCount + 1) * 4;
+		preReleaseText = buildOffsets + (buildCount + 1) * 4;
+		buildText = preReleaseText + preReleaseTextLength;
+		releaseKey = 2 * (preReleaseCount == 0 ? 0 : buffer.getInt(preReleaseRanks + (preReleaseCount - 1) * 4) + 1);
+	}
+
+	/**
+	 * Memory maps a catalog file.  The versions are read from the mapped file as they're needed, so opening
+	 * a catalog takes time independent of its size, and the versions aren't held on the heap.
+	 * @param file A file written by {@link #write(Collection, Path)}
+	 * @return the catalog
+	 * @throws IOException if the file can't be read
+	 * @throws IllegalArgumentException if the file isn't a version catalog
+	 */
+	public static VersionCatalog open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Not a version catalog");
+			}
+			/* the mapping stays valid after the channel is closed */
+			return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Reads a catalog from a buffer, in place.  The catalog holds on to (a view of) the buffer, whose contents
+	 * must not change; its position and limit are ignored.
+	 * @param buffer A buffer holding the bytes written by {@link #write(Collection, OutputStream)}
+	 * @return the catalog
+	 * @throws IllegalArgumentException if the buffer doesn't hold a version catalog
+	 */
+	public static VersionCatalog wrap(ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Buffer must not be null");
+		}
+		ByteBuffer view = buffer.duplicate();
+		view.clear();
+		return new VersionCatalog(view.slice().order(ByteOrder.BIG_ENDIAN));
+	}
+
+	/**
+	 * Writes versions to a catalog file, replacing the file if it exists.
+	 * @param versions The versions to write, in any order
+	 * @param file The file to write
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(Collection<Version> versions, Path file) throws IOException {
+		OutputStream out = Files.newOutputStream(file);
+		try {
+			write(versions, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes versions to a stream in the catalog format.  Versions are sorted before they're written;
+	 * versions that compare equal (eg. that differ only in their build identifiers) are kept in the order
+	 * the collection returns them.
+	 * @param versions The versions to write, in any order
+	 * @param out The stream to write to, which is left open
+	 * @throws IOException if the stream can't be written
+	 */
+	public static void write(Collection<Version> versions, OutputStream out) throws IOException {
+		if (versions == null) {
+			throw new IllegalArgumentException("Versions must not be null");
+		}
+		Version[] sorted = versions.toArray(new Version[versions.size()]);
+		for (Version version : sorted) {
+			if (version == null) {
+				throw new IllegalArgumentException("Versions must not contain null");
+			}
+		}
+		Arrays.sort(sorted);
+
+		Map<String, Integer> builds = new LinkedHashMap<String, Integer>();
+		List<String> preReleaseList = new ArrayList<String>();
+		Map<String, Integer> preReleases = new HashMap<String, Integer>();
+		for (Version version : sorted) {
+			String preRelease = join(version.getPreReleaseIdentifiers());
+			if (preRelease != null && !preReleases.containsKey(preRelease)) {
+				preReleases.put(preRelease, -1);
+				preReleaseList.add(preRelease);
+			}
+			String build = join(version.getBuildIdentifiers());
+			if (build != null && !builds.containsKey(build)) {
+				builds.put(build, builds.size());
+			}
+		}
+		Collections.sort(preReleaseList, BY_PRECEDENCE);
+		for (int i = 0; i < preReleaseList.size(); i++) {
+			preReleases.put(preReleaseList.get(i), i);
+		}
+		byte[][] preReleaseText = encode(preReleaseList);
+		byte[][] buildText = encode(new ArrayList<String>(builds.keySet()));
+		long textLength = totalLength(preReleaseText) + totalLength(buildText);
+		if ((HEADER_INTS + 6L * sorted.length + 2L * preReleaseList.size() + builds.size() + 3) * 4 + textLength > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many versions for a catalog");
+		}
+
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(sorted.length);
+		data.writeInt(preReleaseList.size());
+		data.writeInt(builds.size());
+		data.writeInt((int) totalLength(preReleaseText));
+		data.writeInt((int) totalLength(buildText));
+		for (Version version : sorted) {
+			data.writeInt(version.getMajor());
+		}
+		for (Version version : sorted) {
+			data.writeInt(version.getMinor());
+		}
+		for (Version version : sorted) {
+			data.writeInt(version.getPatch());
+		}
+		for (Version version : sorted) {
+			String preRelease = join(version.getPreReleaseIdentifiers());
+			data.writeInt(preRelease == null ? -1 : preReleases.get(preRelease));
+		}
+		for (Version version : sorted) {
+			String build = join(version.getBuildIdentifiers());
+			data.writeInt(build == null ? -1 : builds.get(build));
+		}
+		int releases = 0;
+		data.writeInt(releases);
+		for (Version version : sorted) {
+			if (version.getPreReleaseIdentifiers().isEmpty()) {
+				releases++;
+			}
+			data.writeInt(releases);
+		}
+		/* pre-releases that compare equal (eg. "1" and "01") share a rank */
+		int rank = 0;
+		for (int i = 0; i < preReleaseList.size(); i++) {
+			if (i > 0 && preReleaseVersion(preReleaseList.get(i - 1)).compareTo(preReleaseVersion(preReleaseList.get(i))) != 0) {
+				rank++;
+			}
+			data.writeInt(rank);
+		}
+		writeOffsets(data, preReleaseText);
+		writeOffsets(data, buildText);
+		for (byte[] text : preReleaseText) {
+			data.write(text);
+		}
+		for (byte[] text : buildText) {
+			data.write(text);
+		}
+		data.flush();
+	}
+
+	/**
+	 * @return the number of versions in this catalog
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Decodes a version.
+	 * @param index The index of the version, in ascending order of versions
+	 * @return the version
+	 * @throws IndexOutOfBoundsException if there's no version at the index
+	 */
+	@Override
+	public Version get(int index) {
+		checkIndex(index);
+		int preRelease = buffer.getInt(preReleases + index * 4);
+		int build = buffer.getInt(builds + index * 4);
+		return new Version(
+			buffer.getInt(majors + index * 4),
+			buffer.getInt(minors + index * 4),
+			buffer.getInt(patches + index * 4),
+			preRelease < 0 ? NO_IDENTIFIERS : identifiers(preReleaseText, preReleaseOffsets, preRelease),
+			build < 0 ? NO_IDENTIFIERS : identifiers(buildText, buildOffsets, build)
+		);
+	}
+
+	/**
+	 * Compares two versions of the catalog, without decoding them.  Build identifiers are ignored, as they
+	 * are by {@link Version#compareTo}.
+	 * @param i The index of a version
+	 * @param j The index of another version
+	 * @return a negative number, zero, or a positive number as the first version is less than, equal to
+	 *         or greater than the second
+	 * @throws IndexOutOfBoundsException if there's no version at either index
+	 */
+	@Override
+	public int compare(int i, int j) {
+		checkIndex(i);
+		checkIndex(j);
+		int result = Integer.compare(buffer.getInt(majors + i * 4), buffer.getInt(majors + j * 4));
+		if (result == 0) {
+			result = Integer.compare(buffer.getInt(minors + i * 4), buffer.getInt(minors + j * 4));
+		}
+		if (result == 0) {
+			result = Integer.compare(buffer.getInt(patches + i * 4), buffer.getInt(patches + j * 4));
+		}
+		return result != 0 ? result : Integer.compare(preReleaseKey(i), preReleaseKey(j));
+	}
+
+	/**
+	 * Returns the maximum version that satisfies a given range.  If several satisfying versions compare
+	 * equal, the first of them in the collection that the catalog was written from is returned.
+	 * @param range A compiled range
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public Version maxSatisfying(Range range) {
+		int max = maxSatisfyingIndex(range);
+		return max < 0 ? null : get(max);
+	}
+
+	/**
+	 * Returns the minimum version that satisfies a given range.  If several satisfying versions compare
+	 * equal, the first of them in the collection that the catalog was written from is returned.
+	 * @param range A compiled range
+	 * @return the minimum satisfying version, or null if no version satisfies the range
+	 */
+	public Version minSatisfying(Range range) {
+		int min = minSatisfyingIndex(range);
+		return min < 0 ? null : get(min);
+	}
+
+	/**
+	 * @param range A compiled range
+	 * @return the number of versions that satisfy the range
+	 */
+	public int countSatisfying(Range range) {
+		return countSatisfyingVersions(range);
+	}
+
+	/**
+	 * @param range A compiled range
+	 * @return the versions that satisfy the range, in ascending order
+	 */
+	public List<Version> allSatisfying(Range range) {
+		return allSatisfyingVersions(range);
+	}
+
+	@Override
+	int releasesBefore(int index) {
+		return buffer.getInt(releasesBefore + index * 4);
+	}
+
+	@Override
+	int nextRelease(int index) {
+		int release = releasesBefore(index);
+		return release < releasesBefore(size) ? indexOfRelease(release) : size;
+	}
+
+	@Override
+	int previousRelease(int index) {
+		int releases = releasesBefore(index + 1);
+		return releases > 0 ? indexOfRelease(releases - 1) : -1;
+	}
+
+	@Override
+	int lowerBound(Version version) {
+		return search(version, 0);
+	}
+
+	@Override
+	int upperBound(Version version) {
+		return search(version, 1);
+	}
+
+	/* the index of the first version that compares greater than the given version less the given bias */
+	private int search(Version version, int bias) {
+		int key = preReleaseKey(version);
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int result = Integer.compare(buffer.getInt(majors + mid * 4), version.getMajor());
+			if (result == 0) {
+				result = Integer.compare(buffer.getInt(minors + mid * 4), version.getMinor());
+			}
+			if (result == 0) {
+				result = Integer.compare(buffer.getInt(patches + mid * 4), version.getPatch());
+			}
+			if (result == 0) {
+				result = Integer.compare(preReleaseKey(mid), key);
+			}
+			if (result < bias) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/* twice the rank of the pre-release of the version at an index (so that keys of other pre-releases fit in between) */
+	private int preReleaseKey(int index) {
+		int preRelease = buffer.getInt(preReleases + index * 4);
+		return preRelease < 0 ? releaseKey : 2 * buffer.getInt(preReleaseRanks + preRelease * 4);
+	}
+
+	/* the key of a version's pre-release among those of the catalog, found by binary searching the dictionary */
+	private int preReleaseKey(Version version) {
+		if (version.getPreReleaseIdentifiers().isEmpty()) {
+			return releaseKey;
+		}
+		Version preRelease = new Version(0, 0, 0, version.getPreReleaseIdentifiers(), NO_IDENTIFIERS);
+		int low = 0;
+		int high = preReleaseCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (preReleaseVersion(mid).compareTo(preRelease) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		if (low == preReleaseCount) {
+			return releaseKey - 1;
+		}
+		int key = 2 * buffer.getInt(preReleaseRanks + low * 4);
+		return preReleaseVersion(low).compareTo(preRelease) == 0 ? key : key - 1;
+	}
+
+	private Version preReleaseVersion(int entry) {
+		return new Version(0, 0, 0, identifiers(preReleaseText, preReleaseOffsets, entry), NO_IDENTIFIERS);
+	}
+
+	/* the index of the nth release version (counting from zero) */
+	private int indexOfRelease(int n) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (releasesBefore(mid + 1) <= n) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private List<Version.Identifier> identifiers(int text, int offsets, int entry) {
+		int start = buffer.getInt(offsets + entry * 4);
+		int end = buffer.getInt(offsets + entry * 4 + 4);
+		return split(new AsciiBytes(buffer, text + start, end - start));
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+	}
+
+	private static Version preReleaseVersion(String preRelease) {
+		return new Version(0, 0, 0, split(preRelease), NO_IDENTIFIERS);
+	}
+
+	/* the identifiers of dot separated text */
+	private static List<Version.Identifier> split(CharSequence text) {
+		List<Version.Identifier> identifiers = new ArrayList<Version.Identifier>(2);
+		int from = 0;
+		for (int i = 0; i <= text.length(); i++) {
+			if (i == text.length() || text.charAt(i) == '.') {
+				identifiers.add(Version.Identifier.fromCharSequence(text, from, i));
+				from = i + 1;
+			}
+		}
+		return Collections.unmodifiableList(identifiers);
+	}
+
+	/* the identifiers joined with periods, or null if there are none */
+	private static String join(List<Version.Identifier> identifiers) {
+		if (identifiers.isEmpty()) {
+			return null;
+		}
+		StringBuilder text = new StringBuilder();
+		for (Version.Identifier identifier : identifiers) {
+			if (text.length() > 0) {
+				text.append('.');
+			}
+			text.append(identifier.getIdentifier());
+		}
+		return text.toString();
+	}
+
+	private static byte[][] encode(List<String> strings) {
+		byte[][] encoded = new byte[strings.size()][];
+		for (int i = 0; i < encoded.length; i++) {
+			encoded[i] = strings.get(i).getBytes(StandardCharsets.US_ASCII);
+		}
+		return encoded;
+	}
+
+	private static long totalLength(byte[][] strings) {
+		long length = 0;
+		for (byte[] string : strings) {
+			length += string.length;
+		}
+		return length;
+	}
+
+	private static void writeOffsets(DataOutputStream data, byte[][] strings) throws IOException {
+		int offset = 0;
+		data.writeInt(offset);
+		for (byte[] string : strings) {
+			offset += string.length;
+			data.writeInt(offset);
+		}
+	}
+}
@@ -0,0 +1,607 @@
+package com.github.gundy.semver4j.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of versions, lists of versions and compiled ranges, for passing them between
+ * processes (eg. through a shared cache) without formatting them as strings and parsing them again.
+ * Decoding builds the versions and ranges directly, and gives back exactly what was encoded, including
+ * build identifiers, numeric identifiers with leading zeros and the original expression of a range.
+ *
+ * Each encoding starts with a byte holding the format version (currently 1) and the kind of value that
+ * follows.  All numbers are unsigned varints (7 bits a byte, least significant first).  A version is its
+ * major, minor and patch numbers, then its pre-release and build identifiers, each list preceded by its
+ * length.  An identifier is a single varint: a number n without leading zeros as n &lt;&lt; 2 | 1, text of
+ * length l as l &lt;&lt; 2 followed by its ASCII characters, or the entry at index i of a dictionary as
+ * i &lt;&lt; 2 | 2.  A list of versions starts with its length and a dictionary of the distinct identifiers
+ * that aren't numbers, which its versions refer to (and share, once decoded).  A range is its expression
+ * (as UTF-8) and then its compiled alternatives, so that it isn't parsed again either.
+ *
+ * Invalid encodings are rejected with an IllegalArgumentException; encodings cut short end with an
+ * {@link java.io.EOFException} (from a {@link DataInput}) or an IllegalArgumentException (from a buffer).
+ * The {@link ByteBuffer} variants don't declare an IOException: they share their reading and writing with
+ * the {@link DataInput} and {@link DataOutput} variants, but a buffer never throws one.
+ */
+public final class VersionCodec {
+	private static final int FORMAT_VERSION = 1;
+	private static final int VERSION = 1;
+	private static final int VERSION_LIST = 2;
+	private static final int RANGE = 3;
+
+	private static final int NUMBER = 1;
+	private static final int DICTIONARY_ENTRY = 2;
+
+	/* flags of constraints and intervals */
+	private static final int PRE_RELEASES_UNRESTRICTED = 1;
+	private static final int HAS_EXACT = 2;
+	private static final int HAS_LOWER = 1;
+	private static final int LOWER_INCLUSIVE = 2;
+	private static final int HAS_UPPER = 4;
+	private static final int UPPER_INCLUSIVE = 8;
+
+	/* numeric identifiers that are written as numbers; others (with leading zeros, or too long) are written as text */
+	private static final int MAX_NUMBER_DIGITS = 18;
+
+	/* lists and text are allocated no larger than this until their elements have actually been read */
+	private static final int MAX_INITIAL_CAPACITY = 1024;
+
+	private VersionCodec() {
+	}
+
+	/**
+	 * Write a version.
+	 * @param version The version to write
+	 * @param out The output to write to
+	 * @throws IOException if the output can't be written to
+	 * @throws IllegalArgumentException if the version or output is null
+	 */
+	public static void writeVersion(Version version, DataOutput out) throws IOException {
+		new StreamOutput(out).writeVersion(version);
+	}
+
+	/**
+	 * Write a version to a buffer, from its position, which is left after the version.
+	 * @param version The version to write
+	 * @param buffer The buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer hasn't enough space left
+	 * @throws IllegalArgumentException if the version or buffer is null
+	 */
+	public static void writeVersion(Version version, ByteBuffer buffer) {
+		try {
+			new BufferOutput(buffer).writeVersion(version);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Read a version written by {@link #writeVersion(Version, DataOutput)}.
+	 * @param in The input to read from
+	 * @return the version, exactly as it was written
+	 * @throws IOException if the input can't be read from, or ends before the version does
+	 *         (an {@link java.io.EOFException})
+	 * @throws IllegalArgumentException if the input is null, or doesn't hold a valid encoding of a version
+	 */
+	public static Version readVersion(DataInput in) throws IOException {
+		return new StreamInput(in).readVersion();
+	}
+
+	/**
+	 * Read a version written by {@link #writeVersion(Version, ByteBuffer)}, from the buffer's position, which is
+	 * left after the version.
+	 * @param buffer The buffer to read from
+	 * @return the version, exactly as it was written
+	 * @throws IllegalArgumentException if the buffer is null, or doesn't hold a valid (and complete) encoding
+	 *         of a version before its limit
+	 */
+	public static Version readVersion(ByteBuffer buffer) {
+		try {
+			return new BufferInput(buffer).readVersion();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Write a list of versions, with a dictionary of the identifiers that they use.
+	 * @param versions The versions to write
+	 * @param out The output to write to
+	 * @throws IOException if the output can't be written to
+	 * @throws IllegalArgumentException if the versions, any of them, or the output is null
+	 */
+	public static void writeVersions(Collection<Version> versions, DataOutput out) throws IOException {
+		new StreamOutput(out).writeVersions(versions);
+	}
+
+	/**
+	 * Write a list of versions to a buffer, with a dictionary of the identifiers that they use, from the
+	 * buffer's position, which is left after the list.
+	 * @param versions The versions to write
+	 * @param buffer The buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer hasn't enough space left
+	 * @throws IllegalArgumentException if the versions, any of them, or the buffer is null
+	 */
+	public static void writeVersions(Collection<Version> versions, ByteBuffer buffer) {
+		try {
+			new BufferOutput(buffer).writeVersions(versions);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Read a list of versions written by {@link #writeVersions(Collection, DataOutput)}.
+	 * @param in The input to read from
+	 * @return the versions, in the order they were written, as an unmodifiable list; identifiers that appear
+	 *         in several versions are shared between them
+	 * @throws IOException if the input can't be read from, or ends before the list does
+	 *         (an {@link java.io.EOFException})
+	 * @throws IllegalArgumentException if the input is null, or doesn't hold a valid encoding of a list of versions
+	 */
+	public static List<Version> readVersions(DataInput in) throws IOException {
+		return new StreamInput(in).readVersions();
+	}
+
+	/**
+	 * Read a list of versions written by {@link #writeVersions(Collection, ByteBuffer)}, from the buffer's
+	 * position, which is left after the list.
+	 * @param buffer The buffer to read from
+	 * @return the versions, in the order they were written, as an unmodifiable list; identifiers that appear
+	 *         in several versions are shared between them
+	 * @throws IllegalArgumentException if the buffer is null, or doesn't hold a valid (and complete) encoding
+	 *         of a list of versions before its limit
+	 */
+	public static List<Version> readVersions(ByteBuffer buffer) {
+		try {
+			return new BufferInput(buffer).readVersions();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Write a compiled range: its expression, and its alternatives as they were compiled.
+	 * @param range The range to write
+	 * @param out The output to write to
+	 * @throws IOException if the output can't be written to
+	 * @throws IllegalArgumentException if the range or output is null
+	 */
+	public static void writeRange(Range range, DataOutput out) throws IOException {
+		new StreamOutput(out).writeRange(range);
+	}
+
+	/**
+	 * Write a compiled range to a buffer (its expression, and its alternatives as they were compiled), from
+	 * the buffer's position, which is left after the range.
+	 * @param range The range to write
+	 * @param buffer The buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer hasn't enough space left
+	 * @throws IllegalArgumentException if the range or buffer is null
+	 */
+	public static void writeRange(Range range, ByteBuffer buffer) {
+		try {
+			new BufferOutput(buffer).writeRange(range);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Read a range written by {@link #writeRange(Range, DataOutput)}, without compiling its expression again.
+	 * @param in The input to read from
+	 * @return the range, with the expression and alternatives it was written with
+	 * @throws IOException if the input can't be read from, or ends before the range does
+	 *         (an {@link java.io.EOFException})
+	 * @throws IllegalArgumentException if the input is null, or doesn't hold a valid encoding of a range
+	 */
+	public static Range readRange(DataInput in) throws IOException {
+		return new StreamInput(in).readRange();
+	}
+
+	/**
+	 * Read a range written by {@link #writeRange(Range, ByteBuffer)}, without compiling its expression again,
+	 * from the buffer's position, which is left after the range.
+	 * @param buffer The buffer to read from
+	 * @return the range, with the expression and alternatives it was written with
+	 * @throws IllegalArgumentException if the buffer is null, or doesn't hold a valid (and complete) encoding
+	 *         of a range before its limit
+	 */
+	public static Range readRange(ByteBuffer buffer) {
+		try {
+			return new BufferInput(buffer).readRange();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void checkNotNull(Object value, String name) {
+		if (value == null) {
+			throw new IllegalArgumentException(name + " must not be null");
+		}
+	}
+
+	private abstract static class Output {
+		abstract void writeByte(int b) throws IOException;
+
+		abstract void writeBytes(byte[] bytes) throws IOException;
+
+		final void writeVarint(long value) throws IOException {
+			while ((value & ~0x7FL) != 0) {
+				writeByte((int) (value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			writeByte((int) value);
+		}
+
+		final void writeText(String text) throws IOException {
+			byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+			writeVarint(bytes.length);
+			writeBytes(bytes);
+		}
+
+		final void writeVersion(Version version) throws IOException {
+			checkNotNull(version, "Version");
+			writeByte(FORMAT_VERSION << 4 | VERSION);
+			writeVersion(version, null);
+		}
+
+		final void writeVersions(Collection<Version> versions) throws IOException {
+			checkNotNull(versions, "Versions");
+			/* the distinct identifiers that aren't written as numbers, numbered in the order they're first seen */
+			Map<String, Integer> dictionary = new LinkedHashMap<String, Integer>();
+			for (Version version : versions) {
+				checkNotNull(version, "Version");
+				addToDictionary(version.getPreReleaseIdentifiers(), dictionary);
+				addToDictionary(version.getBuildIdentifiers(), dictionary);
+			}
+			writeByte(FORMAT_VERSION << 4 | VERSION_LIST);
+			writeVarint(versions.size());
+			writeVarint(dictionary.size());
+			for (String identifier : dictionary.keySet()) {
+				writeText(identifier);
+			}
+			for (Version version : versions) {
+				writeVersion(version, dictionary);
+			}
+		}
+
+		final void writeVersion(Version version, Map<String, Integer> dictionary) throws IOException {
+			writeVarint(version.getMajor());
+			writeVarint(version.getMinor());
+			writeVarint(version.getPatch());
+			writeIdentifiers(version.getPreReleaseIdentifiers(), dictionary);
+			writeIdentifiers(version.getBuildIdentifiers(), dictionary);
+		}
+
+		private void writeIdentifiers(List<Version.Identifier> identifiers, Map<String, Integer> dictionary) throws IOException {
+			writeVarint(identifiers.size());
+			for (Version.Identifier identifier : identifiers) {
+				String text = identifier.getIdentifier();
+				if (isNumber(identifier)) {
+					writeVarint(Long.parseLong(text) << 2 | NUMBER);
+				} else if (dictionary != null) {
+					writeVarint((long) dictionary.get(text) << 2 | DICTIONARY_ENTRY);
+				} else {
+					writeVarint((long) text.length() << 2);
+					writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+				}
+			}
+		}
+
+		final void writeRange(Range range) throws IOException {
+			checkNotNull(range, "Range");
+			writeByte(FORMAT_VERSION << 4 | RANGE);
+			writeText(range.toString());
+			Range.Constraint[][] alternatives = range.getAlternatives();
+			writeVarint(alternatives.length);
+			for (Range.Constraint[] alternative : alternatives) {
+				writeVarint(alternative.length);
+				for (Range.Constraint constraint : alternative) {
+					writeConstraint(constraint);
+				}
+			}
+		}
+
+		private void writeConstraint(Range.Constraint constraint) throws IOException {
+			Version exact = constraint.getExact();
+			writeByte((constraint.isPreReleasesUnrestricted() ? PRE_RELEASES_UNRESTRICTED : 0) | (exact != null ? HAS_EXACT : 0));
+			writeVarint(constraint.getIntervals().length);
+			for (Range.Interval interval : constraint.getIntervals()) {
+				Version lower = interval.getLower();
+				Version upper = interval.getUpper();
+				writeByte((lower != null ? HAS_LOWER : 0) | (interval.isLowerInclusive() ? LOWER_INCLUSIVE : 0)
+					| (upper != null ? HAS_UPPER : 0) | (interval.isUpperInclusive() ? UPPER_INCLUSIVE : 0));
+				if (lower != null) {
+					writeVersion(lower, null);
+				}
+				if (upper != null) {
+					writeVersion(upper, null);
+				}
+			}
+			if (exact != null) {
+				writeVersion(exact, null);
+			}
+			writeVarint(constraint.getPreReleaseTuples().length);
+			for (Version tuple : constraint.getPreReleaseTuples()) {
+				writeVersion(tuple, null);
+			}
+		}
+	}
+
+	/* a numeric identifier that's written as a number, because it reads back as the same text */
+	private static boolean isNumber(Version.Identifier identifier) {
+		String text = identifier.getIdentifier();
+		return identifier.isNumeric() && text.length() <= MAX_NUMBER_DIGITS && (text.length() == 1 || text.charAt(0) != '0');
+	}
+
+	private static void addToDictionary(List<Version.Identifier> identifiers, Map<String, Integer> dictionary) {
+		for (Version.Identifier identifier : identifiers) {
+			if (!isNumber(identifier) && !dictionary.containsKey(identifier.getIdentifier())) {
+				dictionary.put(identifier.getIdentifier(), dictionary.size());
+			}
+		}
+	}
+
+	private abstract static class Input {
+		abstract int readByte() throws IOException;
+
+		abstract void readBytes(byte[] bytes, int offset, int length) throws IOException;
+
+		/* the number of bytes left to read, if it's known */
+		abstract long remaining();
+
+		final void readHeader(int kind) throws IOException {
+			int header = readByte();
+			if (header >>> 4 != FORMAT_VERSION) {
+				throw new IllegalArgumentException("Unsupported encoding format " + (header >>> 4));
+			} else if ((header & 0xF) != kind) {
+				throw invalid();
+			}
+		}
+
+		final long readVarint() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw invalid();
+		}
+
+		/* a varint that's a count or an int, which mustn't be negative */
+		final int readInt() throws IOException {
+			long value = readVarint();
+			if (value < 0 || value > Integer.MAX_VALUE) {
+				throw invalid();
+			}
+			return (int) value;
+		}
+
+		/*
+		 * bytes of a length read from the encoding, which isn't trusted: they must all be left in a buffer, and are
+		 * read from a stream in growing chunks, so that a corrupt length can't allocate much more than is there
+		 */
+		final byte[] readBytes(long length) throws IOException {
+			if (length < 0 || length > Integer.MAX_VALUE || length > remaining()) {
+				throw invalid();
+			}
+			byte[] bytes = new byte[(int) Math.min(length, MAX_INITIAL_CAPACITY)];
+			int read = 0;
+			while (true) {
+				readBytes(bytes, read, bytes.length - read);
+				read = bytes.length;
+				if (read == length) {
+					return bytes;
+				}
+				bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+			}
+		}
+
+		final String readText(Charset charset) throws IOException {
+			return new String(readBytes(readVarint()), charset);
+		}
+
+		final Version readVersion() throws IOException {
+			readHeader(VERSION);
+			return readVersion(null);
+		}
+
+		final List<Version> readVersions() throws IOException {
+			readHeader(VERSION_LIST);
+			int size = readInt();
+			int dictionarySize = readInt();
+			List<Version.Identifier> dictionary = new ArrayList<Version.Identifier>(Math.min(dictionarySize, MAX_INITIAL_CAPACITY));
+			for (int i = 0; i < dictionarySize; i++) {
+				dictionary.add(Version.Identifier.fromString(readText(StandardCharsets.US_ASCII)));
+			}
+			List<Version> versions = new ArrayList<Version>(Math.min(size, MAX_INITIAL_CAPACITY));
+			for (int i = 0; i < size; i++) {
+				versions.add(readVersion(dictionary));
+			}
+			return Collections.unmodifiableList(versions);
+		}
+
+		final Version readVersion(List<Version.Identifier> dictionary) throws IOException {
+			int major = readInt();
+			int minor = readInt();
+			int patch = readInt();
+			List<Version.Identifier> preRelease = readIdentifiers(dictionary);
+			return new Version(major, minor, patch, preRelease, readIdentifiers(dictionary));
+		}
+
+		private List<Version.Identifier> readIdentifiers(List<Version.Identifier> dictionary) throws IOException {
+			int size = readInt();
+			if (size == 0) {
+				return Identifiers.EMPTY;
+			}
+			Version.Identifier[] identifiers = new Version.Identifier[Math.min(size, MAX_INITIAL_CAPACITY)];
+			for (int i = 0; i < size; i++) {
+				if (i == identifiers.length) {
+					identifiers = Arrays.copyOf(identifiers, Math.min(size, 2 * i));
+				}
+				long header = readVarint();
+				long value = header >>> 2;
+				if ((header & 3) == NUMBER) {
+					identifiers[i] = Version.Identifier.fromString(Long.toString(value));
+				} else if ((header & 3) == DICTIONARY_ENTRY && dictionary != null && value < dictionary.size()) {
+					identifiers[i] = dictionary.get((int) value);
+				} else if ((header & 3) == 0) {
+					identifiers[i] = Version.Identifier.fromString(new String(readBytes(value), StandardCharsets.US_ASCII));
+				} else {
+					throw invalid();
+				}
+			}
+			return Identifiers.wrap(identifiers);
+		}
+
+		final Range readRange() throws IOException {
+			readHeader(RANGE);
+			String expression = readText(StandardCharsets.UTF_8);
+			int size = readInt();
+			List<Range.Constraint[]> alternatives = new ArrayList<Range.Constraint[]>(Math.min(size, MAX_INITIAL_CAPACITY));
+			for (int i = 0; i < size; i++) {
+				int constraintCount = readInt();
+				List<Range.Constraint> constraints = new ArrayList<Range.Constraint>(Math.min(constraintCount, MAX_INITIAL_CAPACITY));
+				for (int j = 0; j < constraintCount; j++) {
+					constraints.add(readConstraint());
+				}
+				alternatives.add(constraints.toArray(new Range.Constraint[0]));
+			}
+			return new Range(expression, alternatives.toArray(new Range.Constraint[0][]));
+		}
+
+		private Range.Constraint readConstraint() throws IOException {
+			int flags = readByte();
+			int intervalCount = readInt();
+			List<Range.Interval> intervals = new ArrayList<Range.Interval>(Math.min(intervalCount, MAX_INITIAL_CAPACITY));
+			for (int i = 0; i < intervalCount; i++) {
+				int bounds = readByte();
+				Version lower = (bounds & HAS_LOWER) != 0 ? readVersion(null) : null;
+				Version upper = (bounds & HAS_UPPER) != 0 ? readVersion(null) : null;
+				intervals.add(new Range.Interval(lower, (bounds & LOWER_INCLUSIVE) != 0, upper, (bounds & UPPER_INCLUSIVE) != 0));
+			}
+			Version exact = (flags & HAS_EXACT) != 0 ? readVersion(null) : null;
+			int tupleCount = readInt();
+			List<Version> preReleaseTuples = new ArrayList<Version>(Math.min(tupleCount, MAX_INITIAL_CAPACITY));
+			for (int i = 0; i < tupleCount; i++) {
+				preReleaseTuples.add(readVersion(null));
+			}
+			return new Range.Constraint(intervals.toArray(new Range.Interval[0]), exact, (flags & PRE_RELEASES_UNRESTRICTED) != 0,
+					preReleaseTuples.toArray(new Version[0]));
+		}
+	}
+
+	private static IllegalArgumentException invalid() {
+		return new IllegalArgumentException("Invalid encoding");
+	}
+
+	private static final class StreamOutput extends Output {
+		private final DataOutput out;
+
+		private StreamOutput(DataOutput out) {
+			checkNotNull(out, "Output");
+			this.out = out;
+		}
+
+		@Override
+		void writeByte(int b) throws IOException {
+			out.writeByte(b);
+		}
+
+		@Override
+		void writeBytes(byte[] bytes) throws IOException {
+			out.write(bytes);
+		}
+	}
+
+	private static final class BufferOutput extends Output {
+		private final ByteBuffer buffer;
+
+		private BufferOutput(ByteBuffer buffer) {
+			checkNotNull(buffer, "Buffer");
+			this.buffer = buffer;
+		}
+
+		@Override
+		void writeByte(int b) {
+			buffer.put((byte) b);
+		}
+
+		@Override
+		void writeBytes(byte[] bytes) {
+			buffer.put(bytes);
+		}
+	}
+
+	private static final class StreamInput extends Input {
+		private final DataInput in;
+
+		private StreamInput(DataInput in) {
+			checkNotNull(in, "Input");
+			this.in = in;
+		}
+
+		@Override
+		int readByte() throws IOException {
+			return in.readUnsignedByte();
+		}
+
+		@Override
+		void readBytes(byte[] bytes, int offset, int length) throws IOException {
+			in.readFully(bytes, offset, length);
+		}
+
+		@Override
+		long remaining() {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private static final class BufferInput extends Input {
+		private final ByteBuffer buffer;
+
+		private BufferInput(ByteBuffer buffer) {
+			checkNotNull(buffer, "Buffer");
+			this.buffer = buffer;
+		}
+
+		@Override
+		int readByte() {
+			try {
+				return buffer.get() & 0xFF;
+			} catch (BufferUnderflowException e) {
+				throw invalid();
+			}
+		}
+
+		@Override
+		void readBytes(byte[] bytes, int offset, int length) {
+			try {
+				buffer.get(bytes, offset, length);
+			} catch (BufferUnderflowException e) {
+				throw invalid();
+			}
+		}
+
+		@Override
+		long remaining() {
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package com.github.gundy.semver4j.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable column of versions (eg. every version in a compatibility matrix), stored as parallel
+ * arrays of primitives, for testing one range against very many versions at once.
+ *
+ * Release versions without build identifiers (nearly all versions, in practice) are held only as their
+ * major, minor and patch numbers.  {@link #satisfying} reduces a range to the disjoint intervals of release
+ * versions that satisfy it, and tests every row against them in a single loop over the arrays, without
+ * touching a {@link Version} object.  The other versions are held
+ * in a side table, and tested one at a time.  Rows that couldn't be parsed are kept, so that the rows of
+ * the column line up with its input, but never satisfy a range.  Instances may be shared freely between
+ * threads.
+ */
+public final class VersionColumn {
+	private static final int[] NO_ROWS = new int[0];
+	private static final Version[] NO_VERSIONS = new Version[0];
+
+	private final int size;
+	private final int[] majors;
+	private final int[] minors;
+	private final int[] patches;
+	/* the rows that are held only in the arrays above, as the words of a bit set */
+	private final long[] plainRows;
+	private final BitSet invalidRows;
+	/* the rows with pre-release or build identifiers, in ascending order, and their versions */
+	private final int[] otherRows;
+	private final Version[] otherVersions;
+
+	private VersionColumn(Builder builder) {
+		size = builder.size;
+		majors = builder.majors;
+		minors = builder.minors;
+		patches = builder.patches;
+		plainRows = Arrays.copyOf(builder.plainRows.toLongArray(), (size + 63) >>> 6);
+		invalidRows = builder.invalidRows;
+		otherRows = Arrays.copyOf(builder.otherRows, builder.otherCount);
+		otherVersions = Arrays.copyOf(builder.otherVersions, builder.otherCount);
+	}
+
+	/**
+	 * Parse a column of version strings, without throwing an exception for the ones that aren't valid.
+	 * @param versions The version strings, one per row; null strings are invalid
+	 * @return the column, with a row for every string (see {@link #getInvalidRows})
+	 */
+	public static VersionColumn parse(List<String> versions) {
+		if (versions == null) {
+			throw new IllegalArgumentException("Versions must not be null");
+		}
+		Builder builder = new Builder(versions.size());
+		for (String version : versions) {
+			ParseResult<Version> parsed = version != null ? Version.tryParse(version) : null;
+			builder.add(parsed != null && parsed.isSuccess() ? parsed.getValue() : null);
+		}
+		return new VersionColumn(builder);
+	}
+
+	/**
+	 * @param versions The versions, one per row
+	 * @return a column holding the versions
+	 */
+	public static VersionColumn of(Collection<Version> versions) {
+		if (versions == null) {
+			throw new IllegalArgumentException("Versions must not be null");
+		}
+		Builder builder = new Builder(versions.size());
+		for (Version version : versions) {
+			if (version == null) {
+				throw new IllegalArgumentException("Versions must not contain null");
+			}
+			builder.add(version);
+		}
+		return new VersionColumn(builder);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row The index of a row
+	 * @return the version in the row, or null if the row couldn't be parsed
+	 */
+	public Version get(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+		}
+		if ((plainRows[row >>> 6] & 1L << row) != 0) {
+			return new Version(majors[row], minors[row], patches[row],
+				Collections.<Version.Identifier>emptyList(), Collections.<Version.Identifier>emptyList());
+		}
+		int other = Arrays.binarySearch(otherRows, row);
+		return other >= 0 ? otherVersions[other] : null;
+	}
+
+	/**
+	 * @return the rows whose strings weren't valid versions
+	 */
+	public BitSet getInvalidRows() {
+		return (BitSet) invalidRows.clone();
+	}
+
+	/**
+	 * Test every version in the column against a range.
+	 * @param range The range
+	 * @return the rows whose versions satisfy the range, exactly as {@link Range#isSatisfiedBy} would
+	 */
+	public BitSet satisfying(Range range) {
+		if (range == null) {
+			throw new IllegalArgumentException("Range must not be null");
+		}
+		long[] bounds = releaseBounds(range);
+		long[] satisfied = new long[plainRows.length];
+		int[] majors = this.majors;
+		int[] minors = this.minors;
+		int[] patches = this.patches;
+		for (int w = 0; w < satisfied.length; w++) {
+			/* each word of results is built up in a register, rather than updated in memory for every row */
+			long word = 0;
+			int end = Math.min(size, (w + 1) << 6);
+			for (int i = w << 6; i < end; i++) {
+				long high = (long) majors[i] << 31 | minors[i];
+				long patch = patches[i];
+				long within = 0;
+				for (int b = 0; b < bounds.length; b += 4) {
+					within |= notBelow(high, patch, bounds[b], bounds[b + 1]) & notBelow(bounds[b + 2], bounds[b + 3], high, patch);
+				}
+				word |= within << i;
+			}
+			/* the rows that aren't plain releases were tested by their major/minor/patch alone, which is wrong for them */
+			satisfied[w] = word & plainRows[w];
+		}
+		BitSet result = BitSet.valueOf(satisfied);
+		for (int i = 0; i < otherRows.length; i++) {
+			if (range.isSatisfiedBy(otherVersions[i])) {
+				result.set(otherRows[i]);
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * 1 if (high, patch) >= (boundHigh, boundPatch), otherwise 0, without branching: the tests of a column's
+	 * rows don't follow any pattern that branches could be predicted by.  One side is always a row, whose
+	 * values aren't negative, so the differences can't overflow.
+	 */
+	private static long notBelow(long high, long patch, long boundHigh, long boundPatch) {
+		long above = (boundHigh - high) >>> 63;
+		long difference = high ^ boundHigh;
+		long equal = ~(difference | -difference) >>> 63;
+		long patchNotBelow = ~(patch - boundPatch) >>> 63;
+		return above | equal & patchNotBelow;
+	}
+
+	/* (high, patch) >= (boundHigh, boundPatch), where high is major << 31 | minor */
+	private static boolean atLeast(long high, long patch, long boundHigh, long boundPatch) {
+		return high > boundHigh | high == boundHigh & patch >= boundPatch;
+	}
+
+	/*
+	 * the release versions (without build identifiers) that satisfy a range, as disjoint inclusive intervals
+	 * of (major << 31 | minor, patch), sorted in ascending order and flattened into groups of four longs: the
+	 * lower high and patch, then the upper high and patch.  Pre-release restrictions don't apply to releases,
+	 * and a release is greater than any pre-release of the same major.minor.patch, so each interval of the
+	 * range becomes one of these, and the intervals of an alternative's constraints can be intersected.
+	 */
+	private static long[] releaseBounds(Range range) {
+		List<long[]> union = new ArrayList<long[]>();
+		for (Range.Constraint[] alternative : range.getAlternatives()) {
+			List<long[]> intersection = Collections.singletonList(new long[] {-1, 0, Long.MAX_VALUE, 0});
+			for (Range.Constraint constraint : alternative) {
+				intersection = intersect(intersection, releaseBounds(constraint));
+			}
+			union.addAll(intersection);
+		}
+		Collections.sort(union, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] a, long[] b) {
+				return a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]);
+			}
+		});
+		long[] bounds = new long[union.size() * 4];
+		int length = 0;
+		for (long[] interval : union) {
+			if (length > 0 && atLeast(bounds[length - 2], bounds[length - 1], interval[0], interval[1])) {
+				/* overlaps the previous interval */
+				if (atLeast(interval[2], interval[3], bounds[length - 2], bounds[length - 1])) {
+					bounds[length - 2] = interval[2];
+					bounds[length - 1] = interval[3];
+				}
+			} else {
+				System.arraycopy(interval, 0, bounds, length, 4);
+				length += 4;
+			}
+		}
+		return Arrays.copyOf(bounds, length);
+	}
+
+	private static List<long[]> releaseBounds(Range.Constraint constraint) {
+		List<long[]> intervals = new ArrayList<long[]>();
+		for (Range.Interval interval : constraint.getIntervals()) {
+			intervals.add(releaseBounds(interval));
+		}
+		Version exact = constraint.getExact();
+		if (exact != null && exact.getPreReleaseIdentifiers().isEmpty() && exact.getBuildIdentifiers().isEmpty()) {
+			intervals.add(new long[] {exact.getSortKeyHigh(), exact.getPatch(), exact.getSortKeyHigh(), exact.getPatch()});
+		}
+		return intervals;
+	}
+
+	private static long[] releaseBounds(Range.Interval interval) {
+		long[] bounds = {-1, 0, Long.MAX_VALUE, 0};
+		Version lower = interval.getLower();
+		if (lower != null) {
+			boolean inclusive = interval.isLowerInclusive() || !lower.getPreReleaseIdentifiers().isEmpty();
+			bounds[0] = lower.getSortKeyHigh();
+			bounds[1] = inclusive ? lower.getPatch() : lower.getPatch() + 1L;
+		}
+		Version upper = interval.getUpper();
+		if (upper != null) {
+			boolean inclusive = interval.isUpperInclusive() && upper.getPreReleaseIdentifiers().isEmpty();
+			bounds[2] = upper.getSortKeyHigh();
+			bounds[3] = inclusive ? upper.getPatch() : upper.getPatch() - 1L;
+		}
+		return bounds;
+	}
+
+	/* the non-empty intersections of each interval in one list with each in the other */
+	private static List<long[]> intersect(List<long[]> left, List<long[]> right) {
+		List<long[]> intersection = new ArrayList<long[]>();
+		for (long[] a : left) {
+			for (long[] b : right) {
+				boolean lowerFromA = atLeast(a[0], a[1], b[0], b[1]);
+				boolean upperFromA = atLeast(b[2], b[3], a[2], a[3]);
+				long[] both = {
+					lowerFromA ? a[0] : b[0], lowerFromA ? a[1] : b[1],
+					upperFromA ? a[2] : b[2], upperFromA ? a[3] : b[3],
+				};
+				if (atLeast(both[2], both[3], both[0], both[1])) {
+					intersection.add(both);
+				}
+			}
+		}
+		return intersection;
+	}
+
+	private static final class Builder {
+		private int size;
+		private final int[] majors;
+		private final int[] minors;
+		private final int[] patches;
+		private final BitSet plainRows = new BitSet();
+		private final BitSet invalidRows = new BitSet();
+		private int[] otherRows = NO_ROWS;
+		private Version[] otherVersions = NO_VERSIONS;
+		private int otherCount;
+
+		private Builder(int capacity) {
+			majors = new int[capacity];
+			minors = new int[capacity];
+			patches = new int[capacity];
+		}
+
+		/* add a row, or an invalid row if the version is null */
+		private void add(Version version) {
+			int row = size++;
+			if (version == null) {
+				invalidRows.set(row);
+				return;
+			}
+			majors[row] = version.getMajor();
+			minors[row] = version.getMinor();
+			patches[row] = version.getPatch();
+			if (version.getPreReleaseIdentifiers().isEmpty() && version.getBuildIdentifiers().isEmpty()) {
+				plainRows.set(row);
+				return;
+			}
+			if (otherCount == otherRows.length) {
+				int capacity = Math.max(16, otherCount * 2);
+				otherRows = Arrays.copyOf(otherRows, capacity);
+				otherVersions = Arrays.copyOf(otherVersions, capacity);
+			}
+			otherRows[otherCount] = row;
+			otherVersions[otherCount++] = version;
+		}
+	}
+}
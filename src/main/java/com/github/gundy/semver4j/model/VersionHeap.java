@@ -0,0 +1,113 @@
+package com.github.gundy.semver4j.model;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of versions, each with its position in the input it was taken from.  In ascending
+ * order (direction 1) the least version is at the root, and of versions that compare equal, the one
+ * that came last; in descending order (direction -1) the greatest version is, and the one that came
+ * first.  So a bounded ascending heap keeps the greatest versions seen so far (dropping later duplicates
+ * first), and polling a descending heap returns versions in descending order, ties in input order.
+ */
+final class VersionHeap {
+	private final int direction;
+	private Version[] versions;
+	private int[] positions;
+	private int size;
+
+	VersionHeap(int direction, int capacity) {
+		this.direction = direction;
+		this.versions = new Version[Math.max(capacity, 1)];
+		this.positions = new int[versions.length];
+	}
+
+	int size() {
+		return size;
+	}
+
+	Version peek() {
+		return versions[0];
+	}
+
+	void add(Version version, int position) {
+		grow();
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (compare(version, position, versions[parent], positions[parent]) >= 0) {
+				break;
+			}
+			versions[i] = versions[parent];
+			positions[i] = positions[parent];
+			i = parent;
+		}
+		versions[i] = version;
+		positions[i] = position;
+	}
+
+	/* adds a version without keeping the heap in order; call heapify before using it as a heap again */
+	void append(Version version, int position) {
+		grow();
+		versions[size] = version;
+		positions[size] = position;
+		size++;
+	}
+
+	/* puts appended versions in heap order, bottom up, in O(n) (rather than the O(n log n) of adding them one by one) */
+	void heapify() {
+		for (int i = (size >>> 1) - 1; i >= 0; i--) {
+			siftDown(i, versions[i], positions[i]);
+		}
+	}
+
+	private void grow() {
+		if (size == versions.length) {
+			versions = Arrays.copyOf(versions, size * 2);
+			positions = Arrays.copyOf(positions, size * 2);
+		}
+	}
+
+	Version poll() {
+		Version root = versions[0];
+		size--;
+		Version last = versions[size];
+		int lastPosition = positions[size];
+		versions[size] = null;
+		if (size > 0) {
+			siftDown(0, last, lastPosition);
+		}
+		return root;
+	}
+
+	/* replaces the root with a version, which may belong anywhere in the heap */
+	void replaceRoot(Version version, int position) {
+		siftDown(0, version, position);
+	}
+
+	/* puts a version at index i, or below it, where it belongs in the subtree rooted there */
+	private void siftDown(int i, Version version, int position) {
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && compare(versions[child + 1], positions[child + 1], versions[child], positions[child]) < 0) {
+				child++;
+			}
+			if (compare(version, position, versions[child], positions[child]) <= 0) {
+				break;
+			}
+			versions[i] = versions[child];
+			positions[i] = positions[child];
+			i = child;
+		}
+		versions[i] = version;
+		positions[i] = position;
+	}
+
+	private int compare(Version a, int aPosition, Version b, int bPosition) {
+		int result = a.compareTo(b);
+		if (result == 0) {
+			result = aPosition < bPosition ? 1 : aPosition == bPosition ? 0 : -1;
+		}
+		return result * direction;
+	}
+}
@@ -0,0 +1,168 @@
+package com.github.gundy.semver4j.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, sorted index over a collection of versions (eg. all of the published versions of a
+ * package), for answering many range queries against the same versions.
+ *
+ * Each query lowers the compiled {@link Range} into spans of the sorted versions by binary searching
+ * its bounds, so finding the maximum or minimum satisfying version, or counting the satisfying
+ * versions, takes time logarithmic in the number of versions (for a given range) rather than
+ * testing every version.  Pre-release versions are only matched when a comparator of the range has
+ * a pre-release bound with the same major/minor/patch, exactly as {@link Range#isSatisfiedBy} does.
+ * Instances may be shared freely between threads.
+ */
+public final class VersionIndex extends SortedVersions {
+	private final Version[] versions;
+	/* releasesBefore[i] is the number of release versions in versions[0, i) */
+	private final int[] releasesBefore;
+	/* nextRelease[i] is the index of the first release version at or after i (or versions.length if there's none) */
+	private final int[] nextRelease;
+	/* previousRelease[i] is the index of the last release version at or before i (or -1 if there's none) */
+	private final int[] previousRelease;
+
+	/**
+	 * @param versions The versions to index; versions that compare equal (eg. that differ only in their
+	 *                 build identifiers) are kept in the order the collection returns them
+	 */
+	public VersionIndex(Collection<Version> versions) {
+		if (versions == null) {
+			throw new IllegalArgumentException("Versions must not be null");
+		}
+		Version[] sorted = versions.toArray(new Version[versions.size()]);
+		for (Version version : sorted) {
+			if (version == null) {
+				throw new IllegalArgumentException("Versions must not contain null");
+			}
+		}
+		/* a stable sort, so that maxSatisfying picks the same version as Version.maxVersionSatisfying */
+		Arrays.sort(sorted);
+		this.versions = sorted;
+
+		int n = sorted.length;
+		releasesBefore = new int[n + 1];
+		previousRelease = new int[n];
+		for (int i = 0; i < n; i++) {
+			boolean release = sorted[i].getPreReleaseIdentifiers().isEmpty();
+			releasesBefore[i + 1] = releasesBefore[i] + (release ? 1 : 0);
+			previousRelease[i] = release ? i : i > 0 ? previousRelease[i - 1] : -1;
+		}
+		nextRelease = new int[n + 1];
+		nextRelease[n] = n;
+		for (int i = n - 1; i >= 0; i--) {
+			nextRelease[i] = sorted[i].getPreReleaseIdentifiers().isEmpty() ? i : nextRelease[i + 1];
+		}
+	}
+
+	/**
+	 * @return the number of versions in this index
+	 */
+	@Override
+	public int size() {
+		return versions.length;
+	}
+
+	/**
+	 * @return the indexed versions, in ascending order
+	 */
+	public List<Version> getVersions() {
+		return Collections.unmodifiableList(Arrays.asList(versions));
+	}
+
+	/**
+	 * Returns the maximum version that satisfies a given range.  If several satisfying versions compare
+	 * equal, the first of them in the collection that the index was built from is returned.
+	 * @param range A compiled range
+	 * @return the maximum satisfying version, or null if no version satisfies the range
+	 */
+	public Version maxSatisfying(Range range) {
+		int max = maxSatisfyingIndex(range);
+		return max < 0 ? null : versions[max];
+	}
+
+	/**
+	 * Returns the minimum version that satisfies a given range.  If several satisfying versions compare
+	 * equal, the first of them in the collection that the index was built from is returned.
+	 * @param range A compiled range
+	 * @return the minimum satisfying version, or null if no version satisfies the range
+	 */
+	public Version minSatisfying(Range range) {
+		int min = minSatisfyingIndex(range);
+		return min < 0 ? null : versions[min];
+	}
+
+	/**
+	 * @param range A compiled range
+	 * @return the number of versions that satisfy the range
+	 */
+	public int countSatisfying(Range range) {
+		return countSatisfyingVersions(range);
+	}
+
+	/**
+	 * @param range A compiled range
+	 * @return the versions that satisfy the range, in ascending order
+	 */
+	public List<Version> allSatisfying(Range range) {
+		return allSatisfyingVersions(range);
+	}
+
+	@Override
+	Version get(int index) {
+		return versions[index];
+	}
+
+	@Override
+	int compare(int i, int j) {
+		return versions[i].compareTo(versions[j]);
+	}
+
+	@Override
+	int releasesBefore(int index) {
+		return releasesBefore[index];
+	}
+
+	@Override
+	int nextRelease(int index) {
+		return nextRelease[index];
+	}
+
+	@Override
+	int previousRelease(int index) {
+		return previousRelease[index];
+	}
+
+	@Override
+	int lowerBound(Version version) {
+		int low = 0;
+		int high = versions.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (versions[mid].compareTo(version) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	@Override
+	int upperBound(Version version) {
+		int low = 0;
+		int high = versions.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (versions[mid].compareTo(version) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
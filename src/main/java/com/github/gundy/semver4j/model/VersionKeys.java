@@ -0,0 +1,310 @@
+package com.github.gundy.semver4j.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodes versions as byte arrays whose unsigned lexicographic order is the order of {@link Version#compareTo},
+ * for use as keys in sorted stores (eg. RocksDB, or a bytea column in Postgres), so that ranges of versions
+ * can be scanned in order without decoding them.
+ *
+ * A key is the major, minor and patch numbers (as 4 byte big-endian integers), followed by the pre-release
+ * identifiers or a marker that sorts after every pre-release.  Each numeric identifier is a tag, its number
+ * of digits and its digits, and each alphanumeric identifier is a (greater) tag, its characters and a zero
+ * byte, so that keys compare identifier by identifier exactly as versions do.  Versions that compare equal
+ * have equal keys, unless they differ in leading zeros of numeric identifiers (eg. "1.2.3-01" and
+ * "1.2.3-1"), or (if they're included) in their build identifiers: then each key is followed by a suffix
+ * that tells them apart, and that only orders versions that compare equal.  So every version from
+ * {@code encode(v)} (inclusive) to {@code encode(w)} (exclusive) is in the range [v, w).
+ */
+public final class VersionKeys {
+	/* the end of a list of pre-release identifiers, and the tags of the identifiers */
+	private static final int END = 0x00;
+	private static final int NUMERIC = 0x01;
+	private static final int ALPHANUMERIC = 0x02;
+	/* in place of pre-release identifiers, sorting after them */
+	private static final int RELEASE = 0x03;
+
+	/* the suffixes that follow the part of the key that's ordered by precedence */
+	private static final int LEADING_ZEROS = 0x01;
+	private static final int BUILD = 0x02;
+
+	/* lengths and counts below this are a single byte; others are this byte and a 4 byte integer */
+	private static final int LONG_LENGTH = 0xff;
+
+	private static final Comparator<byte[]> UNSIGNED_LEXICOGRAPHIC = new Comparator<byte[]>() {
+		@Override
+		public int compare(byte[] a, byte[] b) {
+			int length = Math.min(a.length, b.length);
+			for (int i = 0; i < length; i++) {
+				int result = (a[i] & 0xff) - (b[i] & 0xff);
+				if (result != 0) {
+					return result;
+				}
+			}
+			return a.length - b.length;
+		}
+	};
+
+	private VersionKeys() {
+	}
+
+	/**
+	 * Encode a version, without its build identifiers.
+	 * @param version The version to encode
+	 * @return the key of the version
+	 */
+	public static byte[] encode(Version version) {
+		return encode(version, false);
+	}
+
+	/**
+	 * Encode a version.
+	 * @param version The version to encode
+	 * @param includeBuild Whether to append the build identifiers, so that versions that differ only in them have
+	 *                     different keys (which are adjacent, in no particular order)
+	 * @return the key of the version
+	 */
+	public static byte[] encode(Version version, boolean includeBuild) {
+		if (version == null) {
+			throw new IllegalArgumentException("Version must not be null");
+		}
+		ByteArrayOutputStream key = new ByteArrayOutputStream(16);
+		writeInt(key, version.getMajor());
+		writeInt(key, version.getMinor());
+		writeInt(key, version.getPatch());
+		List<Version.Identifier> preRelease = version.getPreReleaseIdentifiers();
+		if (preRelease.isEmpty()) {
+			key.write(RELEASE);
+		} else {
+			boolean leadingZeros = false;
+			for (Version.Identifier identifier : preRelease) {
+				String text = identifier.getIdentifier();
+				if (identifier.isNumeric()) {
+					int zeros = leadingZeros(text);
+					leadingZeros |= zeros > 0;
+					key.write(NUMERIC);
+					writeLength(key, text.length() - zeros);
+					writeAscii(key, text.substring(zeros));
+				} else {
+					key.write(ALPHANUMERIC);
+					writeAscii(key, text);
+					key.write(END);
+				}
+			}
+			key.write(END);
+			if (leadingZeros) {
+				key.write(LEADING_ZEROS);
+				for (Version.Identifier identifier : preRelease) {
+					if (identifier.isNumeric()) {
+						writeLength(key, leadingZeros(identifier.getIdentifier()));
+					}
+				}
+			}
+		}
+		if (includeBuild && !version.getBuildIdentifiers().isEmpty()) {
+			key.write(BUILD);
+			boolean first = true;
+			for (Version.Identifier identifier : version.getBuildIdentifiers()) {
+				if (!first) {
+					key.write('.');
+				}
+				writeAscii(key, identifier.getIdentifier());
+				first = false;
+			}
+		}
+		return key.toByteArray();
+	}
+
+	/**
+	 * Decode a key.
+	 * @param key A key returned by {@link #encode}
+	 * @return the version (with its build identifiers, if they were encoded)
+	 * @throws IllegalArgumentException if the bytes aren't a key
+	 */
+	public static Version decode(byte[] key) {
+		if (key == null) {
+			throw new IllegalArgumentException("Key must not be null");
+		}
+		return decode(key, 0, key.length);
+	}
+
+	/**
+	 * Decode a key from part of an array.
+	 * @param bytes The bytes containing the key
+	 * @param offset The index of the first byte of the key
+	 * @param length The number of bytes in the key
+	 * @return the version (with its build identifiers, if they were encoded)
+	 * @throws IllegalArgumentException if the bytes aren't a key
+	 * @throws IndexOutOfBoundsException if the offset and length don't describe part of the array
+	 */
+	public static Version decode(byte[] bytes, int offset, int length) {
+		if (bytes == null) {
+			throw new IllegalArgumentException("Key must not be null");
+		}
+		if (offset < 0 || length < 0 || offset > bytes.length - length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", size " + bytes.length);
+		}
+		return new Decoder(bytes, offset, offset + length).version();
+	}
+
+	/**
+	 * @return a comparator that orders byte arrays (eg. keys) as unsigned lexicographic order does
+	 */
+	public static Comparator<byte[]> comparator() {
+		return UNSIGNED_LEXICOGRAPHIC;
+	}
+
+	private static int leadingZeros(String digits) {
+		int zeros = 0;
+		while (zeros < digits.length() - 1 && digits.charAt(zeros) == '0') {
+			zeros++;
+		}
+		return zeros;
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	private static void writeLength(ByteArrayOutputStream out, int length) {
+		if (length < LONG_LENGTH) {
+			out.write(length);
+		} else {
+			out.write(LONG_LENGTH);
+			writeInt(out, length);
+		}
+	}
+
+	private static void writeAscii(ByteArrayOutputStream out, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static final class Decoder {
+		private final byte[] bytes;
+		private final int end;
+		private int pos;
+
+		private Decoder(byte[] bytes, int offset, int end) {
+			this.bytes = bytes;
+			this.pos = offset;
+			this.end = end;
+		}
+
+		private Version version() {
+			int major = readInt();
+			int minor = readInt();
+			int patch = readInt();
+			try {
+				List<Version.Identifier> preRelease = Collections.emptyList();
+				if (readByte() != RELEASE) {
+					pos--;
+					preRelease = preRelease();
+				}
+				List<Version.Identifier> build = Collections.emptyList();
+				if (pos < end) {
+					if (readByte() != BUILD || pos == end) {
+						throw invalid();
+					}
+					build = identifiers(end);
+				}
+				return new Version(major, minor, patch, preRelease, build);
+			} catch (IllegalArgumentException e) {
+				throw invalid();
+			}
+		}
+
+		private List<Version.Identifier> preRelease() {
+			/* numeric identifiers get their leading zeros back once the whole list has been read */
+			List<String> texts = new ArrayList<String>();
+			List<Integer> numeric = new ArrayList<Integer>();
+			int tag = readByte();
+			do {
+				int start;
+				if (tag == NUMERIC) {
+					int length = readLength();
+					if (length <= 0 || length > end - pos) {
+						throw invalid();
+					}
+					numeric.add(texts.size());
+					start = pos;
+					pos += length;
+				} else if (tag == ALPHANUMERIC) {
+					start = pos;
+					while (pos < end && bytes[pos] != END) {
+						pos++;
+					}
+				} else {
+					throw invalid();
+				}
+				texts.add(new AsciiBytes(bytes, start, pos - start).toString());
+				if (tag == ALPHANUMERIC) {
+					readByte();
+				}
+				tag = readByte();
+			} while (tag != END);
+			if (!numeric.isEmpty() && pos < end && bytes[pos] == LEADING_ZEROS) {
+				pos++;
+				for (int index : numeric) {
+					StringBuilder text = new StringBuilder();
+					for (int zeros = readLength(); zeros > 0; zeros--) {
+						text.append('0');
+					}
+					texts.set(index, text.append(texts.get(index)).toString());
+				}
+			}
+			List<Version.Identifier> identifiers = new ArrayList<Version.Identifier>(texts.size());
+			for (int i = 0; i < texts.size(); i++) {
+				Version.Identifier identifier = Version.Identifier.fromString(texts.get(i));
+				if (identifier.isNumeric() != numeric.contains(i)) {
+					throw invalid();
+				}
+				identifiers.add(identifier);
+			}
+			return identifiers;
+		}
+
+		/* dot separated identifiers in bytes[pos, to) */
+		private List<Version.Identifier> identifiers(int to) {
+			CharSequence text = new AsciiBytes(bytes, pos, to - pos);
+			List<Version.Identifier> identifiers = new ArrayList<Version.Identifier>(2);
+			int from = 0;
+			for (int i = 0; i <= text.length(); i++) {
+				if (i == text.length() || text.charAt(i) == '.') {
+					identifiers.add(Version.Identifier.fromCharSequence(text, from, i));
+					from = i + 1;
+				}
+			}
+			pos = to;
+			return identifiers;
+		}
+
+		private int readByte() {
+			if (pos >= end) {
+				throw invalid();
+			}
+			return bytes[pos++] & 0xff;
+		}
+
+		private int readInt() {
+			return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+		}
+
+		private int readLength() {
+			int length = readByte();
+			return length < LONG_LENGTH ? length : readInt();
+		}
+
+		private IllegalArgumentException invalid() {
+			return new IllegalArgumentException("Invalid version key");
+		}
+	}
+}
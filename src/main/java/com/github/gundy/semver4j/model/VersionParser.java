@@ -0,0 +1,249 @@
+package com.github.gundy.semver4j.model;
+
+import com.github.gundy.semver4j.metrics.Instrumentation;
+import com.github.gundy.semver4j.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single pass scanner for the version grammar given in NodeSemverVersion.g4.
+ *
+ * Accepts exactly the strings that the grammar describes (ignoring any surrounding whitespace),
+ * and produces a {@link Version} directly, without building any intermediate token stream or
+ * parse tree.  Versions can be read from part of any {@link CharSequence} (including UTF-8 bytes,
+ * through {@link AsciiBytes}) without copying it; only identifiers that aren't shared are copied.
+ */
+final class VersionParser {
+	private final CharSequence text;
+	/* the part of the text being parsed, before whitespace is trimmed */
+	private final int offset;
+	private final int limit;
+	private final int end;
+	private int pos;
+
+	private VersionParser(CharSequence text, int offset, int limit) {
+		this.text = text;
+		this.offset = offset;
+		this.limit = limit;
+		int start = offset;
+		int end = limit;
+		while (start < end && isWhitespace(text.charAt(start))) {
+			start++;
+		}
+		while (end > start && isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		this.pos = start;
+		this.end = end;
+	}
+
+	/**
+	 * Parse a version string.
+	 * @param version The version string to parse (eg. "=v1.0.3-alpha.01+build")
+	 * @return the parsed version
+	 * @throws IllegalArgumentException if the string isn't a valid version
+	 */
+	static Version parse(String version) {
+		if (version == null) {
+			throw new IllegalArgumentException("Version must not be null");
+		}
+		return new VersionParser(version, 0, version.length()).parse();
+	}
+
+	/**
+	 * Parse a version string, without throwing an exception if it isn't valid.
+	 * @param version The version string to parse (eg. "=v1.0.3-alpha.01+build")
+	 * @return the parsed version, or what's wrong with the string
+	 */
+	static ParseResult<Version> tryParse(String version) {
+		if (version == null) {
+			return ParseResult.failure(ParseResult.ErrorKind.NULL_INPUT, "Version must not be null", 0, "version", null);
+		}
+		VersionParser parser = new VersionParser(version, 0, version.length());
+		try {
+			return ParseResult.success(parser.reportedVersion());
+		} catch (SyntaxError e) {
+			return parser.failure(e);
+		}
+	}
+
+	/* parse a version that's part of a range expression; the range is reported to the instrumentation instead */
+	static Version parseBound(String version) {
+		VersionParser parser = new VersionParser(version, 0, version.length());
+		try {
+			return parser.fullySpecifiedVersion();
+		} catch (SyntaxError e) {
+			throw parser.exception(e);
+		}
+	}
+
+	/**
+	 * Parse a version from part of a sequence of characters, without copying it.
+	 * @param text The text containing the version
+	 * @param offset The index of the first character of the version
+	 * @param length The number of characters in the version
+	 * @return the parsed version
+	 * @throws IllegalArgumentException if the characters aren't a valid version
+	 * @throws IndexOutOfBoundsException if the offset and length don't describe part of the text
+	 */
+	static Version parse(CharSequence text, int offset, int length) {
+		if (text == null) {
+			throw new IllegalArgumentException("Version must not be null");
+		}
+		if (offset < 0 || length < 0 || offset > text.length() - length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", text length " + text.length());
+		}
+		return new VersionParser(text, offset, offset + length).parse();
+	}
+
+	private Version parse() {
+		try {
+			return reportedVersion();
+		} catch (SyntaxError e) {
+			throw exception(e);
+		}
+	}
+
+	private Version reportedVersion() {
+		Instrumentation instrumentation = Metrics.getInstrumentation();
+		if (instrumentation == null) {
+			return fullySpecifiedVersion();
+		}
+		long start = System.nanoTime();
+		Version version;
+		try {
+			version = fullySpecifiedVersion();
+		} catch (SyntaxError e) {
+			instrumentation.versionParseFailed(System.nanoTime() - start);
+			throw e;
+		}
+		instrumentation.versionParsed(System.nanoTime() - start);
+		return version;
+	}
+
+	private <T> ParseResult<T> failure(SyntaxError e) {
+		return e.toResult("version", text.subSequence(offset, limit));
+	}
+
+	private IllegalArgumentException exception(SyntaxError e) {
+		return new IllegalArgumentException(failure(e).getErrorMessage());
+	}
+
+	/*
+	 * fullySpecifiedVersion
+	 *   : EQ? ('V'|'v')? major=integer (
+	 *       PERIOD minor=integer (
+	 *         PERIOD patch=integer (HYPHEN? preReleaseIdentifiers=identifiers)? (PLUS buildIdentifiers=identifiers)?
+	 *       )?
+	 *     )? EOF
+	 */
+	private Version fullySpecifiedVersion() {
+		accept('=');
+		if (!accept('v')) {
+			accept('V');
+		}
+		int major = integer();
+		int minor = 0;
+		int patch = 0;
+		List<Version.Identifier> preReleaseIdentifiers = Collections.emptyList();
+		List<Version.Identifier> buildIdentifiers = Collections.emptyList();
+		if (accept('.')) {
+			minor = integer();
+			if (accept('.')) {
+				int patchEnd = integerEnd();
+				if (patchEnd < end && text.charAt(patchEnd) == '.' && patchEnd - pos > 1) {
+					/* the pre-release may follow the patch version without a hyphen, so "1.2.34.5" is 1.2.3-4.5 */
+					patchEnd--;
+				}
+				patch = integer(patchEnd);
+				if (pos < end && text.charAt(pos) != '+') {
+					/* the hyphen is optional, and may itself start an identifier (eg. "1.2.3-" or "1.2.3-+build") */
+					if (text.charAt(pos) == '-' && pos + 1 < end && isIdentifierChar(text.charAt(pos + 1))) {
+						pos++;
+					}
+					preReleaseIdentifiers = identifiers();
+				}
+				if (accept('+')) {
+					buildIdentifiers = identifiers();
+				}
+			}
+		}
+		if (pos != end) {
+			throw error(ParseResult.ErrorKind.UNEXPECTED_CHARACTER, "Unexpected character");
+		}
+		return new Version(major, minor, patch, preReleaseIdentifiers, buildIdentifiers);
+	}
+
+	/* identifiers: identifier (PERIOD identifier)* */
+	private List<Version.Identifier> identifiers() {
+		List<Version.Identifier> identifiers = new ArrayList<Version.Identifier>(2);
+		do {
+			int start = pos;
+			while (pos < end && isIdentifierChar(text.charAt(pos))) {
+				pos++;
+			}
+			if (start == pos) {
+				throw error(ParseResult.ErrorKind.EXPECTED_IDENTIFIER, "Expected identifier");
+			}
+			identifiers.add(Version.Identifier.fromCharSequence(text, start, pos));
+		} while (accept('.'));
+		/* the version keeps a compact copy */
+		return identifiers;
+	}
+
+	private int integer() {
+		return integer(integerEnd());
+	}
+
+	/* integer: ZERO | NON_ZERO_DIGITS (ZERO | NON_ZERO_DIGITS)* */
+	private int integerEnd() {
+		if (pos >= end || !isDigit(text.charAt(pos))) {
+			throw error(ParseResult.ErrorKind.EXPECTED_NUMBER, "Expected number");
+		}
+		int integerEnd = pos + 1;
+		if (text.charAt(pos) != '0') {
+			while (integerEnd < end && isDigit(text.charAt(integerEnd))) {
+				integerEnd++;
+			}
+		}
+		return integerEnd;
+	}
+
+	private int integer(int integerEnd) {
+		long value = 0;
+		while (pos < integerEnd) {
+			value = value * 10 + (text.charAt(pos) - '0');
+			if (value > Integer.MAX_VALUE) {
+				throw error(ParseResult.ErrorKind.NUMBER_TOO_LARGE, "Number too large");
+			}
+			pos++;
+		}
+		return (int) value;
+	}
+
+	private boolean accept(char c) {
+		if (pos < end && text.charAt(pos) == c) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	private SyntaxError error(ParseResult.ErrorKind kind, String message) {
+		return new SyntaxError(kind, message, pos - offset);
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isIdentifierChar(char c) {
+		return c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '-';
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t';
+	}
+}
@@ -0,0 +1,288 @@
+package com.github.gundy.semver4j.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The set of versions that satisfy a {@link Range}, in a form that can be intersected and compared
+ * without enumerating versions.
+ *
+ * The set is held as two unions of intervals: every version in {@code all}, plus the release versions
+ * in {@code releases}.  This is enough to express the pre-release rule of ranges, since the pre-releases
+ * of a major/minor/patch tuple x.y.z are exactly the versions in [x.y.z-0, x.y.z).  Versions that
+ * differ only in their build identifiers are treated as the same version.
+ */
+final class VersionSet {
+	private static final List<Version.Identifier> NO_IDENTIFIERS = Collections.emptyList();
+	private static final List<Version.Identifier> ZERO = Collections.singletonList(Version.Identifier.fromString("0"));
+
+	/* the smallest version there is */
+	private static final Version MIN_VERSION = new Version(0, 0, 0, ZERO, NO_IDENTIFIERS);
+
+	private static final Comparator<Range.Interval> BY_LOWER_BOUND = new Comparator<Range.Interval>() {
+		@Override
+		public int compare(Range.Interval a, Range.Interval b) {
+			if (a.getLower() == null || b.getLower() == null) {
+				return a.getLower() == null ? (b.getLower() == null ? 0 : -1) : 1;
+			}
+			int result = a.getLower().compareTo(b.getLower());
+			if (result != 0 || a.isLowerInclusive() == b.isLowerInclusive()) {
+				return result;
+			}
+			return a.isLowerInclusive() ? -1 : 1;
+		}
+	};
+
+	private final List<Range.Interval> all;
+	private final List<Range.Interval> releases;
+
+	private VersionSet(List<Range.Interval> all, List<Range.Interval> releases) {
+		this.all = all;
+		this.releases = releases;
+	}
+
+	static VersionSet of(Range range) {
+		List<Range.Interval> all = new ArrayList<Range.Interval>();
+		List<Range.Interval> releases = new ArrayList<Range.Interval>();
+		for (Range.Constraint[] alternative : range.getAlternatives()) {
+			List<Range.Interval> bounds = Collections.singletonList(Range.Interval.ALL);
+			/* the tuples whose pre-releases every constraint allows, or null if they all allow any */
+			List<Version> tuples = null;
+			for (Range.Constraint constraint : alternative) {
+				List<Range.Interval> intervals = new ArrayList<Range.Interval>(Arrays.asList(constraint.getIntervals()));
+				if (constraint.getExact() != null) {
+					intervals.add(new Range.Interval(constraint.getExact(), true, constraint.getExact(), true));
+				}
+				bounds = intersect(bounds, normalize(intervals));
+				if (!constraint.isPreReleasesUnrestricted()) {
+					tuples = retainTuples(tuples, constraint.getPreReleaseTuples());
+				}
+			}
+			if (tuples == null) {
+				all.addAll(bounds);
+			} else {
+				releases.addAll(bounds);
+				List<Range.Interval> preReleases = new ArrayList<Range.Interval>();
+				for (Version tuple : tuples) {
+					preReleases.add(new Range.Interval(
+						new Version(tuple.getMajor(), tuple.getMinor(), tuple.getPatch(), ZERO, NO_IDENTIFIERS), true,
+						new Version(tuple.getMajor(), tuple.getMinor(), tuple.getPatch(), NO_IDENTIFIERS, NO_IDENTIFIERS), false
+					));
+				}
+				all.addAll(intersect(bounds, normalize(preReleases)));
+			}
+		}
+		return new VersionSet(normalize(all), normalize(releases));
+	}
+
+	VersionSet intersect(VersionSet other) {
+		List<Range.Interval> releases = new ArrayList<Range.Interval>();
+		releases.addAll(intersect(all, other.releases));
+		releases.addAll(intersect(this.releases, other.all));
+		releases.addAll(intersect(this.releases, other.releases));
+		return new VersionSet(intersect(all, other.all), normalize(releases));
+	}
+
+	boolean isEmpty() {
+		for (Range.Interval interval : all) {
+			if (containsVersion(interval)) {
+				return false;
+			}
+		}
+		for (Range.Interval interval : releases) {
+			if (containsRelease(interval)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	boolean isSubsetOf(VersionSet other) {
+		List<Range.Interval> outsideAll = complement(other.all);
+		/* no version of this set may be outside the other's intervals altogether */
+		List<Range.Interval> union = new ArrayList<Range.Interval>(all);
+		union.addAll(releases);
+		for (Range.Interval interval : intersect(intersect(normalize(union), outsideAll), complement(other.releases))) {
+			if (containsRelease(interval)) {
+				return false;
+			}
+		}
+		/* and pre-releases are only in the other set if they're in its intervals of all versions */
+		for (Range.Interval interval : intersect(all, outsideAll)) {
+			if (containsPreRelease(interval)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static List<Version> retainTuples(List<Version> tuples, Version[] allowed) {
+		if (tuples == null) {
+			return new ArrayList<Version>(Arrays.asList(allowed));
+		}
+		List<Version> retained = new ArrayList<Version>();
+		for (Version tuple : tuples) {
+			for (Version other : allowed) {
+				if (Range.majorMinorPatchMatch(tuple, other)) {
+					retained.add(tuple);
+					break;
+				}
+			}
+		}
+		return retained;
+	}
+
+	/* sorts intervals, drops empty ones and merges those that overlap or touch */
+	private static List<Range.Interval> normalize(List<Range.Interval> intervals) {
+		List<Range.Interval> sorted = new ArrayList<Range.Interval>();
+		for (Range.Interval interval : intervals) {
+			if (containsVersion(interval)) {
+				sorted.add(interval);
+			}
+		}
+		Collections.sort(sorted, BY_LOWER_BOUND);
+		List<Range.Interval> merged = new ArrayList<Range.Interval>();
+		Range.Interval current = null;
+		for (Range.Interval interval : sorted) {
+			if (current == null) {
+				current = interval;
+			} else if (overlapsOrTouches(current, interval)) {
+				if (compareUpper(interval, current) > 0) {
+					current = new Range.Interval(current.getLower(), current.isLowerInclusive(), interval.getUpper(), interval.isUpperInclusive());
+				}
+			} else {
+				merged.add(current);
+				current = interval;
+			}
+		}
+		if (current != null) {
+			merged.add(current);
+		}
+		return merged;
+	}
+
+	/* whether an interval that starts no earlier than the current one can be merged into it */
+	private static boolean overlapsOrTouches(Range.Interval current, Range.Interval next) {
+		if (current.getUpper() == null || next.getLower() == null) {
+			return true;
+		}
+		int result = current.getUpper().compareTo(next.getLower());
+		return result > 0 || result == 0 && (current.isUpperInclusive() || next.isLowerInclusive());
+	}
+
+	private static int compareUpper(Range.Interval a, Range.Interval b) {
+		if (a.getUpper() == null || b.getUpper() == null) {
+			return a.getUpper() == null ? (b.getUpper() == null ? 0 : 1) : -1;
+		}
+		int result = a.getUpper().compareTo(b.getUpper());
+		if (result != 0 || a.isUpperInclusive() == b.isUpperInclusive()) {
+			return result;
+		}
+		return a.isUpperInclusive() ? 1 : -1;
+	}
+
+	private static List<Range.Interval> intersect(List<Range.Interval> left, List<Range.Interval> right) {
+		List<Range.Interval> intersection = new ArrayList<Range.Interval>();
+		for (Range.Interval l : left) {
+			for (Range.Interval r : right) {
+				Range.Interval lower = BY_LOWER_BOUND.compare(l, r) >= 0 ? l : r;
+				Range.Interval upper = compareUpper(l, r) <= 0 ? l : r;
+				intersection.add(new Range.Interval(lower.getLower(), lower.isLowerInclusive(), upper.getUpper(), upper.isUpperInclusive()));
+			}
+		}
+		return normalize(intersection);
+	}
+
+	/* the complement of normalized intervals */
+	private static List<Range.Interval> complement(List<Range.Interval> intervals) {
+		List<Range.Interval> complement = new ArrayList<Range.Interval>();
+		Version lower = null;
+		boolean lowerInclusive = false;
+		boolean unbounded = true;
+		for (Range.Interval interval : intervals) {
+			if (interval.getLower() != null) {
+				complement.add(new Range.Interval(lower, lowerInclusive, interval.getLower(), !interval.isLowerInclusive()));
+			}
+			if (interval.getUpper() == null) {
+				unbounded = false;
+				break;
+			}
+			lower = interval.getUpper();
+			lowerInclusive = !interval.isUpperInclusive();
+		}
+		if (unbounded) {
+			complement.add(new Range.Interval(lower, lowerInclusive, null, false));
+		}
+		return normalize(complement);
+	}
+
+	private static boolean containsVersion(Range.Interval interval) {
+		Version lower = interval.getLower();
+		Version first = lower == null ? MIN_VERSION : interval.isLowerInclusive() ? lower : nextPreRelease(lower);
+		return isWithinUpperBound(first, interval);
+	}
+
+	private static boolean containsRelease(Range.Interval interval) {
+		Version lower = interval.getLower();
+		Version first;
+		if (lower == null) {
+			first = new Version(0, 0, 0, NO_IDENTIFIERS, NO_IDENTIFIERS);
+		} else if (!lower.getPreReleaseIdentifiers().isEmpty()) {
+			first = new Version(lower.getMajor(), lower.getMinor(), lower.getPatch(), NO_IDENTIFIERS, NO_IDENTIFIERS);
+		} else {
+			first = interval.isLowerInclusive() ? lower : nextTuple(lower, NO_IDENTIFIERS);
+		}
+		return isWithinUpperBound(first, interval);
+	}
+
+	private static boolean containsPreRelease(Range.Interval interval) {
+		Version lower = interval.getLower();
+		Version first;
+		if (lower == null) {
+			first = MIN_VERSION;
+		} else if (lower.getPreReleaseIdentifiers().isEmpty() || !interval.isLowerInclusive()) {
+			first = nextPreRelease(lower);
+		} else {
+			first = lower;
+		}
+		return isWithinUpperBound(first, interval);
+	}
+
+	private static boolean isWithinUpperBound(Version version, Range.Interval interval) {
+		if (version == null) {
+			return false;
+		} else if (interval.getUpper() == null) {
+			return true;
+		}
+		int result = version.compareTo(interval.getUpper());
+		return result < 0 || result == 0 && interval.isUpperInclusive();
+	}
+
+	/*
+	 * the smallest pre-release that's greater than the given version: x.y.z-p.0 follows x.y.z-p, and
+	 * x.y.(z+1)-0 follows x.y.z; null if there's none
+	 */
+	private static Version nextPreRelease(Version version) {
+		if (version.getPreReleaseIdentifiers().isEmpty()) {
+			return nextTuple(version, ZERO);
+		}
+		List<Version.Identifier> preRelease = new ArrayList<Version.Identifier>(version.getPreReleaseIdentifiers());
+		preRelease.add(ZERO.get(0));
+		return new Version(version.getMajor(), version.getMinor(), version.getPatch(), preRelease, NO_IDENTIFIERS);
+	}
+
+	/* the first major/minor/patch tuple after that of the given version, with the given pre-release; null if there's none */
+	private static Version nextTuple(Version version, List<Version.Identifier> preRelease) {
+		if (version.getPatch() < Integer.MAX_VALUE) {
+			return new Version(version.getMajor(), version.getMinor(), version.getPatch() + 1, preRelease, NO_IDENTIFIERS);
+		} else if (version.getMinor() < Integer.MAX_VALUE) {
+			return new Version(version.getMajor(), version.getMinor() + 1, 0, preRelease, NO_IDENTIFIERS);
+		} else if (version.getMajor() < Integer.MAX_VALUE) {
+			return new Version(version.getMajor() + 1, 0, 0, preRelease, NO_IDENTIFIERS);
+		}
+		return null;
+	}
+}
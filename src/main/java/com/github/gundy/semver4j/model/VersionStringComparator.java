@@ -0,0 +1,248 @@
+package com.github.gundy.semver4j.model;
+
+import java.util.Comparator;
+
+/**
+ * Orders version strings as the versions they describe would be ordered by {@link Version#compareTo},
+ * by scanning the two strings side by side, without parsing either of them into a {@link Version}.
+ *
+ * Each string is scanned only as far as it takes to tell them apart (usually no further than the
+ * major version), and nothing is allocated.  So an invalid string isn't always noticed: it's only
+ * rejected (with the exception that {@link Version#fromString} would throw) if the part that makes it
+ * invalid has to be scanned to order it.  Build identifiers are never scanned.
+ */
+final class VersionStringComparator implements Comparator<CharSequence> {
+	static final VersionStringComparator INSTANCE = new VersionStringComparator();
+
+	/* stands in for a minor or patch version that's left out, as in "1" or "1.2" */
+	private static final String ZERO = "0";
+	private static final String MAX_NUMBER = String.valueOf(Integer.MAX_VALUE);
+
+	private VersionStringComparator() {
+	}
+
+	@Override
+	public int compare(CharSequence a, CharSequence b) {
+		if (a == null || b == null) {
+			throw new IllegalArgumentException("Version must not be null");
+		}
+		int aEnd = trimmedEnd(a);
+		int bEnd = trimmedEnd(b);
+		int aPos = majorStart(a, aEnd);
+		int bPos = majorStart(b, bEnd);
+
+		/* major and minor versions, which are followed by a period, or by nothing at all */
+		for (int i = 0; i < 2; i++) {
+			int aNumberEnd = checkSize(a, aPos, numberEnd(a, aPos, aEnd));
+			int bNumberEnd = checkSize(b, bPos, numberEnd(b, bPos, bEnd));
+			int result = compareNumbers(a, aPos, aNumberEnd, b, bPos, bNumberEnd);
+			if (result != 0) {
+				return result;
+			}
+			aPos = nextNumber(a, aNumberEnd, aEnd);
+			bPos = nextNumber(b, bNumberEnd, bEnd);
+		}
+
+		int aPatchEnd = patchEnd(a, aPos, aEnd);
+		int bPatchEnd = patchEnd(b, bPos, bEnd);
+		int result = compareNumbers(a, aPos, aPatchEnd, b, bPos, bPatchEnd);
+		if (result != 0) {
+			return result;
+		}
+		boolean aRelease = aPatchEnd == aEnd || a.charAt(aPatchEnd) == '+';
+		boolean bRelease = bPatchEnd == bEnd || b.charAt(bPatchEnd) == '+';
+		if (aRelease || bRelease) {
+			return aRelease == bRelease ? 0 : aRelease ? 1 : -1;
+		}
+		return comparePreReleases(a, preReleaseStart(a, aPatchEnd, aEnd), aEnd, b, preReleaseStart(b, bPatchEnd, bEnd), bEnd);
+	}
+
+	private static int comparePreReleases(CharSequence a, int aPos, int aEnd, CharSequence b, int bPos, int bEnd) {
+		while (true) {
+			int aIdentifierEnd = identifierEnd(a, aPos, aEnd);
+			int bIdentifierEnd = identifierEnd(b, bPos, bEnd);
+			int result = compareIdentifiers(a, aPos, aIdentifierEnd, b, bPos, bIdentifierEnd);
+			if (result != 0) {
+				return result;
+			}
+			boolean aMore = hasMoreIdentifiers(a, aIdentifierEnd, aEnd);
+			boolean bMore = hasMoreIdentifiers(b, bIdentifierEnd, bEnd);
+			if (!aMore || !bMore) {
+				return aMore == bMore ? 0 : aMore ? 1 : -1;
+			}
+			aPos = aIdentifierEnd + 1;
+			bPos = bIdentifierEnd + 1;
+		}
+	}
+
+	private static int compareIdentifiers(CharSequence a, int aStart, int aEnd, CharSequence b, int bStart, int bEnd) {
+		boolean aNumeric = isNumeric(a, aStart, aEnd);
+		boolean bNumeric = isNumeric(b, bStart, bEnd);
+		if (aNumeric != bNumeric) {
+			return aNumeric ? -1 : 1;
+		} else if (aNumeric) {
+			/* numeric identifiers may have leading zeros, which don't change their value */
+			while (aStart < aEnd - 1 && a.charAt(aStart) == '0') {
+				aStart++;
+			}
+			while (bStart < bEnd - 1 && b.charAt(bStart) == '0') {
+				bStart++;
+			}
+			return compareNumbers(a, aStart, aEnd, b, bStart, bEnd);
+		}
+		int length = Math.min(aEnd - aStart, bEnd - bStart);
+		for (int i = 0; i < length; i++) {
+			char aChar = a.charAt(aStart + i);
+			char bChar = b.charAt(bStart + i);
+			if (aChar != bChar) {
+				return aChar - bChar;
+			}
+		}
+		return (aEnd - aStart) - (bEnd - bStart);
+	}
+
+	/* compares numbers without leading zeros by their digits; an empty number is zero */
+	private static int compareNumbers(CharSequence a, int aStart, int aEnd, CharSequence b, int bStart, int bEnd) {
+		if (aStart == aEnd) {
+			return compareNumbers(ZERO, 0, 1, b, bStart, bEnd);
+		} else if (bStart == bEnd) {
+			return compareNumbers(a, aStart, aEnd, ZERO, 0, 1);
+		} else if (aEnd - aStart != bEnd - bStart) {
+			return aEnd - aStart < bEnd - bStart ? -1 : 1;
+		}
+		for (int i = 0; i < aEnd - aStart; i++) {
+			char aChar = a.charAt(aStart + i);
+			char bChar = b.charAt(bStart + i);
+			if (aChar != bChar) {
+				return aChar < bChar ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+
+	private static int trimmedEnd(CharSequence text) {
+		int end = text.length();
+		while (end > 0 && isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		return end;
+	}
+
+	/* skips leading whitespace, and the optional "=" and "v" */
+	private static int majorStart(CharSequence text, int end) {
+		int pos = 0;
+		while (pos < end && isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+		if (pos < end && text.charAt(pos) == '=') {
+			pos++;
+		}
+		if (pos < end && (text.charAt(pos) == 'v' || text.charAt(pos) == 'V')) {
+			pos++;
+		}
+		if (pos == end || !isDigit(text.charAt(pos))) {
+			throw invalid(text);
+		}
+		return pos;
+	}
+
+	/* the end of the number at pos, which is a single digit if it starts with a zero */
+	private static int numberEnd(CharSequence text, int pos, int end) {
+		if (pos == end) {
+			/* a minor or patch version that's left out */
+			return pos;
+		}
+		int numberEnd = pos + 1;
+		if (text.charAt(pos) != '0') {
+			while (numberEnd < end && isDigit(text.charAt(numberEnd))) {
+				numberEnd++;
+			}
+		}
+		return numberEnd;
+	}
+
+	private static int checkSize(CharSequence text, int pos, int numberEnd) {
+		if (compareNumbers(text, pos, numberEnd, MAX_NUMBER, 0, MAX_NUMBER.length()) > 0) {
+			throw invalid(text);
+		}
+		return numberEnd;
+	}
+
+	/* the start of the number after a major or minor version, or the end of the text if there isn't one */
+	private static int nextNumber(CharSequence text, int numberEnd, int end) {
+		if (numberEnd == end) {
+			return end;
+		} else if (text.charAt(numberEnd) != '.' || numberEnd + 1 == end || !isDigit(text.charAt(numberEnd + 1))) {
+			throw invalid(text);
+		}
+		return numberEnd + 1;
+	}
+
+	private static int patchEnd(CharSequence text, int pos, int end) {
+		int patchEnd = numberEnd(text, pos, end);
+		if (patchEnd < end && text.charAt(patchEnd) == '.' && patchEnd - pos > 1) {
+			/* the pre-release may follow the patch version without a hyphen, so "1.2.34.5" is 1.2.3-4.5 */
+			patchEnd--;
+		}
+		return checkSize(text, pos, patchEnd);
+	}
+
+	/* the hyphen is optional, and may itself start an identifier (eg. "1.2.3-" or "1.2.3-+build") */
+	private static int preReleaseStart(CharSequence text, int patchEnd, int end) {
+		if (text.charAt(patchEnd) == '-' && patchEnd + 1 < end && isIdentifierChar(text.charAt(patchEnd + 1))) {
+			return patchEnd + 1;
+		}
+		return patchEnd;
+	}
+
+	private static int identifierEnd(CharSequence text, int pos, int end) {
+		int identifierEnd = pos;
+		while (identifierEnd < end && isIdentifierChar(text.charAt(identifierEnd))) {
+			identifierEnd++;
+		}
+		if (identifierEnd == pos) {
+			throw invalid(text);
+		}
+		return identifierEnd;
+	}
+
+	private static boolean hasMoreIdentifiers(CharSequence text, int identifierEnd, int end) {
+		if (identifierEnd == end || text.charAt(identifierEnd) == '+') {
+			return false;
+		} else if (text.charAt(identifierEnd) != '.') {
+			throw invalid(text);
+		}
+		return true;
+	}
+
+	private static boolean isNumeric(CharSequence text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (!isDigit(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* rejects the text with the same message as parsing it would */
+	private static IllegalArgumentException invalid(CharSequence text) {
+		try {
+			VersionParser.parse(text, 0, text.length());
+		} catch (IllegalArgumentException e) {
+			return e;
+		}
+		return new IllegalArgumentException("Invalid version \"" + text + "\"");
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isIdentifierChar(char c) {
+		return c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '-';
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t';
+	}
+}
@@ -0,0 +1,60 @@
+package com.github.gundy.semver4j.resolver;
+
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link PackageCatalog} held in memory, built up one version at a time.  It must not be changed while
+ * it's being resolved against.
+ */
+public final class InMemoryPackageCatalog implements PackageCatalog {
+	private final Map<String, List<Version>> versions = new HashMap<String, List<Version>>();
+	private final Map<String, Map<Version, Map<String, Range>>> dependencies = new HashMap<String, Map<Version, Map<String, Range>>>();
+
+	/**
+	 * Add a version of a package, replacing any equal version that's already been added.
+	 * @param name The name of the package
+	 * @param version The version
+	 * @param dependencies The ranges of versions of other packages that the version depends on, by package name
+	 * @return this catalog
+	 */
+	public InMemoryPackageCatalog addVersion(String name, Version version, Map<String, Range> dependencies) {
+		if (name == null || version == null || dependencies == null) {
+			throw new IllegalArgumentException("Name, version and dependencies must not be null");
+		}
+		Map<Version, Map<String, Range>> byVersion = this.dependencies.get(name);
+		if (byVersion == null) {
+			byVersion = new HashMap<Version, Map<String, Range>>();
+			this.dependencies.put(name, byVersion);
+			versions.put(name, new ArrayList<Version>());
+		}
+		if (byVersion.put(version, Collections.unmodifiableMap(new LinkedHashMap<String, Range>(dependencies))) == null) {
+			versions.get(name).add(version);
+		}
+		return this;
+	}
+
+	@Override
+	public Collection<Version> getVersions(String name) {
+		List<Version> available = versions.get(name);
+		return available != null ? Collections.unmodifiableList(available) : Collections.<Version>emptyList();
+	}
+
+	@Override
+	public Map<String, Range> getDependencies(String name, Version version) {
+		Map<Version, Map<String, Range>> byVersion = dependencies.get(name);
+		Map<String, Range> result = byVersion != null ? byVersion.get(version) : null;
+		if (result == null) {
+			throw new IllegalArgumentException("No version " + version + " of package " + name);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,27 @@
+package com.github.gundy.semver4j.resolver;
+
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The packages that a {@link Resolver} chooses versions from: the available versions of each package,
+ * and the dependencies of each version.
+ */
+public interface PackageCatalog {
+
+	/**
+	 * @param name The name of a package
+	 * @return the available versions of the package, in any order (empty if there's no such package)
+	 */
+	Collection<Version> getVersions(String name);
+
+	/**
+	 * @param name The name of a package
+	 * @param version One of the available versions of the package
+	 * @return the ranges of versions of other packages that the version depends on, by package name
+	 */
+	Map<String, Range> getDependencies(String name, Version version);
+}
@@ -0,0 +1,109 @@
+package com.github.gundy.semver4j.resolver;
+
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of {@link Resolver#resolve}: either a version of every package that's needed, or the
+ * package whose requirements couldn't all be met, and the requirements that conflicted.
+ */
+public final class Resolution {
+
+	/**
+	 * A range of versions of a package that's required by the root requirements, or by a version of
+	 * another package.
+	 */
+	public static final class Requirement {
+		private final String requiredBy;
+		private final Version requiredByVersion;
+		private final Range range;
+
+		Requirement(String requiredBy, Version requiredByVersion, Range range) {
+			this.requiredBy = requiredBy;
+			this.requiredByVersion = requiredByVersion;
+			this.range = range;
+		}
+
+		/**
+		 * @return the name of the package that requires the range, or null for a root requirement
+		 */
+		public String getRequiredBy() {
+			return requiredBy;
+		}
+
+		/**
+		 * @return the version of the package that requires the range, or null for a root requirement
+		 */
+		public Version getRequiredByVersion() {
+			return requiredByVersion;
+		}
+
+		public Range getRange() {
+			return range;
+		}
+
+		@Override
+		public String toString() {
+			return range + (requiredBy == null ? " (root)" : " (" + requiredBy + " " + requiredByVersion + ")");
+		}
+	}
+
+	private final Map<String, Version> versions;
+	private final String conflictingPackage;
+	private final List<Requirement> conflictingRequirements;
+
+	private Resolution(Map<String, Version> versions, String conflictingPackage, List<Requirement> conflictingRequirements) {
+		this.versions = versions;
+		this.conflictingPackage = conflictingPackage;
+		this.conflictingRequirements = conflictingRequirements;
+	}
+
+	static Resolution resolved(Map<String, Version> versions) {
+		return new Resolution(versions, null, null);
+	}
+
+	static Resolution conflict(String conflictingPackage, List<Requirement> conflictingRequirements) {
+		return new Resolution(null, conflictingPackage, conflictingRequirements);
+	}
+
+	/**
+	 * @return true if a version of every package that's needed was chosen
+	 */
+	public boolean isResolved() {
+		return versions != null;
+	}
+
+	/**
+	 * @return the chosen version of each package that's needed, by package name, or null if the requirements
+	 *         couldn't be met
+	 */
+	public Map<String, Version> getVersions() {
+		return versions;
+	}
+
+	/**
+	 * @return the package that no version could be chosen for (the last one found, if there were several), or
+	 *         null if the requirements were met
+	 */
+	public String getConflictingPackage() {
+		return conflictingPackage;
+	}
+
+	/**
+	 * @return the requirements on the conflicting package that no available version meets all of, or null if
+	 *         the requirements were met
+	 */
+	public List<Requirement> getConflictingRequirements() {
+		return conflictingRequirements;
+	}
+
+	@Override
+	public String toString() {
+		return isResolved()
+			? "Resolution{versions=" + versions + "}"
+			: "Resolution{conflict=" + conflictingPackage + " " + conflictingRequirements + "}";
+	}
+}
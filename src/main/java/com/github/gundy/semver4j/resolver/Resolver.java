@@ -0,0 +1,305 @@
+package com.github.gundy.semver4j.resolver;
+
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+import com.github.gundy.semver4j.model.VersionIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Chooses a version of every package that's needed to meet a set of requirements, and of every package
+ * that the chosen versions depend on, preferring the greatest versions.
+ *
+ * The search is depth first, choosing a version of one package at a time (the greatest one that's left
+ * to try) and backtracking when a choice leaves some package without a version that meets all of its
+ * requirements.  The available versions of each package are sorted once, in a {@link VersionIndex}, and
+ * shared by every resolution; each package's requirements are intersected as they're added, by narrowing
+ * its list of candidate versions, so that conflicts are found as soon as they arise rather than when the
+ * package is reached.  Backtracking jumps straight back to the latest choice that took part in the
+ * conflict, rather than retrying unrelated choices, and the sets of choices that have been found to lead
+ * nowhere are remembered, so that reaching the same choices by another route fails at once.  The search
+ * uses no recursion, so graphs of tens of thousands of packages don't overflow the stack.
+ *
+ * Instances may be shared between threads, if the catalog may be.
+ */
+public final class Resolver {
+	private final PackageCatalog catalog;
+	/* the available versions of each package, sorted once and shared by every resolution */
+	private final ConcurrentMap<String, VersionIndex> indexes = new ConcurrentHashMap<String, VersionIndex>();
+	private final Function<String, VersionIndex> indexer = new Function<String, VersionIndex>() {
+		@Override
+		public VersionIndex apply(String name) {
+			return new VersionIndex(catalog.getVersions(name));
+		}
+	};
+
+	public Resolver(PackageCatalog catalog) {
+		if (catalog == null) {
+			throw new IllegalArgumentException("Catalog must not be null");
+		}
+		this.catalog = catalog;
+	}
+
+	/**
+	 * Choose versions that meet a set of requirements.
+	 * @param requirements The range of versions of each package that's needed, by package name
+	 * @return the chosen versions, or the requirements that conflict
+	 */
+	public Resolution resolve(Map<String, Range> requirements) {
+		if (requirements == null) {
+			throw new IllegalArgumentException("Requirements must not be null");
+		}
+		return new Search().run(requirements);
+	}
+
+	/* the requirements on a package, and the version chosen for it, during a search */
+	private static final class PackageState {
+		private final String name;
+		private final List<Resolution.Requirement> requirements = new ArrayList<Resolution.Requirement>();
+		/* after each requirement was added, the versions that meet all of the requirements so far, greatest first */
+		private final List<Version[]> candidates = new ArrayList<Version[]>();
+		private Version chosen;
+		private Decision decision;
+
+		private PackageState(String name) {
+			this.name = name;
+		}
+	}
+
+	/* a package that a version is being chosen for, and the versions that are left to try */
+	private static final class Decision {
+		private final PackageState state;
+		private final Version[] candidates;
+		private final int depth;
+		private final int trailSize;
+		/* the earlier decisions that the versions tried so far conflicted with, by depth */
+		private final BitSet conflicts = new BitSet();
+		private int next;
+
+		private Decision(PackageState state, Version[] candidates, int depth, int trailSize) {
+			this.state = state;
+			this.candidates = candidates;
+			this.depth = depth;
+			this.trailSize = trailSize;
+		}
+	}
+
+	private final class Search {
+		private final Map<String, PackageState> packages = new HashMap<String, PackageState>();
+		/* packages that are required but have no version chosen yet, roughly in the order they were required */
+		private final Set<PackageState> open = new LinkedHashSet<PackageState>();
+		/* the package that each requirement was added to, in order, so that requirements can be taken back */
+		private final List<PackageState> trail = new ArrayList<PackageState>();
+		private final List<Decision> decisions = new ArrayList<Decision>();
+		/* the chosen versions, and a hash of them that's updated as versions are chosen and unchosen */
+		private final Map<String, Version> chosen = new HashMap<String, Version>();
+		private long chosenHash;
+		/* sets of chosen versions that are known to leave some package without a version, by their hashes */
+		private final Map<Long, List<Map<String, Version>>> failed = new HashMap<Long, List<Map<String, Version>>>();
+		/* the latest requirement that couldn't be met, and the decisions that led to it */
+		private PackageState conflict;
+		private List<Resolution.Requirement> conflictingRequirements;
+		private final BitSet conflictCause = new BitSet();
+
+		private Resolution run(Map<String, Range> requirements) {
+			for (Map.Entry<String, Range> requirement : requirements.entrySet()) {
+				if (!require(requirement.getKey(), new Resolution.Requirement(null, null, requirement.getValue()))) {
+					return Resolution.conflict(conflict.name, conflictingRequirements);
+				}
+			}
+			while (!open.isEmpty()) {
+				if (isKnownFailure()) {
+					/* it's not known which of the choices so far are to blame, so any of them might be */
+					Decision latest = decisions.get(decisions.size() - 1);
+					latest.conflicts.set(0, latest.depth);
+				} else {
+					PackageState next = open.iterator().next();
+					open.remove(next);
+					decisions.add(new Decision(next, top(next), decisions.size(), trail.size()));
+				}
+				if (!advance()) {
+					return Resolution.conflict(conflict.name, conflictingRequirements);
+				}
+			}
+			return Resolution.resolved(Collections.unmodifiableMap(new TreeMap<String, Version>(chosen)));
+		}
+
+		/*
+		 * choose the next version of the latest decision that's left to try.  When there's none, jump back to
+		 * the latest decision that it conflicted with (skipping any in between, which played no part), and try
+		 * the next version of that one instead.
+		 */
+		private boolean advance() {
+			while (!decisions.isEmpty()) {
+				Decision decision = decisions.get(decisions.size() - 1);
+				undo(decision);
+				while (decision.next < decision.candidates.length) {
+					Version version = decision.candidates[decision.next++];
+					choose(decision, version);
+					if (requireDependencies(decision.state.name, version)) {
+						return true;
+					}
+					decision.conflicts.or(conflictCause);
+					undo(decision);
+				}
+				/* no version of this package goes with the versions chosen before it */
+				rememberFailure();
+				addRequirers(decision.conflicts, decision.state);
+				decision.conflicts.clear(decision.depth, decisions.size());
+				int target = decision.conflicts.previousSetBit(decision.depth - 1);
+				while (decisions.size() > target + 1) {
+					Decision skipped = decisions.remove(decisions.size() - 1);
+					undo(skipped);
+					open.add(skipped.state);
+				}
+				if (target >= 0) {
+					decisions.get(target).conflicts.or(decision.conflicts);
+				}
+			}
+			return false;
+		}
+
+		private boolean requireDependencies(String name, Version version) {
+			for (Map.Entry<String, Range> dependency : catalog.getDependencies(name, version).entrySet()) {
+				if (!require(dependency.getKey(), new Resolution.Requirement(name, version, dependency.getValue()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/* add a requirement, returning false if it leaves the package without a version */
+		private boolean require(String name, Resolution.Requirement requirement) {
+			PackageState state = packages.get(name);
+			if (state == null) {
+				state = new PackageState(name);
+				packages.put(name, state);
+			}
+			Range range = requirement.getRange();
+			Version[] candidates;
+			if (state.candidates.isEmpty()) {
+				candidates = descending(indexes.computeIfAbsent(name, indexer).allSatisfying(range));
+				open.add(state);
+			} else if (state.chosen == null) {
+				candidates = narrow(top(state), range);
+			} else {
+				candidates = top(state);
+			}
+			state.requirements.add(requirement);
+			state.candidates.add(candidates);
+			trail.add(state);
+			if (state.chosen != null ? !range.isSatisfiedBy(state.chosen) : candidates.length == 0) {
+				conflict = state;
+				conflictingRequirements = Collections.unmodifiableList(new ArrayList<Resolution.Requirement>(state.requirements));
+				conflictCause.clear();
+				if (state.chosen != null) {
+					/* the version chosen for the package, and the version that requires another one */
+					conflictCause.set(state.decision.depth);
+					addRequirer(conflictCause, requirement);
+				} else {
+					addRequirers(conflictCause, state);
+				}
+				return false;
+			}
+			return true;
+		}
+
+		/* the decisions that chose the versions that require a package */
+		private void addRequirers(BitSet depths, PackageState state) {
+			for (Resolution.Requirement requirement : state.requirements) {
+				addRequirer(depths, requirement);
+			}
+		}
+
+		private void addRequirer(BitSet depths, Resolution.Requirement requirement) {
+			if (requirement.getRequiredBy() != null) {
+				depths.set(packages.get(requirement.getRequiredBy()).decision.depth);
+			}
+		}
+
+		/* take back the choice made by a decision, and the requirements added since it was made */
+		private void undo(Decision decision) {
+			while (trail.size() > decision.trailSize) {
+				PackageState state = trail.remove(trail.size() - 1);
+				state.requirements.remove(state.requirements.size() - 1);
+				state.candidates.remove(state.candidates.size() - 1);
+				if (state.candidates.isEmpty()) {
+					open.remove(state);
+				}
+			}
+			PackageState state = decision.state;
+			if (state.chosen != null) {
+				chosenHash ^= hash(state.name, state.chosen);
+				chosen.remove(state.name);
+				state.chosen = null;
+				state.decision = null;
+			}
+		}
+
+		private void choose(Decision decision, Version version) {
+			PackageState state = decision.state;
+			state.chosen = version;
+			state.decision = decision;
+			chosen.put(state.name, version);
+			chosenHash ^= hash(state.name, version);
+		}
+
+		private void rememberFailure() {
+			List<Map<String, Version>> sameHash = failed.get(chosenHash);
+			if (sameHash == null) {
+				sameHash = new ArrayList<Map<String, Version>>(1);
+				failed.put(chosenHash, sameHash);
+			}
+			sameHash.add(new HashMap<String, Version>(chosen));
+		}
+
+		private boolean isKnownFailure() {
+			List<Map<String, Version>> sameHash = failed.get(chosenHash);
+			return sameHash != null && sameHash.contains(chosen);
+		}
+	}
+
+	private static Version[] top(PackageState state) {
+		return state.candidates.get(state.candidates.size() - 1);
+	}
+
+	private static Version[] descending(List<Version> ascending) {
+		Version[] versions = new Version[ascending.size()];
+		for (int i = 0; i < versions.length; i++) {
+			versions[i] = ascending.get(versions.length - 1 - i);
+		}
+		return versions;
+	}
+
+	/* the candidates that satisfy another range */
+	private static Version[] narrow(Version[] candidates, Range range) {
+		Version[] narrowed = new Version[candidates.length];
+		int count = 0;
+		for (Version candidate : candidates) {
+			if (range.isSatisfiedBy(candidate)) {
+				narrowed[count++] = candidate;
+			}
+		}
+		return count == candidates.length ? candidates : Arrays.copyOf(narrowed, count);
+	}
+
+	/* a well mixed hash of a choice, so that the hash of a set of choices can be their exclusive or */
+	private static long hash(String name, Version version) {
+		long hash = name.hashCode() * 0x9E3779B97F4A7C15L + version.hashCode();
+		hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+		hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return hash ^ (hash >>> 33);
+	}
+}
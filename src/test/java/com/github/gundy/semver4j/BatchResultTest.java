@@ -0,0 +1,88 @@
+package com.github.gundy.semver4j;
+
+import com.github.gundy.semver4j.model.Version;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class BatchResultTest {
+
+	private static final List<String> RANGES = new ArrayList<String>();
+	private static final List<String> VERSIONS = new ArrayList<String>();
+	static {
+		for (Object[] pair : SemVerRangesPositiveTest.data()) {
+			RANGES.add((String) pair[0]);
+			VERSIONS.add((String) pair[1]);
+		}
+		for (Object[] pair : SemVerRangesNegativeTest.data()) {
+			RANGES.add((String) pair[0]);
+			VERSIONS.add((String) pair[1]);
+		}
+		RANGES.add("blerg");
+		VERSIONS.add("blerg");
+		VERSIONS.add("v1.2.3");
+	}
+
+	@Test
+	public void testBatchSatisfiesMatchesSatisfies() {
+		BatchResult result = SemVer.batchSatisfies(RANGES, VERSIONS);
+		assertThat(result.getRangeCount(), equalTo(RANGES.size()));
+		assertThat(result.getVersionCount(), equalTo(VERSIONS.size()));
+		for (int r = 0; r < RANGES.size(); r++) {
+			BitSet expected = new BitSet();
+			for (int v = 0; v < VERSIONS.size(); v++) {
+				boolean satisfies = SemVer.satisfies(VERSIONS.get(v), RANGES.get(r));
+				assertThat(RANGES.get(r) + " " + VERSIONS.get(v), result.satisfies(r, v), equalTo(satisfies));
+				if (satisfies) {
+					expected.set(v);
+				}
+			}
+			assertThat(result.getSatisfying(r), equalTo(expected));
+			assertThat(result.countSatisfying(r), equalTo(expected.cardinality()));
+		}
+	}
+
+	@Test
+	public void testMaxSatisfyingIndex() {
+		List<String> versions = Arrays.asList("1.2.3", "blerg", "1.2.4", "v1.2.4", "1.2.4", "2.0.0-beta", "1.2.4+build");
+		BatchResult result = SemVer.batchSatisfies(Arrays.asList("1.2", "^1.2.3", "1.2", "2.x", ">=2.0.0-alpha", "blerg"), versions);
+		assertThat(result.maxSatisfyingIndex(0), equalTo(2));
+		assertThat(result.maxSatisfyingIndex(1), equalTo(2));
+		assertThat(result.maxSatisfyingIndex(2), equalTo(2));
+		assertThat(result.maxSatisfyingIndex(3), equalTo(-1));
+		assertThat(result.maxSatisfyingIndex(4), equalTo(5));
+		assertThat(result.maxSatisfyingIndex(5), equalTo(-1));
+		assertThat(result.isValidRange(5), equalTo(false));
+		assertThat(result.isValidVersion(1), equalTo(false));
+		assertThat(result.isValidVersion(3), equalTo(true));
+		assertThat(result.satisfies(0, 1), equalTo(false));
+	}
+
+	@Test
+	public void testBatchSatisfiesVersions() {
+		List<Version> versions = new ArrayList<Version>();
+		for (String version : Arrays.asList("1.2.3", "1.2.4", "1.2.4", "2.0.0")) {
+			versions.add(Version.fromString(version));
+		}
+		BatchResult result = SemVer.batchSatisfiesVersions(Arrays.asList("1.2", "^2", "3.x"), versions);
+		assertThat(result.countSatisfying(0), equalTo(3));
+		assertThat(result.maxSatisfyingIndex(0), equalTo(1));
+		assertThat(result.maxSatisfyingIndex(1), equalTo(3));
+		assertThat(result.maxSatisfyingIndex(2), equalTo(-1));
+		assertThat(result.getSatisfying(2).isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void testEmptyBatch() {
+		BatchResult result = SemVer.batchSatisfies(Collections.<String>emptyList(), Collections.<String>emptyList());
+		assertThat(result.getRangeCount(), equalTo(0));
+		assertThat(result.getVersionCount(), equalTo(0));
+	}
+}
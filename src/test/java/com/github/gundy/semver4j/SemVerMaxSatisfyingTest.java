@@ -1,6 +1,7 @@
 package com.github.gundy.semver4j;
 
 
+import com.github.gundy.semver4j.model.Range;
 import com.github.gundy.semver4j.model.Version;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -52,4 +53,64 @@ public class SemVerMaxSatisfyingTest {
 		assertThat(Version.maxVersionSatisfying(versions, range), equalTo(Version.fromString(expectedValue)));
 	}
 
+	@Test
+	public void testMaxSatisfyingOnIteratorAndStream() {
+		List<Version> versions = new ArrayList<Version>();
+		for (String strVersion : versionsToTest) {
+			versions.add(Version.fromString(strVersion));
+		}
+		Version expected = Version.fromString(expectedValue);
+		assertThat(Version.maxSatisfying(versionsToTest.iterator(), SemVer.compile(range)), equalTo(expectedValue));
+		assertThat(Version.maxVersionSatisfying(versions.iterator(), SemVer.compile(range)), equalTo(expected));
+		assertThat(Version.maxVersionSatisfying(versions.stream(), SemVer.compile(range)), equalTo(expected));
+		assertThat(versions.parallelStream().collect(Version.maxSatisfyingCollector(SemVer.compile(range))), equalTo(expected));
+	}
+
+	@Test
+	public void testTopSatisfying() {
+		Range compiled = SemVer.compile(range);
+		List<Version> expected = new ArrayList<Version>();
+		for (String strVersion : versionsToTest) {
+			if (compiled.isSatisfiedBy(Version.fromString(strVersion))) {
+				expected.add(Version.fromString(strVersion));
+			}
+		}
+		Collections.sort(expected, Version.reverseComparator());
+		List<String> expectedStrings = new ArrayList<String>();
+		for (Version version : expected) {
+			expectedStrings.add(version.toString());
+		}
+
+		for (int k = 0; k <= expected.size() + 1; k++) {
+			List<String> top = expectedStrings.subList(0, Math.min(k, expected.size()));
+			assertThat(SemVer.topSatisfying(versionsToTest, range, k), equalTo(top));
+			assertThat(Version.topVersionsSatisfying(parse(versionsToTest), compiled, k), equalTo(expected.subList(0, top.size())));
+		}
+		assertThat(SemVer.topSatisfying(versionsToTest, range, 1).get(0), equalTo(expectedValue));
+
+		List<String> descending = new ArrayList<String>();
+		for (Iterator<String> i = Version.descendingSatisfying(versionsToTest, compiled); i.hasNext(); ) {
+			descending.add(i.next());
+		}
+		assertThat(descending, equalTo(expectedStrings));
+		List<Version> descendingVersions = new ArrayList<Version>();
+		for (Iterator<Version> i = Version.descendingVersionsSatisfying(parse(versionsToTest), compiled); i.hasNext(); ) {
+			descendingVersions.add(i.next());
+		}
+		assertThat(descendingVersions, equalTo(expected));
+	}
+
+	private static List<Version> parse(List<String> versions) {
+		List<Version> parsed = new ArrayList<Version>();
+		for (String version : versions) {
+			parsed.add(Version.fromString(version));
+		}
+		return parsed;
+	}
+
+	@Test
+	public void testParallelMaxSatisfying() {
+		assertThat(SemVer.parallelMaxSatisfying(versionsToTest, range), equalTo(expectedValue));
+	}
+
 }
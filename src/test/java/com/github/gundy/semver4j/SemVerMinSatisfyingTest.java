@@ -0,0 +1,57 @@
+package com.github.gundy.semver4j;
+
+
+import com.github.gundy.semver4j.model.Version;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+@RunWith(Parameterized.class)
+public class SemVerMinSatisfyingTest {
+
+	@Parameterized.Parameters
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][]{
+			{Arrays.asList("1.2.3", "1.2.4"), "1.2", "1.2.3"},
+			{Arrays.asList("1.2.4", "1.2.3"), "1.2", "1.2.3"},
+			{Arrays.asList("1.2.3", "1.2.4", "1.2.5", "1.2.6", "1.3.0"), "~1.2.4", "1.2.4"},
+			{Arrays.asList("1.2.3", "1.2.4", "1.2.5", "1.2.6", "1.3.0"), ">1.2.5", "1.2.6"},
+			{Arrays.asList("0.0.0", "0.0.1", "0.10.24", "0.11.10", "0.10.25", "0.11.10-1", "0.10.25-1", "0.10.31"), "~0.10.25", "0.10.25"},
+			{Arrays.asList("1.0.2-beta", "1.0.2-alpha", "1.0.2", "1.0.3-alpha"), ">=1.0.2-alpha", "1.0.2-alpha"},
+			{Arrays.asList("1.2.3", "1.2.4"), "2.x", null},
+	});
+	}
+
+	private final List<String> versionsToTest;
+	private final String range;
+	private final String expectedValue;
+
+	public SemVerMinSatisfyingTest(List<String> versionsToTest, String range, String expectedValue) {
+		this.range = range;
+		this.versionsToTest = versionsToTest;
+		this.expectedValue = expectedValue;
+	}
+
+	@Test
+	public void testMinSatisfying() {
+		assertThat(SemVer.minSatisfying(versionsToTest, range), equalTo(expectedValue));
+	}
+
+	@Test
+	public void testMinSatisfyingOnVersion() {
+		List<Version> versions = new ArrayList<Version>();
+		for (String strVersion : versionsToTest) {
+			versions.add(Version.fromString(strVersion));
+		}
+		Version expected = expectedValue == null ? null : Version.fromString(expectedValue);
+		assertThat(Version.minVersionSatisfying(versions, range), equalTo(expected));
+		assertThat(Version.minVersionSatisfying(versions.stream(), SemVer.compile(range)), equalTo(expected));
+		assertThat(versions.parallelStream().collect(Version.minSatisfyingCollector(SemVer.compile(range))), equalTo(expected));
+	}
+
+}
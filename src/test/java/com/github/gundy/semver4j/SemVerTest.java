@@ -2,6 +2,8 @@ package com.github.gundy.semver4j;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 
@@ -21,4 +23,19 @@ public class SemVerTest {
 		assertThat(SemVer.satisfies("1.2.3", "1.1 - 4.0"), equalTo(true));
 		assertThat(SemVer.satisfies("1.2.3", "1.1 - 1.2.0"), equalTo(false));
 	}
+
+	@Test
+	public void testSatisfiesWithRangeCache() {
+		SemVer.enableRangeCache(2);
+		try {
+			assertThat(SemVer.satisfies("1.2.3", "^1.2"), equalTo(true));
+			assertThat(SemVer.satisfies("2.0.0", "^1.2"), equalTo(false));
+			assertThat(SemVer.maxSatisfying(Arrays.asList("1.2.3", "1.9.0", "2.0.0"), "^1.2"), equalTo("1.9.0"));
+			assertThat(SemVer.satisfies("1.2.3", "blerg"), equalTo(false));
+			assertThat(SemVer.getRangeCache().getHitCount(), equalTo(2L));
+			assertThat(SemVer.getRangeCache().size(), equalTo(1));
+		} finally {
+			SemVer.disableRangeCache();
+		}
+	}
 }
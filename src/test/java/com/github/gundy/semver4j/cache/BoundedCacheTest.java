@@ -0,0 +1,109 @@
+package com.github.gundy.semver4j.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest {
+
+	private static final Function<Integer, String> TO_STRING = new Function<Integer, String>() {
+		@Override
+		public String apply(Integer key) {
+			return String.valueOf(key);
+		}
+	};
+
+	@Test
+	public void testHitsAndMisses() {
+		BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(10);
+		assertThat(cache.get(1), nullValue());
+		assertThat(cache.computeIfAbsent(1, TO_STRING), equalTo("1"));
+		assertThat(cache.computeIfAbsent(1, TO_STRING), equalTo("1"));
+		assertThat(cache.get(1), equalTo("1"));
+		assertThat(cache.getMissCount(), equalTo(2L));
+		assertThat(cache.getHitCount(), equalTo(2L));
+		assertThat(cache.getEvictionCount(), equalTo(0L));
+	}
+
+	@Test
+	public void testCapacityIsBounded() {
+		BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(10);
+		for (int i = 0; i < 100; i++) {
+			cache.computeIfAbsent(i, TO_STRING);
+		}
+		assertThat(cache.size(), equalTo(10));
+		assertThat(cache.getEvictionCount(), equalTo(90L));
+	}
+
+	@Test
+	public void testRecentlyUsedEntriesSurviveEviction() {
+		BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(3);
+		cache.computeIfAbsent(1, TO_STRING);
+		cache.computeIfAbsent(2, TO_STRING);
+		cache.computeIfAbsent(3, TO_STRING);
+		cache.get(1);
+		cache.computeIfAbsent(4, TO_STRING);
+		assertThat(cache.get(1), equalTo("1"));
+		assertThat(cache.get(2), nullValue());
+	}
+
+	@Test
+	public void testFailedComputationIsNotCached() {
+		BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(3);
+		try {
+			cache.computeIfAbsent(1, new Function<Integer, String>() {
+				@Override
+				public String apply(Integer key) {
+					throw new IllegalArgumentException("invalid");
+				}
+			});
+		} catch (IllegalArgumentException e) {
+			/* expected */
+		}
+		assertThat(cache.size(), equalTo(0));
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		final BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(50);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final int seed = t;
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						boolean consistent = true;
+						for (int i = 0; i < 20000; i++) {
+							/* skewed: mostly a few hot keys, sometimes a cold one */
+							int key = (i * 31 + seed) % 7 == 0 ? i % 500 : i % 10;
+							consistent &= String.valueOf(key).equals(cache.computeIfAbsent(key, TO_STRING));
+						}
+						return consistent;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get(), equalTo(true));
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		assertTrue(cache.size() <= 50);
+		assertThat(cache.getHitCount() + cache.getMissCount(), equalTo(8L * 20000));
+	}
+}
@@ -0,0 +1,173 @@
+package com.github.gundy.semver4j.metrics;
+
+import com.github.gundy.semver4j.SemVer;
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class MetricsRecorderTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@After
+	public void tearDown() {
+		Metrics.uninstall();
+		SemVer.disableRangeCache();
+		Version.disableInterning();
+	}
+
+	@Test
+	public void testNothingInstalledByDefault() {
+		assertThat(Metrics.getInstrumentation(), nullValue());
+	}
+
+	@Test
+	public void testParsesAndEvaluationsAreCounted() {
+		MetricsRecorder recorder = new MetricsRecorder(1, 100);
+		Metrics.install(recorder);
+
+		Range range = Range.fromString("^1.2.3");
+		Version.fromString("1.2.3");
+		Version.fromUtf8("1.4.0".getBytes(), 0, 5);
+		range.isSatisfiedBy(Version.fromString("1.4.0"));
+		range.isSatisfiedBy(Version.fromString("2.0.0"));
+		assertThat(SemVer.valid("not a version"), equalTo(false));
+		assertThat(SemVer.satisfies("1.2.3", "~~1"), equalTo(false));
+
+		assertThat(recorder.getVersionsParsed(), equalTo(5L));
+		assertThat(recorder.getVersionParseFailures(), equalTo(1L));
+		assertThat(recorder.getRangesCompiled(), equalTo(1L));
+		assertThat(recorder.getRangeCompileFailures(), equalTo(1L));
+		assertThat(recorder.getEvaluations(), equalTo(2L));
+		assertThat(recorder.getMostExpensiveRanges(10).keySet(), equalTo(setOf("^1.2.3", "~~1")));
+
+		recorder.reset();
+		assertThat(recorder.getVersionsParsed(), equalTo(0L));
+		assertThat(recorder.getMostExpensiveRanges(10).isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void testCacheLookupsAreCounted() {
+		MetricsRecorder recorder = new MetricsRecorder();
+		Metrics.install(recorder);
+		SemVer.enableRangeCache(10);
+		Version.enableInterning(10);
+
+		SemVer.compile("^1.2.3");
+		SemVer.compile("^1.2.3");
+		SemVer.compile("~1.2.3");
+		Version.fromString("1.2.3");
+		Version.fromString("1.2.3");
+
+		assertThat(recorder.getRangeCacheHits(), equalTo(1L));
+		assertThat(recorder.getRangeCacheMisses(), equalTo(2L));
+		assertThat(recorder.getRangesCompiled(), equalTo(2L));
+		assertThat(recorder.getInternCacheHits(), equalTo(1L));
+		assertThat(recorder.getInternCacheMisses(), equalTo(1L));
+		assertThat(recorder.getVersionsParsed(), equalTo(1L));
+	}
+
+	@Test
+	public void testMostExpensiveRangesAreBounded() {
+		MetricsRecorder recorder = new MetricsRecorder(1, 2);
+		recorder.rangeEvaluated("a", 10);
+		recorder.rangeEvaluated("b", 30);
+		recorder.rangeCompiled("a", 50);
+		/* replaces b, the cheapest, and starts from its total */
+		recorder.rangeEvaluated("c", 5);
+
+		Map<String, Long> mostExpensive = recorder.getMostExpensiveRanges(2);
+		assertThat(new ArrayList<String>(mostExpensive.keySet()), equalTo(Arrays.asList("a", "c")));
+		assertThat(mostExpensive.get("a"), equalTo(60L));
+		assertThat(mostExpensive.get("c"), equalTo(35L));
+		assertThat(recorder.getMostExpensiveRanges(1).size(), equalTo(1));
+
+		MetricsRecorder untracked = new MetricsRecorder(1, 0);
+		untracked.rangeEvaluated("a", 10);
+		assertThat(untracked.getMostExpensiveRanges(1).isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void testLateExpensiveRangeDisplacesCheapOnes() {
+		MetricsRecorder recorder = new MetricsRecorder(1, 10);
+		for (int i = 0; i < 100; i++) {
+			recorder.rangeEvaluated("^1." + i + ".0", 10);
+		}
+		for (int i = 0; i < 20; i++) {
+			recorder.rangeEvaluated(">=2.0.0 <3.0.0-0 || 4.x", 1000);
+		}
+		for (int i = 0; i < 5; i++) {
+			recorder.rangeEvaluated("^1.0.0", 10);
+		}
+
+		Map<String, Long> mostExpensive = recorder.getMostExpensiveRanges(1);
+		assertThat(new ArrayList<String>(mostExpensive.keySet()), equalTo(Arrays.asList(">=2.0.0 <3.0.0-0 || 4.x")));
+		/* overestimated by no more than the total of the range it replaced, which is at most 1000ns / 10 ranges */
+		long total = mostExpensive.get(">=2.0.0 <3.0.0-0 || 4.x");
+		assertThat(total >= 20000 && total <= 20100, equalTo(true));
+		assertThat(recorder.getMostExpensiveRanges(100).size(), equalTo(10));
+	}
+
+	@Test
+	public void testInstrumentationDefaultsToNoOps() {
+		Metrics.install(new Instrumentation() {
+		});
+		assertThat(SemVer.satisfies("1.2.3", "^1"), equalTo(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInstallNull() {
+		Metrics.install(null);
+	}
+
+	@Test
+	public void testFlightRecorderEvents() throws Exception {
+		Assume.assumeTrue(FlightRecorderInstrumentation.isAvailable());
+		Metrics.install(new FlightRecorderInstrumentation());
+
+		/* drive jdk.jfr reflectively too, so that the tests compile against JDKs without it */
+		Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+		Object recording = recordingClass.getDeclaredConstructor().newInstance();
+		recordingClass.getMethod("enable", String.class).invoke(recording, "semver4j.RangeCompile");
+		recordingClass.getMethod("start").invoke(recording);
+		SemVer.compile("^1.2.3");
+		recordingClass.getMethod("stop").invoke(recording);
+		Path file = folder.newFile("semver4j.jfr").toPath();
+		recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+		recordingClass.getMethod("close").invoke(recording);
+
+		List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+			.getMethod("readAllEvents", Path.class).invoke(null, file);
+		List<String> ranges = new ArrayList<String>();
+		for (Object event : events) {
+			Object type = event.getClass().getMethod("getEventType").invoke(event);
+			if ("semver4j.RangeCompile".equals(type.getClass().getMethod("getName").invoke(type))) {
+				Method getString = event.getClass().getMethod("getString", String.class);
+				ranges.add((String) getString.invoke(event, "range"));
+			}
+		}
+		assertThat(ranges, equalTo(Arrays.asList("^1.2.3")));
+	}
+
+	private static Set<String> setOf(String... values) {
+		return new HashSet<String>(Arrays.asList(values));
+	}
+}
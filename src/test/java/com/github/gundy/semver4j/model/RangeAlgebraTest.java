@@ -0,0 +1,143 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class RangeAlgebraTest {
+
+	/* bounds in the generated ranges only use these pre-releases */
+	private static final String[] BOUND_PRE_RELEASES = {"", "", "", "-0", "-alpha", "-beta"};
+	private static final String[] OPERATORS = {"", "^", "~", ">", ">=", "<", "<=", "="};
+
+	/*
+	 * every major/minor/patch up to 4, with pre-releases before, between and after those of the bounds,
+	 * so that any interval with bounds from the generated ranges that holds a version also holds one of these
+	 */
+	private static final List<Version> VERSIONS = new ArrayList<Version>();
+	static {
+		for (int major = 0; major < 5; major++) {
+			for (int minor = 0; minor < 5; minor++) {
+				for (int patch = 0; patch < 5; patch++) {
+					for (String preRelease : Arrays.asList("", "-0", "-0.0", "-1", "-alpha", "-alpha.0", "-b", "-beta", "-beta.0", "-rc")) {
+						VERSIONS.add(Version.fromString(major + "." + minor + "." + patch + preRelease));
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean someVersionSatisfies(Range left, Range right) {
+		for (Version version : VERSIONS) {
+			if (left.isSatisfiedBy(version) && right.isSatisfiedBy(version)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean everyVersionSatisfies(Range subset, Range superset) {
+		for (Version version : VERSIONS) {
+			if (subset.isSatisfiedBy(version) && !superset.isSatisfiedBy(version)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void assertAlgebra(String leftExpression, String rightExpression) {
+		Range left = Range.fromString(leftExpression);
+		Range right = Range.fromString(rightExpression);
+		String message = "\"" + leftExpression + "\" and \"" + rightExpression + "\"";
+		assertThat(message, left.intersects(right), equalTo(someVersionSatisfies(left, right)));
+		assertThat(message, left.subsetOf(right), equalTo(everyVersionSatisfies(left, right)));
+
+		Range intersection = left.intersection(right);
+		Range union = left.union(right);
+		for (Version version : VERSIONS) {
+			assertThat(message + " " + version, intersection.isSatisfiedBy(version),
+				equalTo(left.isSatisfiedBy(version) && right.isSatisfiedBy(version)));
+			assertThat(message + " " + version, union.isSatisfiedBy(version),
+				equalTo(left.isSatisfiedBy(version) || right.isSatisfiedBy(version)));
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		List<String> ranges = Arrays.asList("*", "", ">=*", "<0.0.0-0", "^1.2.0", ">=1.4 <1.6 || 2.x", "1.2.x", "~1.2.3-beta",
+			">1.2.3-alpha <1.2.3", ">=1.2.3-beta <=1.2.3-beta", "1.2.3-alpha", "=1.2.3-alpha", "1.0.0 - 2.0.0-beta",
+			"<1.2.3-beta || >2.0.0", "^0.0.1", ">3.3.3", "<=0.0.0", "1.2.3-alpha >1.0.0", ">1.2.3-alpha <1.2.3-beta.0");
+		for (String left : ranges) {
+			for (String right : ranges) {
+				assertAlgebra(left, right);
+			}
+		}
+	}
+
+	@Test
+	public void testExamples() {
+		assertThat(Range.fromString("^1.2.0").intersects(Range.fromString(">=1.4 <1.6 || 2.x")), equalTo(true));
+		assertThat(Range.fromString("^1.2.0").intersects(Range.fromString("2.x")), equalTo(false));
+		assertThat(Range.fromString(">=1.4 <1.6").subsetOf(Range.fromString("^1.2.0")), equalTo(true));
+		assertThat(Range.fromString("^1.2.0").subsetOf(Range.fromString(">=1.4 <1.6")), equalTo(false));
+		/* pre-releases only satisfy ranges with a pre-release bound for the same major/minor/patch */
+		assertThat(Range.fromString(">1.2.3-alpha <1.2.3-rc").intersects(Range.fromString("1.2.3-beta")), equalTo(true));
+		assertThat(Range.fromString(">1.2.3-alpha <1.2.3-rc").intersects(Range.fromString(">=1.2.0 <1.2.4")), equalTo(false));
+		assertThat(Range.fromString(">=1.2.3-beta <2").subsetOf(Range.fromString(">=1.2.3-alpha <2")), equalTo(true));
+		assertThat(Range.fromString("1.2.3-beta - 1.2.3").subsetOf(Range.fromString("1.2.3-alpha - 1.2.3")), equalTo(true));
+		assertThat(Range.fromString("1.2.3-alpha - 1.2.3").subsetOf(Range.fromString("1.2.3-beta - 1.2.3")), equalTo(false));
+		/* there's no version between 1.0.0 and 1.0.1-0 */
+		assertThat(Range.fromString(">1.0.0 <1.0.1-0").intersects(Range.fromString("*")), equalTo(false));
+		assertThat(Range.fromString(">1.2.3-beta <1.2.3-beta.0").intersects(Range.fromString(">=1.2.3-beta")), equalTo(false));
+		assertThat(Range.fromString(">1.2.3-alpha.0 <1.2.3-alpha.1").intersects(Range.fromString("*")), equalTo(false));
+		assertThat(Range.fromString(">1.2.3-alpha.0 <1.2.3-alpha.1").intersects(Range.fromString("")), equalTo(true));
+	}
+
+	@Test
+	public void testGeneratedRanges() {
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			assertAlgebra(range(random), range(random));
+		}
+	}
+
+	private static String range(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int alternatives = 1 + random.nextInt(2);
+		for (int i = 0; i < alternatives; i++) {
+			if (i > 0) {
+				sb.append(" || ");
+			}
+			if (random.nextInt(6) == 0) {
+				sb.append(version(random)).append(" - ").append(version(random));
+				continue;
+			}
+			int comparators = 1 + random.nextInt(2);
+			for (int j = 0; j < comparators; j++) {
+				if (j > 0) {
+					sb.append(' ');
+				}
+				sb.append(OPERATORS[random.nextInt(OPERATORS.length)]).append(version(random));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String version(Random random) {
+		StringBuilder sb = new StringBuilder().append(random.nextInt(3));
+		int parts = random.nextInt(4);
+		if (parts > 0) {
+			sb.append('.').append(random.nextInt(3));
+			if (parts > 1) {
+				sb.append('.').append(random.nextInt(3)).append(BOUND_PRE_RELEASES[random.nextInt(BOUND_PRE_RELEASES.length)]);
+			}
+		}
+		return sb.toString();
+	}
+}
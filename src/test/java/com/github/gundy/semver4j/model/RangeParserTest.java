@@ -0,0 +1,304 @@
+package com.github.gundy.semver4j.model;
+
+import com.github.gundy.semver4j.SemVerMaxSatisfyingTest;
+import com.github.gundy.semver4j.SemVerRangesNegativeTest;
+import com.github.gundy.semver4j.SemVerRangesPositiveTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class RangeParserTest {
+
+	private static final String[] IDENTIFIERS = {"alpha", "beta", "rc", "pre", "0", "1", "12", "-x", "b2", "a-b"};
+	private static final String[] PRE_RELEASES = {"", "-alpha", "-beta.1", "-0", "-rc.12"};
+	private static final String[] OPERATORS = {">", ">=", "<", "<=", "="};
+
+	static final List<Version> VERSIONS = new ArrayList<Version>();
+	static {
+		for (int major = 0; major < 4; major++) {
+			for (int minor = 0; minor < 4; minor++) {
+				for (int patch = 0; patch < 4; patch++) {
+					for (String preRelease : PRE_RELEASES) {
+						VERSIONS.add(Version.fromString(major + "." + minor + "." + patch + preRelease));
+					}
+				}
+			}
+		}
+		VERSIONS.add(Version.fromString("1.2.3-alpha+build"));
+		VERSIONS.add(Version.fromString("1.2.3+build"));
+	}
+
+	private static void assertSameAsGrammar(String range) {
+		Range expected;
+		try {
+			expected = Range.fromStringUsingGrammar(range, true);
+		} catch (IllegalArgumentException e) {
+			/* not in the grammar; the parser may accept it as an extension, but mustn't fail in any other way */
+			try {
+				RangeParser.parse(range);
+			} catch (IllegalArgumentException ignored) {
+				/* rejected */
+			}
+			return;
+		}
+		Range actual = RangeParser.parse(range);
+		for (Version version : VERSIONS) {
+			assertThat("Range \"" + range + "\" against version " + version,
+				actual.isSatisfiedBy(version), equalTo(expected.isSatisfiedBy(version)));
+		}
+	}
+
+	private static void assertEquivalent(String range, String equivalentRange) {
+		Range actual = RangeParser.parse(range);
+		Range expected = RangeParser.parse(equivalentRange);
+		for (Version version : VERSIONS) {
+			assertThat("Range \"" + range + "\" against version " + version,
+				actual.isSatisfiedBy(version), equalTo(expected.isSatisfiedBy(version)));
+		}
+	}
+
+	private static void assertInvalid(String range) {
+		ParseResult<Range> result = RangeParser.tryParse(range);
+		assertThat(range, result.isSuccess(), equalTo(false));
+		try {
+			RangeParser.parse(range);
+			throw new AssertionError("Range \"" + range + "\" must be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(range, result.getErrorMessage(), equalTo(e.getMessage()));
+		}
+	}
+
+	private static void assertError(String range, ParseResult.ErrorKind kind, int offset) {
+		ParseResult<Range> result = RangeParser.tryParse(range);
+		assertThat(range, result.getErrorKind(), equalTo(kind));
+		assertThat(range, result.getErrorOffset(), equalTo(offset));
+		assertInvalid(range);
+	}
+
+	@Test
+	public void testTestSuiteRangesMatchGrammar() {
+		Set<String> ranges = new LinkedHashSet<String>();
+		for (Object[] data : SemVerRangesPositiveTest.data()) {
+			ranges.add((String) data[0]);
+		}
+		for (Object[] data : SemVerRangesNegativeTest.data()) {
+			ranges.add((String) data[0]);
+		}
+		for (Object[] data : SemVerMaxSatisfyingTest.data()) {
+			ranges.add((String) data[1]);
+		}
+		for (String range : ranges) {
+			assertSameAsGrammar(range);
+		}
+	}
+
+	@Test
+	public void testExtensions() {
+		assertEquivalent("x", "*");
+		assertEquivalent("X.x", "*");
+		assertEquivalent("x.x.x", "*");
+		assertEquivalent(">= *", ">=*");
+		assertEquivalent("<=X", "<=*");
+		assertEquivalent("~>1.2.3", "~1.2.3");
+		assertEquivalent("~> 1", "~1");
+		assertEquivalent("~1.2.x", "~1.2");
+		assertEquivalent("^1.x", "^1");
+		assertEquivalent("1.x - 2.*", "1 - 2");
+		assertEquivalent("  >=1.0.0   <2.0.0  ", ">=1.0.0 <2.0.0");
+		assertEquivalent("1.0.0  -  2.0.0", "1.0.0 - 2.0.0");
+	}
+
+	@Test
+	public void testIdentifiersAreNotWildcards() {
+		/* identifiers starting with x, X or * are kept as they are; only wildcard minor and patch versions are dropped */
+		String[][] ranges = {
+			{"~1.2.3-beta.x86", "1.2.3-beta.x86"},
+			{"^1.2.3-beta.x86", "1.2.3-beta.x86"},
+			{"1.2.3-a.xyz - 2.0.0", "1.2.3-a.xyz"},
+			{"1.0.0 - 1.2.3-a.Xyz", "1.2.3-a.Xyz"},
+			{">=1.2.3-beta.x86", "1.2.3-beta.x86"},
+			{"1.2.3-beta.x86", "1.2.3-beta.x86"},
+		};
+		for (String[] range : ranges) {
+			Version version = Version.fromString(range[1]);
+			assertThat(range[0], RangeParser.parse(range[0]).isSatisfiedBy(version), equalTo(true));
+			assertThat(range[0], Range.fromStringUsingGrammar(range[0], true).isSatisfiedBy(version), equalTo(true));
+		}
+		assertThat(RangeParser.parse("~1.2.3-beta.x86").isSatisfiedBy(Version.fromString("1.2.3-beta.86")), equalTo(false));
+	}
+
+	@Test
+	public void testCaretRangesWithWildcards() {
+		/* as node semver: a wildcard minor allows any minor, and a wildcard patch any patch, even under major 0 */
+		Object[][] cases = {
+			{"^0.x", "0.0.0", true}, {"^0.x", "0.5.0", true}, {"^0.x", "0.99.99", true}, {"^0.x", "1.0.0", false},
+			{"^0.X.x", "0.5.0", true}, {"^0.X.x", "1.0.0", false},
+			{"^0.0.x", "0.0.0", true}, {"^0.0.x", "0.0.5", true}, {"^0.0.x", "0.1.0", false},
+			{"^0.0.*", "0.0.5", true}, {"^0.0.*", "0.1.0", false},
+			{"^0.2.x", "0.2.9", true}, {"^0.2.x", "0.3.0", false},
+			{"^1.x", "1.9.0", true}, {"^1.x", "2.0.0", false},
+			{"^0.0.3", "0.0.3", true}, {"^0.0.3", "0.0.4", false},
+		};
+		for (Object[] c : cases) {
+			String range = (String) c[0];
+			Version version = Version.fromString((String) c[1]);
+			assertThat(range + " against " + version, RangeParser.parse(range).isSatisfiedBy(version), equalTo(c[2]));
+		}
+	}
+
+	@Test
+	public void testInvalidRanges() {
+		for (String range : Arrays.asList("blerg", "1.2.3 - ", "1.2.3 -2.0.0", "1.2.3 - 2.0.0 3.0.0", ">=1.2.3<2",
+			"1.2.3 | 2.0.0", "1.2.3 ||| 2", "1.x.3", "1.2.x-beta", "01.2.3", ">x", "<*", "=*", "~*", "^x", "x - 2",
+			"1.2.3.", "1.2.0.1", ">= 1.2.3 garbage", "1.2.3-a..b", "1.2.3+")) {
+			assertInvalid(range);
+		}
+	}
+
+	@Test
+	public void testTryParse() {
+		ParseResult<Range> result = RangeParser.tryParse("^1.2.3 || 2.x");
+		assertThat(result.isSuccess(), equalTo(true));
+		assertThat(result.getValue().isSatisfiedBy(Version.fromString("2.1.0")), equalTo(true));
+		assertThat(result.getErrorKind(), equalTo(null));
+		assertThat(result.getErrorOffset(), equalTo(-1));
+
+		assertError(null, ParseResult.ErrorKind.NULL_INPUT, 0);
+		assertError("blerg", ParseResult.ErrorKind.EXPECTED_NUMBER, 0);
+		assertError(">=1.2.3<2", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 7);
+		assertError("1.2.3 -2.0.0", ParseResult.ErrorKind.EXPECTED_SPACE, 7);
+		assertError(">x", ParseResult.ErrorKind.INVALID_WILDCARD, 2);
+		assertError("1.x.3", ParseResult.ErrorKind.INVALID_WILDCARD, 4);
+		assertError("~*", ParseResult.ErrorKind.EXPECTED_VERSION, 2);
+		assertError("1.2.3-a..b", ParseResult.ErrorKind.EXPECTED_IDENTIFIER, 8);
+		assertError("1.99999999999", ParseResult.ErrorKind.NUMBER_TOO_LARGE, 11);
+		assertError("^2147483647", ParseResult.ErrorKind.NUMBER_TOO_LARGE, 1);
+		/* upper bounds that overflow, in each kind of comparator; the error is at the version they're built from */
+		assertError("~1.2147483647", ParseResult.ErrorKind.NUMBER_TOO_LARGE, 1);
+		assertError("1.0.0 || <=2147483647", ParseResult.ErrorKind.NUMBER_TOO_LARGE, 11);
+		assertError("1.2147483647", ParseResult.ErrorKind.NUMBER_TOO_LARGE, 0);
+		assertError("1.2.3 - 2147483647", ParseResult.ErrorKind.NUMBER_TOO_LARGE, 8);
+	}
+
+	@Test
+	public void testGeneratedRangesMatchGrammar() {
+		Random random = new Random(42);
+		for (int i = 0; i < 3000; i++) {
+			String range = rangeSet(random);
+			assertSameAsGrammar(range);
+
+			/* and a mutation of it, which may or may not still be in the grammar */
+			StringBuilder sb = new StringBuilder(range);
+			int position = random.nextInt(sb.length() + 1);
+			String chars = "0123456789.-+=vx*~^<>| ";
+			if (random.nextBoolean() || position == sb.length()) {
+				sb.insert(position, chars.charAt(random.nextInt(chars.length())));
+			} else {
+				sb.deleteCharAt(position);
+			}
+			assertSameAsGrammar(sb.toString());
+		}
+	}
+
+	static String rangeSet(Random random) {
+		StringBuilder sb = new StringBuilder(basicRange(random));
+		int alternatives = random.nextInt(3);
+		for (int i = 0; i < alternatives; i++) {
+			sb.append(spaces(random, 2)).append("||").append(spaces(random, 2)).append(basicRange(random));
+		}
+		return sb.toString();
+	}
+
+	private static String basicRange(Random random) {
+		int kind = random.nextInt(20);
+		if (kind == 0) {
+			return "";
+		} else if (kind < 3) {
+			return fullSemver(random) + " - " + fullSemver(random);
+		}
+		StringBuilder sb = new StringBuilder(simple(random));
+		int simples = random.nextInt(3);
+		for (int i = 0; i < simples; i++) {
+			sb.append(' ').append(simple(random));
+		}
+		return sb.toString();
+	}
+
+	private static String simple(Random random) {
+		switch (random.nextInt(6)) {
+			case 0:
+				return partialWildcardSemver(random);
+			case 1:
+				return OPERATORS[random.nextInt(OPERATORS.length)] + spaces(random, 2) + partialWildcardSemver(random);
+			case 2:
+				return new String[] {"*", ">=*", "<=*"}[random.nextInt(3)];
+			case 3:
+				return "~" + spaces(random, 1) + fullSemver(random);
+			case 4:
+				return "^" + spaces(random, 1) + fullSemver(random);
+			default:
+				return OPERATORS[random.nextInt(OPERATORS.length)] + fullSemver(random);
+		}
+	}
+
+	private static String fullSemver(Random random) {
+		StringBuilder sb = new StringBuilder(prefix(random)).append(random.nextInt(4));
+		if (random.nextInt(4) > 0) {
+			sb.append('.').append(random.nextInt(4));
+			if (random.nextInt(3) > 0) {
+				sb.append('.').append(random.nextInt(4));
+				if (random.nextInt(3) == 0) {
+					sb.append(random.nextBoolean() ? "-" : "").append(identifiers(random));
+				}
+				if (random.nextInt(5) == 0) {
+					sb.append('+').append(identifiers(random));
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String partialWildcardSemver(Random random) {
+		if (random.nextInt(3) > 0) {
+			return fullSemver(random);
+		}
+		String wildcard = new String[] {"x", "X", "*"}[random.nextInt(3)];
+		StringBuilder sb = new StringBuilder(prefix(random)).append(random.nextInt(4)).append('.');
+		if (random.nextBoolean()) {
+			sb.append(wildcard);
+			if (random.nextBoolean()) {
+				sb.append('.').append(wildcard);
+			}
+		} else {
+			sb.append(random.nextInt(4));
+			if (random.nextBoolean()) {
+				sb.append('.').append(wildcard);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String prefix(Random random) {
+		return new String[] {"", "", "", "=", "v", "=v", "V"}[random.nextInt(7)];
+	}
+
+	private static String identifiers(Random random) {
+		StringBuilder sb = new StringBuilder(IDENTIFIERS[random.nextInt(IDENTIFIERS.length)]);
+		while (random.nextInt(3) == 0) {
+			sb.append('.').append(IDENTIFIERS[random.nextInt(IDENTIFIERS.length)]);
+		}
+		return sb.toString();
+	}
+
+	private static String spaces(Random random, int max) {
+		return "  ".substring(0, random.nextInt(max + 1));
+	}
+}
@@ -0,0 +1,95 @@
+package com.github.gundy.semver4j.model;
+
+import com.github.gundy.semver4j.SemVerRangesNegativeTest;
+import com.github.gundy.semver4j.SemVerRangesPositiveTest;
+import com.github.gundy.semver4j.visitor.SemVerRangeExpressionVisitor;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class RangeTest {
+
+	private static final String[] EXTRA_RANGES = {
+		"x", "X", "*.*", "~>1.2.3", "~1.2.x", " 1.2.3", ">=1.2.3-beta", "=1.2.3-beta", "<=1.2.3-beta",
+		"1.2.3-beta", "1.2.3-beta+build", ">1.2.3-beta", "<1.2.3-beta", ">1", ">1.2", "<=1.x", "=1.x",
+		"1.2.3 - 2", "1.2.3 - 2.3", "1.2.3-alpha - 2.3.4-beta", "^0.0", "^0.0.3", "^0.2.3-rc.1",
+		"~0.0.1-alpha", ">=1.0.0 <2.0.0 || >=3.0.0-rc.1 <3.0.0", "1.2.3+build", ">=v1.2.3", "1.2.3-a.xb",
+	};
+
+	private static final String[] EXTRA_VERSIONS = {
+		"0.0.0", "0.0.1-alpha", "0.0.1", "0.0.2", "0.0.3", "0.0.4", "0.1.0", "0.2.3", "0.2.3-rc.0", "0.2.3-rc.2",
+		"0.2.9", "0.3.0", "1.0.0-alpha", "1.0.0", "1.2.2", "1.2.3-alpha", "1.2.3-beta", "1.2.3-beta+build",
+		"1.2.3-gamma", "1.2.3", "1.2.3+build", "1.2.4-alpha", "1.2.4", "1.3.0", "1.9.9", "2.0.0-alpha",
+		"2.0.0", "2.3.4-alpha", "2.3.4-beta", "2.3.4", "2.3.9", "2.4.0", "2.9.9", "3.0.0-rc.1", "3.0.0-rc.2",
+		"3.0.0", "3.0.1", "1.2.3-a.xb", "1.2.3-ab",
+	};
+
+	private static void addTestSuite(Set<String> ranges, Set<String> versions) {
+		for (Object[] data : SemVerRangesPositiveTest.data()) {
+			ranges.add((String) data[0]);
+			versions.add((String) data[1]);
+		}
+		for (Object[] data : SemVerRangesNegativeTest.data()) {
+			ranges.add((String) data[0]);
+			versions.add((String) data[1]);
+		}
+	}
+
+	@Test
+	public void testLoweredParseTreeMatchesVisitor() {
+		Set<String> ranges = new LinkedHashSet<String>(Arrays.asList(EXTRA_RANGES));
+		Set<String> versions = new LinkedHashSet<String>(Arrays.asList(EXTRA_VERSIONS));
+		addTestSuite(ranges, versions);
+
+		for (String range : ranges) {
+			Range compiled;
+			try {
+				compiled = Range.fromStringUsingGrammar(range, false);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+			for (String strVersion : versions) {
+				Version version = Version.fromString(strVersion);
+				Boolean expected;
+				try {
+					expected = new SemVerRangeExpressionVisitor(version).visit(Range.getParseTreeForRange(range, false));
+				} catch (RuntimeException e) {
+					continue;
+				}
+				assertThat("Range " + range + " against version " + version, compiled.isSatisfiedBy(version), equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testPredicateMatchesRange() {
+		assertThat(RangePredicates.isAvailable(), equalTo(true));
+		Set<String> ranges = new LinkedHashSet<String>(Arrays.asList(EXTRA_RANGES));
+		Set<String> versions = new LinkedHashSet<String>(Arrays.asList(EXTRA_VERSIONS));
+		addTestSuite(ranges, versions);
+		ranges.addAll(Arrays.asList("<0.0.0-0", ">=0.0.0", "<1.0.0 || 1.2.3-beta || >=2.0.0-alpha <2.0.0 || ~3.0.0-rc.1"));
+		Set<Version> parsed = new LinkedHashSet<Version>(RangeParserTest.VERSIONS);
+		for (String version : versions) {
+			parsed.add(Version.fromString(version));
+		}
+
+		for (String range : ranges) {
+			Range compiled;
+			try {
+				compiled = Range.fromString(range);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+			Predicate<Version> predicate = compiled.toPredicate();
+			for (Version version : parsed) {
+				assertThat("Range " + range + " against version " + version, predicate.test(version), equalTo(compiled.isSatisfiedBy(version)));
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class VersionCatalogTest {
+
+	@ClassRule
+	public static final TemporaryFolder FOLDER = new TemporaryFolder();
+
+	private static final List<Version> VERSIONS = new ArrayList<Version>(VersionIndexTest.VERSIONS);
+	static {
+		/* pre-releases that compare equal, but are written differently */
+		VERSIONS.add(Version.fromString("1.2.3-beta.01"));
+		VERSIONS.add(Version.fromString("1.2.3-beta.001+b3"));
+		Collections.shuffle(VERSIONS, new Random(11));
+	}
+
+	private static final VersionIndex INDEX = new VersionIndex(VERSIONS);
+
+	private static VersionCatalog catalog;
+
+	@BeforeClass
+	public static void writeCatalog() throws IOException {
+		Path file = FOLDER.newFile("versions.catalog").toPath();
+		VersionCatalog.write(VERSIONS, file);
+		catalog = VersionCatalog.open(file);
+	}
+
+	private static void assertSameAsIndex(String expression) {
+		Range range = Range.fromString(expression);
+		assertThat(expression, catalog.allSatisfying(range), equalTo(INDEX.allSatisfying(range)));
+		assertThat(expression, catalog.countSatisfying(range), equalTo(INDEX.countSatisfying(range)));
+		assertThat(expression, catalog.maxSatisfying(range), equalTo(INDEX.maxSatisfying(range)));
+		assertThat(expression, catalog.minSatisfying(range), equalTo(INDEX.minSatisfying(range)));
+	}
+
+	@Test
+	public void testVersionsAreSorted() {
+		assertThat(catalog.size(), equalTo(VERSIONS.size()));
+		List<Version> versions = new ArrayList<Version>();
+		for (int i = 0; i < catalog.size(); i++) {
+			versions.add(catalog.get(i));
+		}
+		assertThat(versions, equalTo(INDEX.getVersions()));
+	}
+
+	@Test
+	public void testCompare() {
+		for (int i = 0; i < catalog.size(); i++) {
+			for (int j = 0; j < catalog.size(); j++) {
+				int expected = Integer.signum(catalog.get(i).compareTo(catalog.get(j)));
+				assertThat(catalog.get(i) + " vs " + catalog.get(j), Integer.signum(catalog.compare(i, j)), equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		for (String range : Arrays.asList("", "*", "1.2.3", "1.2.3-beta.1", "=1.2.3-beta.1", "=1.2.3-beta.01", "1.2.3-beta.1+b2",
+			"2.0.0+b2", "1.x", ">1.2.3-alpha", ">=1.2.3-beta.1 <2.0.0-alpha", "^1.2.3-alpha", ">1.2.3-beta.1 <1.2.3",
+			"~1.2.3-beta.1 || ^3.3.3-0", "1.2.3-alpha - 2.0.0-rc.12", "<0.0.0", ">3.3.3", ">=1.2.3-beta.0 <=1.2.3-beta.2",
+			">1.2.3-aaa <1.2.3-zzz", ">=1.2.3-beta.1.0", "1.2.3-beta.1 || 1.2.3-beta.1+b1 || 3.3.3+b1")) {
+			assertSameAsIndex(range);
+		}
+	}
+
+	@Test
+	public void testGeneratedRanges() {
+		Random random = new Random(13);
+		for (int i = 0; i < 3000; i++) {
+			String range = RangeParserTest.rangeSet(random);
+			try {
+				Range.fromString(range);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+			assertSameAsIndex(range);
+		}
+	}
+
+	@Test
+	public void testWrap() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VersionCatalog.write(Arrays.asList(Version.fromString("2.0.0"), Version.fromString("1.0.0-rc.1+b")), out);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(out.size());
+		buffer.put(out.toByteArray());
+		VersionCatalog wrapped = VersionCatalog.wrap(buffer);
+		assertThat(wrapped.size(), equalTo(2));
+		assertThat(wrapped.get(0), equalTo(Version.fromString("1.0.0-rc.1+b")));
+		assertThat(wrapped.maxSatisfying(Range.fromString("<2")), nullValue());
+		assertThat(wrapped.maxSatisfying(Range.fromString("^1.0.0-rc")), equalTo(Version.fromString("1.0.0-rc.1+b")));
+	}
+
+	@Test
+	public void testEmptyCatalog() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VersionCatalog.write(Collections.<Version>emptyList(), out);
+		VersionCatalog empty = VersionCatalog.wrap(ByteBuffer.wrap(out.toByteArray()));
+		Range range = Range.fromString("*");
+		assertThat(empty.size(), equalTo(0));
+		assertThat(empty.maxSatisfying(range), nullValue());
+		assertThat(empty.minSatisfying(range), nullValue());
+		assertThat(empty.countSatisfying(range), equalTo(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotACatalog() {
+		VersionCatalog.wrap(ByteBuffer.wrap("1.0.0\n2.0.0\n3.0.0\n4.0.0\n".getBytes()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncatedCatalog() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		VersionCatalog.write(VERSIONS, out);
+		VersionCatalog.wrap(ByteBuffer.wrap(Arrays.copyOf(out.toByteArray(), out.size() - 1)));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testIndexOutOfBounds() {
+		catalog.get(catalog.size());
+	}
+}
@@ -0,0 +1,181 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class VersionCodecTest {
+
+	private static final String[] RANGES = {
+		"*", "", "^1.2.3", "~1.2.3-beta.1", ">=1.2.3-alpha <2.0.0 || 3.x", "1.2.3+build", "=1.2.3-beta.01",
+		"1.0.0 - 2.0.0-alpha", "<0.0.0-0", ">=1.2.3 >=1.3 <=2 <2.0.0 || ^0.1.0",
+	};
+
+	private static byte[] encodeVersion(Version version) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		VersionCodec.writeVersion(version, new DataOutputStream(bytes));
+		return bytes.toByteArray();
+	}
+
+	private static DataInputStream input(byte[] bytes) {
+		return new DataInputStream(new ByteArrayInputStream(bytes));
+	}
+
+	private static void assertIdentical(Version actual, Version expected) {
+		assertThat(actual, equalTo(expected));
+		assertThat(actual.toString(), equalTo(expected.toString()));
+	}
+
+	@Test
+	public void testVersionsRoundTrip() throws IOException {
+		for (Version version : VersionKeysTest.VERSIONS) {
+			byte[] bytes = encodeVersion(version);
+			assertIdentical(VersionCodec.readVersion(input(bytes)), version);
+
+			ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+			VersionCodec.writeVersion(version, buffer);
+			assertThat(version.toString(), buffer.array(), equalTo(bytes));
+			buffer.flip();
+			assertIdentical(VersionCodec.readVersion(buffer), version);
+			assertThat(buffer.hasRemaining(), equalTo(false));
+		}
+	}
+
+	@Test
+	public void testEncodingsAreSmall() throws IOException {
+		/* a header, three numbers and two empty lists */
+		assertThat(encodeVersion(Version.fromString("1.2.3")).length, equalTo(6));
+		assertThat(encodeVersion(Version.fromString("1.2.3-beta.1")).length, equalTo(12));
+		assertThat(encodeVersion(Version.fromString("2147483647.0.0")).length, equalTo(10));
+	}
+
+	@Test
+	public void testVersionListsRoundTrip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		VersionCodec.writeVersions(VersionKeysTest.VERSIONS, new DataOutputStream(bytes));
+		List<Version> versions = VersionCodec.readVersions(input(bytes.toByteArray()));
+		assertThat(versions.size(), equalTo(VersionKeysTest.VERSIONS.size()));
+		for (int i = 0; i < versions.size(); i++) {
+			assertIdentical(versions.get(i), VersionKeysTest.VERSIONS.get(i));
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(bytes.size());
+		VersionCodec.writeVersions(VersionKeysTest.VERSIONS, buffer);
+		buffer.flip();
+		assertThat(VersionCodec.readVersions(buffer), equalTo(versions));
+		assertThat(VersionCodec.readVersions(input(new byte[] {0x12, 0, 0})).isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void testVersionListsShareIdentifiers() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		VersionCodec.writeVersions(Arrays.asList(Version.fromString("1.0.0-snapshot.7"), Version.fromString("2.0.0-snapshot.8")),
+			new DataOutputStream(bytes));
+		List<Version> versions = VersionCodec.readVersions(input(bytes.toByteArray()));
+		assertThat(versions.get(0).getPreReleaseIdentifiers().get(0), sameInstance(versions.get(1).getPreReleaseIdentifiers().get(0)));
+		/* "snapshot" is written once */
+		assertThat(bytes.size(), equalTo(3 + 9 + 2 * 7));
+	}
+
+	@Test
+	public void testRangesRoundTrip() throws IOException {
+		for (String expression : RANGES) {
+			Range range = Range.fromString(expression);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			VersionCodec.writeRange(range, new DataOutputStream(bytes));
+			Range decoded = VersionCodec.readRange(input(bytes.toByteArray()));
+			assertThat(decoded.toString(), equalTo(expression));
+
+			ByteBuffer buffer = ByteBuffer.allocate(bytes.size());
+			VersionCodec.writeRange(range, buffer);
+			buffer.flip();
+			Range fromBuffer = VersionCodec.readRange(buffer);
+			for (Version version : VersionKeysTest.VERSIONS) {
+				assertThat(expression + " against " + version, decoded.isSatisfiedBy(version), equalTo(range.isSatisfiedBy(version)));
+				assertThat(expression + " against " + version, fromBuffer.isSatisfiedBy(version), equalTo(range.isSatisfiedBy(version)));
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidEncodings() throws IOException {
+		byte[] version = encodeVersion(Version.fromString("1.2.3-beta"));
+		assertInvalid(new byte[] {0x21, 1, 2, 3, 0, 0});
+		/* a list of versions, or a range, where a version is expected */
+		assertInvalid(new byte[] {0x12, 0, 0});
+		assertInvalid(new byte[] {0x13, 0, 0});
+		/* a dictionary entry outside a list, and a number too large for a version */
+		assertInvalid(new byte[] {0x11, 1, 2, 3, 1, 2, 0});
+		assertInvalid(new byte[] {0x11, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08, 0, 0, 0, 0});
+		/* an identifier that isn't valid */
+		assertInvalid(new byte[] {0x11, 1, 2, 3, 1, 4, '.', 0});
+		try {
+			VersionCodec.readVersion(ByteBuffer.wrap(Arrays.copyOf(version, version.length - 1)));
+			throw new AssertionError("Truncated buffer must be rejected");
+		} catch (IllegalArgumentException e) {
+			/* rejected */
+		}
+		try {
+			VersionCodec.readVersion(input(Arrays.copyOf(version, version.length - 1)));
+			throw new AssertionError("Truncated stream must be rejected");
+		} catch (EOFException e) {
+			/* rejected */
+		}
+	}
+
+	@Test
+	public void testOversizedLengthsRejected() throws IOException {
+		/* an identifier claiming to be 512MB long */
+		byte[] version = {0x11, 1, 2, 3, 1, (byte) 0xFC, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+		assertInvalid(version);
+		try {
+			VersionCodec.readVersion(input(version));
+			throw new AssertionError("Oversized identifier must be rejected");
+		} catch (EOFException e) {
+			/* rejected */
+		}
+		/* a range expression claiming to be 2GB long, and a range claiming 2^31 - 1 alternatives */
+		byte[][] ranges = {{0x13, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, {0x13, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}};
+		for (byte[] range : ranges) {
+			try {
+				VersionCodec.readRange(ByteBuffer.wrap(range));
+				throw new AssertionError(Arrays.toString(range) + " must be rejected");
+			} catch (IllegalArgumentException e) {
+				/* rejected */
+			}
+			try {
+				VersionCodec.readRange(input(range));
+				throw new AssertionError(Arrays.toString(range) + " must be rejected");
+			} catch (EOFException e) {
+				/* rejected */
+			}
+		}
+	}
+
+	private static void assertInvalid(byte[] bytes) {
+		try {
+			VersionCodec.readVersion(ByteBuffer.wrap(bytes));
+			throw new AssertionError(Arrays.toString(bytes) + " must be rejected");
+		} catch (IllegalArgumentException e) {
+			/* rejected */
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullVersionsRejected() {
+		VersionCodec.writeVersions(Collections.<Version>singletonList(null), ByteBuffer.allocate(16));
+	}
+}
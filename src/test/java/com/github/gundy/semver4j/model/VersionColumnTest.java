@@ -0,0 +1,73 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class VersionColumnTest {
+
+	private static final String[] RANGES = {
+		"*", "", "<0.0.0-0", "^1.2.3", "~1.2.3-beta.1", ">1.2.3", ">=1.2.3-alpha <2.0.0", "<=2.0.0", "<2.0.0-0",
+		"1.2.3", "1.2.3+build", "2.0.0+b1", "=1.2.3-beta.1+b1", "1.x || >=3.0.0 <3.3.3 || 0.0.1", ">1.2.3 <1.2.3",
+		"1.0.0 - 2.0.0-alpha", ">=1.2.3 >=1.3 <=2 <2.0.0 || ^0.1.0",
+	};
+
+	@Test
+	public void testSatisfyingMatchesRange() {
+		List<Version> versions = new ArrayList<Version>(VersionIndexTest.VERSIONS);
+		/* enough rows for several words of the bit set */
+		for (int i = 0; i < 200; i++) {
+			versions.add(versions.get(i % 50));
+		}
+		Collections.shuffle(versions, new Random(7));
+		VersionColumn column = VersionColumn.of(versions);
+
+		for (String expression : RANGES) {
+			Range range = Range.fromString(expression);
+			BitSet expected = new BitSet();
+			for (int i = 0; i < versions.size(); i++) {
+				expected.set(i, range.isSatisfiedBy(versions.get(i)));
+			}
+			assertThat(expression, column.satisfying(range), equalTo(expected));
+		}
+	}
+
+	@Test
+	public void testParseReportsInvalidRows() {
+		VersionColumn column = VersionColumn.parse(Arrays.asList("1.2.3", "not a version", null, "v2.0.0-rc.1+b", "1.2"));
+		assertThat(column.size(), equalTo(5));
+		BitSet invalid = new BitSet();
+		invalid.set(1, 3);
+		assertThat(column.getInvalidRows(), equalTo(invalid));
+		assertThat(column.get(0), equalTo(Version.fromString("1.2.3")));
+		assertThat(column.get(1), nullValue());
+		assertThat(column.get(3), equalTo(Version.fromString("2.0.0-rc.1+b")));
+		assertThat(column.get(4), equalTo(Version.fromString("1.2.0")));
+
+		BitSet satisfying = new BitSet();
+		satisfying.set(0);
+		satisfying.set(4);
+		assertThat(column.satisfying(Range.fromString("*")), equalTo(satisfying));
+	}
+
+	@Test
+	public void testEmptyColumn() {
+		VersionColumn column = VersionColumn.of(Collections.<Version>emptyList());
+		assertThat(column.size(), equalTo(0));
+		assertThat(column.satisfying(Range.fromString("*")).isEmpty(), equalTo(true));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetOutOfRange() {
+		VersionColumn.parse(Collections.singletonList("1.0.0")).get(1);
+	}
+}
@@ -0,0 +1,73 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+
+/**
+ * Measures the heap taken by versions of common shapes with JOL, counting the objects that each version
+ * holds on its own (and not those it shares with other versions, such as the empty identifier list and the
+ * common identifiers).  The sizes assume 12 byte object headers and compressed references (the default for
+ * heaps under 32GB, before compact object headers); the test is skipped on other layouts.
+ */
+public class VersionFootprintTest {
+
+	@Before
+	public void assumeCompressedLayout() {
+		assumeThat(VM.current().objectHeaderSize(), equalTo(12));
+		assumeThat(VM.current().arrayHeaderSize(), equalTo(16));
+		assumeThat(VM.current().sizeOfField("java.lang.Object"), equalTo(4L));
+	}
+
+	/* the bytes of the objects reachable from a version that an equal version, parsed separately, doesn't share */
+	private static long ownBytes(String version) {
+		Version other = Version.fromString(version);
+		/* a graph of several roots counts the objects they share once */
+		return GraphLayout.parseInstance(other, Version.fromString(version)).totalSize() - bytesOf(other);
+	}
+
+	private static long bytesOf(Object root) {
+		return GraphLayout.parseInstance(root).totalSize();
+	}
+
+	@Test
+	public void testReleaseVersions() {
+		/* just the version itself: two longs of major/minor/patch, two shared lists and a hash */
+		assertThat(ownBytes("1.2.3"), equalTo(40L));
+		assertThat(ownBytes("v2147483647.2147483647.2147483647"), equalTo(40L));
+	}
+
+	@Test
+	public void testReleaseVersionsShareEmptyLists() {
+		Map<String, Version> versions = new LinkedHashMap<String, Version>();
+		versions.put("fromString", Version.fromString("1.2.3"));
+		versions.put("builder", Version.builder().major(1).minor(2).patch(3).build());
+		versions.put("increment", Version.fromString("1.2.2").incrementPatch());
+		versions.put("key", VersionKeys.decode(VersionKeys.encode(Version.fromString("1.2.3"))));
+		versions.put("column", VersionColumn.parse(Collections.singletonList("1.2.3")).get(0));
+		for (Map.Entry<String, Version> version : versions.entrySet()) {
+			assertThat(version.getKey(), version.getValue().getPreReleaseIdentifiers(), sameInstance((Object) Identifiers.EMPTY));
+			assertThat(version.getKey(), version.getValue().getBuildIdentifiers(), sameInstance((Object) Identifiers.EMPTY));
+		}
+	}
+
+	@Test
+	public void testPreReleaseVersions() {
+		/* the version, a list and its array of two common identifiers */
+		assertThat(ownBytes("1.2.3-beta.1"), equalTo(40L + 24 + 24));
+		/* and an identifier of its own, and its text */
+		assertThat(ownBytes("1.2.3-beta.12"), equalTo(40L + 24 + 24 + 24 + bytesOf(new String("12"))));
+		/* both lists */
+		assertThat(ownBytes("1.2.3-rc.1+build.5"), equalTo(40L + 2 * (24 + 24)));
+	}
+}
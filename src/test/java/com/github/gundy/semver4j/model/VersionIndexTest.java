@@ -0,0 +1,100 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class VersionIndexTest {
+
+	static final List<Version> VERSIONS = new ArrayList<Version>(RangeParserTest.VERSIONS);
+	static {
+		/* versions that compare equal, but differ in their build identifiers */
+		VERSIONS.add(Version.fromString("1.2.3-beta.1+b1"));
+		VERSIONS.add(Version.fromString("1.2.3-beta.1+b2"));
+		VERSIONS.add(Version.fromString("2.0.0+b1"));
+		VERSIONS.add(Version.fromString("2.0.0+b2"));
+		VERSIONS.add(Version.fromString("3.3.3+b1"));
+		Collections.shuffle(VERSIONS, new Random(42));
+	}
+
+	private static final VersionIndex INDEX = new VersionIndex(VERSIONS);
+
+	private static void assertSameAsRange(String expression) {
+		Range range = Range.fromString(expression);
+		List<Version> expected = new ArrayList<Version>();
+		for (Version version : VERSIONS) {
+			if (range.isSatisfiedBy(version)) {
+				expected.add(version);
+			}
+		}
+		Collections.sort(expected);
+
+		assertThat(expression, INDEX.allSatisfying(range), equalTo(expected));
+		assertThat(expression, INDEX.countSatisfying(range), equalTo(expected.size()));
+		if (expected.isEmpty()) {
+			assertThat(expression, INDEX.maxSatisfying(range), nullValue());
+			assertThat(expression, INDEX.minSatisfying(range), nullValue());
+		} else {
+			assertThat(expression, INDEX.maxSatisfying(range), sameInstance(Version.maxVersionSatisfying(VERSIONS, range)));
+			assertThat(expression, INDEX.minSatisfying(range), sameInstance(expected.get(0)));
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		for (String range : Arrays.asList("", "*", "x", ">=*", "1.2.3", "1.2.3-beta.1", "1.2.3-beta.1+b2", "=1.2.3-beta.1",
+			"2.0.0+b2", "=2.0.0+b2", "1.x", "1.2", ">1.2.3-alpha", ">=1.2.3-beta.1 <2.0.0-alpha", "^1.2.3-alpha",
+			"~1.2.3-beta.1 || ^3.3.3-0", "1.2.3-alpha - 2.0.0-rc.12", "1.0.0 - 2", "<0.0.0", ">3.3.3", "<=0.0.0-0",
+			"1.2.3-beta.1 >1.0.0", "1.2.3-beta.1 >1.0.0-0", ">=1.2.3-alpha <=1.2.3-beta.1", "<1.2.3-alpha || >=1.2.3-rc.12",
+			"1.2.3-beta.1 || 1.2.3-beta.1+b1 || 3.3.3+b1")) {
+			assertSameAsRange(range);
+		}
+	}
+
+	@Test
+	public void testGeneratedRanges() {
+		Random random = new Random(7);
+		for (int i = 0; i < 3000; i++) {
+			String range = RangeParserTest.rangeSet(random);
+			try {
+				Range.fromString(range);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+			assertSameAsRange(range);
+		}
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		VersionIndex index = new VersionIndex(Collections.<Version>emptyList());
+		Range range = Range.fromString("*");
+		assertThat(index.size(), equalTo(0));
+		assertThat(index.maxSatisfying(range), nullValue());
+		assertThat(index.minSatisfying(range), nullValue());
+		assertThat(index.countSatisfying(range), equalTo(0));
+		assertThat(index.allSatisfying(range).isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void testVersionsAreSorted() {
+		List<Version> sorted = new ArrayList<Version>(VERSIONS);
+		Collections.sort(sorted);
+		assertThat(INDEX.getVersions(), equalTo(sorted));
+		assertThat(INDEX.size(), equalTo(VERSIONS.size()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullVersion() {
+		new VersionIndex(Arrays.asList(Version.fromString("1.0.0"), null));
+	}
+}
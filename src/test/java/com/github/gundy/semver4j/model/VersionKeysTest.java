@@ -0,0 +1,137 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class VersionKeysTest {
+
+	static final List<Version> VERSIONS = new ArrayList<Version>(VersionIndexTest.VERSIONS);
+	static {
+		VERSIONS.addAll(Arrays.asList(
+			Version.fromString("1.2.3-beta.01"),
+			Version.fromString("1.2.3-beta.001+b3"),
+			Version.fromString("1.2.3-beta.1.0"),
+			Version.fromString("1.2.3-beta.a"),
+			Version.fromString("1.2.3-beta.-"),
+			Version.fromString("1.2.3-beta-"),
+			Version.fromString("1.2.3-betA"),
+			Version.fromString("1.2.3-9"),
+			Version.fromString("1.2.3-10"),
+			Version.fromString("1.2.3-99999999999999999999999"),
+			Version.fromString("1.2.3-100000000000000000000000"),
+			Version.fromString("1.2.3-0"),
+			Version.fromString("1.2.3-00.a"),
+			Version.fromString("1.2.4-0"),
+			Version.fromString("256.65536.16777216"),
+			Version.fromString("2147483647.2147483647.2147483647")
+		));
+	}
+
+	@Test
+	public void testKeysAreOrderedAsVersions() {
+		for (Version a : VERSIONS) {
+			byte[] aKey = VersionKeys.encode(a);
+			for (Version b : VERSIONS) {
+				byte[] bKey = VersionKeys.encode(b);
+				int expected = Integer.signum(a.compareTo(b));
+				if (expected == 0 && !a.getPreReleaseIdentifiers().equals(b.getPreReleaseIdentifiers())) {
+					/* eg. 1.2.3-beta.01 and 1.2.3-beta.1, which are told apart by a suffix */
+					assertThat(a + " vs " + b, VersionKeys.comparator().compare(aKey, bKey) != 0, equalTo(true));
+				} else {
+					assertThat(a + " vs " + b, Integer.signum(VersionKeys.comparator().compare(aKey, bKey)), equalTo(expected));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBuildOnlyOrdersEqualVersions() {
+		for (Version a : VERSIONS) {
+			byte[] aKey = VersionKeys.encode(a, true);
+			for (Version b : VERSIONS) {
+				int expected = Integer.signum(a.compareTo(b));
+				if (expected != 0) {
+					assertThat(a + " vs " + b, Integer.signum(VersionKeys.comparator().compare(aKey, VersionKeys.encode(b, true))), equalTo(expected));
+				}
+			}
+		}
+		assertThat(VersionKeys.comparator().compare(
+			VersionKeys.encode(Version.fromString("2.0.0+b1"), true),
+			VersionKeys.encode(Version.fromString("2.0.0+b2"), true)) < 0, equalTo(true));
+	}
+
+	@Test
+	public void testSortingKeysSortsVersions() {
+		List<byte[]> keys = new ArrayList<byte[]>();
+		List<Version> expected = new ArrayList<Version>();
+		for (Version version : VersionIndexTest.VERSIONS) {
+			if (version.getBuildIdentifiers().isEmpty()) {
+				keys.add(VersionKeys.encode(version));
+				expected.add(version);
+			}
+		}
+		Collections.shuffle(keys, new Random(7));
+		Collections.sort(keys, VersionKeys.comparator());
+		Collections.sort(expected);
+		List<Version> decoded = new ArrayList<Version>();
+		for (byte[] key : keys) {
+			decoded.add(VersionKeys.decode(key));
+		}
+		assertThat(decoded, equalTo(expected));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		for (Version version : VERSIONS) {
+			Version decoded = VersionKeys.decode(VersionKeys.encode(version, true));
+			assertThat(decoded.toString(), equalTo(version.toString()));
+			assertThat(decoded, equalTo(version));
+
+			Version withoutBuild = VersionKeys.decode(VersionKeys.encode(version));
+			assertThat(withoutBuild.getBuildIdentifiers().isEmpty(), equalTo(true));
+			assertThat(withoutBuild.compareTo(version), equalTo(0));
+		}
+	}
+
+	@Test
+	public void testDecodePartOfArray() {
+		byte[] key = VersionKeys.encode(Version.fromString("1.2.3-rc.1+b7"), true);
+		byte[] bytes = new byte[key.length + 4];
+		System.arraycopy(key, 0, bytes, 2, key.length);
+		assertThat(VersionKeys.decode(bytes, 2, key.length), equalTo(Version.fromString("1.2.3-rc.1+b7")));
+	}
+
+	@Test
+	public void testInvalidKeys() {
+		byte[] key = VersionKeys.encode(Version.fromString("1.2.3-rc.1+b7"), true);
+		/* cutting the build short leaves a valid key, but nothing before it does */
+		for (int length = 0; length <= 21; length++) {
+			if (length != 20) {
+				assertInvalid(Arrays.copyOf(key, length));
+			}
+		}
+		assertInvalid(new byte[] {0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3, 9});
+		assertInvalid(new byte[] {0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3, 3, 7});
+		assertInvalid(new byte[] {0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3, 1, 1, 'a', 0});
+		assertInvalid(new byte[] {0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3, 2, '1', 0, 0});
+		assertInvalid(new byte[] {0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3, 2, '!', 0, 0});
+		assertInvalid(new byte[] {(byte) 0x80, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0, 3, 3});
+	}
+
+	private static void assertInvalid(byte[] key) {
+		try {
+			VersionKeys.decode(key);
+			throw new AssertionError("Expected " + Arrays.toString(key) + " to be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Invalid version key"));
+		}
+	}
+}
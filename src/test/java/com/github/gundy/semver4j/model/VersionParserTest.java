@@ -0,0 +1,206 @@
+package com.github.gundy.semver4j.model;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class VersionParserTest {
+
+	private static final List<String> VERSIONS = Arrays.asList(
+		"0.0.0", "1.0.0", "1.2.3", "10.20.30", "1", "1.2", "v1.2.3", "V1.2.3", "=1.2.3", "=v1.2.3", "=V1",
+		"1.2.3-alpha", "1.2.3alpha", "1.2.3-alpha.1", "1.2.3-0.3.7", "1.2.3-x.7.z.92", "1.2.3-alpha.1+build.1024",
+		"1.2.3+build", "1.2.3-01", "1.2.3-0a", "1.2.3--a", "1.2.3-", "1.2.3-+b", "1.2.3-.a", "1.2.3-a.-b",
+		"1.2.3-rc.1+build.2-x", "2147483647.2147483647.2147483647", "1.2.3-99999999999999999999",
+		"1.2.03", "1.2.34.5", "1.2.21474836470.1"
+	);
+
+	private static final List<String> INVALID_VERSIONS = Arrays.asList(
+		"", "a.b.c", "01.2.3", "1.02.3", "1.", "1.2.", "1.2.3.4", "vv1", "1.2.3+", "1.2.3-a..b",
+		"1.2.3-a+b+c", "1.2-beta", "1.2+build", "1a", "1.2a", "x", "1.2.x", "1.2.3 - 2", "1.2.3-a_b",
+		"2147483648.0.0", "99999999999.0.0"
+	);
+
+	private static final String ALPHABET = "0123456789.-+=vVax_ ";
+
+	private static void assertSameAsGrammar(String text) {
+		Version expected;
+		try {
+			expected = Version.Builder.fromStringUsingGrammar(text);
+		} catch (IllegalArgumentException e) {
+			expected = null;
+		}
+		Version actual;
+		try {
+			actual = VersionParser.parse(text);
+		} catch (IllegalArgumentException e) {
+			actual = null;
+		}
+		assertThat("Version \"" + text + "\"", actual, equalTo(expected));
+		if (actual != null) {
+			assertThat("Version \"" + text + "\"", actual.toString(), equalTo(expected.toString()));
+		}
+	}
+
+	@Test
+	public void testValidVersionsMatchGrammar() {
+		for (String version : VERSIONS) {
+			assertSameAsGrammar(version);
+			assertThat(version, VersionParser.parse(version), equalTo(Version.Builder.fromStringUsingGrammar(version)));
+		}
+	}
+
+	@Test
+	public void testInvalidVersionsRejected() {
+		for (String version : INVALID_VERSIONS) {
+			assertSameAsGrammar(version);
+			try {
+				VersionParser.parse(version);
+				throw new AssertionError("Version \"" + version + "\" must be rejected");
+			} catch (IllegalArgumentException e) {
+				/* expected */
+			}
+		}
+	}
+
+	@Test
+	public void testTryParse() {
+		for (String version : VERSIONS) {
+			ParseResult<Version> result = VersionParser.tryParse(version);
+			assertThat(version, result.isSuccess(), equalTo(true));
+			assertThat(version, result.getValue(), equalTo(VersionParser.parse(version)));
+		}
+		for (String version : INVALID_VERSIONS) {
+			ParseResult<Version> result = VersionParser.tryParse(version);
+			assertThat(version, result.isSuccess(), equalTo(false));
+			assertThat(version, result.getValue(), equalTo(null));
+			try {
+				VersionParser.parse(version);
+			} catch (IllegalArgumentException e) {
+				assertThat(version, result.getErrorMessage(), equalTo(e.getMessage()));
+			}
+		}
+	}
+
+	@Test
+	public void testTryParseErrors() {
+		assertError(null, ParseResult.ErrorKind.NULL_INPUT, 0);
+		assertError("", ParseResult.ErrorKind.EXPECTED_NUMBER, 0);
+		assertError("1.2.x", ParseResult.ErrorKind.EXPECTED_NUMBER, 4);
+		assertError(" 1.2a", ParseResult.ErrorKind.UNEXPECTED_CHARACTER, 4);
+		assertError("1.2.3-a..b", ParseResult.ErrorKind.EXPECTED_IDENTIFIER, 8);
+		assertError("2147483648.0.0", ParseResult.ErrorKind.NUMBER_TOO_LARGE, 9);
+	}
+
+	private static void assertError(String version, ParseResult.ErrorKind kind, int offset) {
+		ParseResult<Version> result = VersionParser.tryParse(version);
+		assertThat(version, result.getErrorKind(), equalTo(kind));
+		assertThat(version, result.getErrorOffset(), equalTo(offset));
+	}
+
+	@Test
+	public void testSurroundingWhitespaceIgnored() {
+		assertThat(VersionParser.parse(" 1.2.3-beta\t"), equalTo(VersionParser.parse("1.2.3-beta")));
+	}
+
+	@Test
+	public void testGeneratedInputsMatchGrammar() {
+		Random random = new Random(42);
+		List<String> inputs = new ArrayList<String>();
+		for (int i = 0; i < 5000; i++) {
+			/* mutations of valid versions */
+			StringBuilder sb = new StringBuilder(VERSIONS.get(random.nextInt(VERSIONS.size())));
+			int position = random.nextInt(sb.length() + 1);
+			switch (random.nextInt(3)) {
+				case 0:
+					sb.insert(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+					break;
+				case 1:
+					if (position < sb.length()) {
+						sb.deleteCharAt(position);
+					}
+					break;
+				default:
+					if (position < sb.length()) {
+						sb.setCharAt(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+					}
+			}
+			inputs.add(sb.toString().trim());
+
+			/* random strings */
+			sb.setLength(0);
+			int length = random.nextInt(12);
+			for (int j = 0; j < length; j++) {
+				sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			}
+			inputs.add(sb.toString().trim());
+		}
+		for (String input : inputs) {
+			assertSameAsGrammar(input);
+		}
+	}
+
+	@Test
+	public void testPartsOfTextAndBytes() {
+		for (String version : VERSIONS) {
+			Version expected = VersionParser.parse(version);
+			String padded = "1.0.0|" + version + "|2.0.0";
+			byte[] bytes = padded.getBytes(StandardCharsets.UTF_8);
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+			direct.put(bytes);
+			assertThat(version, Version.fromCharSequence(new StringBuilder(padded), 6, version.length()), equalTo(expected));
+			assertThat(version, Version.fromUtf8(bytes, 6, version.length()), equalTo(expected));
+			assertThat(version, Version.fromUtf8(direct, 6, version.length()), equalTo(expected));
+			assertThat(direct.position(), equalTo(bytes.length));
+		}
+		for (String version : INVALID_VERSIONS) {
+			byte[] bytes = ("1.0.0 " + version + " 2.0.0").getBytes(StandardCharsets.UTF_8);
+			try {
+				Version.fromUtf8(bytes, 6, version.length());
+				throw new AssertionError("Expected \"" + version + "\" to be rejected");
+			} catch (IllegalArgumentException e) {
+				/* expected */
+			}
+		}
+	}
+
+	@Test
+	public void testNonAsciiBytesRejected() {
+		byte[] bytes = "1.2.3-b\u00e9ta".getBytes(StandardCharsets.UTF_8);
+		try {
+			Version.fromUtf8(bytes, 0, bytes.length);
+			throw new AssertionError("Expected non-ASCII bytes to be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Unexpected character at offset 7 in version \"1.2.3-b\u00e9ta\""));
+		}
+	}
+
+	@Test
+	public void testErrorOffsetsAreRelativeToPart() {
+		try {
+			Version.fromCharSequence("xx1.2.x", 2, 5);
+			throw new AssertionError("Expected \"1.2.x\" to be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo("Expected number at offset 4 in version \"1.2.x\""));
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testPartOutOfBounds() {
+		Version.fromUtf8(new byte[4], 2, 3);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBufferPartBeyondLimit() {
+		ByteBuffer buffer = ByteBuffer.wrap("1.2.3 4.5.6".getBytes(StandardCharsets.UTF_8));
+		buffer.limit(5);
+		Version.fromUtf8(buffer, 6, 5);
+	}
+}
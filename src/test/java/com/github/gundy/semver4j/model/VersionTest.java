@@ -1,13 +1,20 @@
 package com.github.gundy.semver4j.model;
 
+import com.github.gundy.semver4j.SemVer;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class VersionTest {
@@ -150,4 +157,312 @@ public class VersionTest {
 		assertThat(v130.compareTo(v130beta) > 0, equalTo(true));
 		assertThat(v130beta.compareTo(v130) < 0, equalTo(true));
 	}
+
+	@Test
+	public void testSemverOrderingOfLargeNumbers() {
+		List<String> expected = Arrays.asList(
+			"0.0.0-0",
+			"0.0.0",
+			"0.0.2147483647-rc.1",
+			"0.0.2147483647",
+			"0.1.0",
+			"0.2147483647.0",
+			"1.0.0",
+			"2147483647.0.0-alpha",
+			"2147483647.0.0",
+			"2147483647.2147483647.2147483647"
+		);
+		List<Version> versions = new ArrayList<Version>();
+		for (String version : expected) {
+			versions.add(Version.fromString(version));
+		}
+		Collections.reverse(versions);
+		Collections.sort(versions);
+		List<String> sorted = new ArrayList<String>();
+		for (Version version : versions) {
+			sorted.add(version.toString());
+		}
+		assertThat(sorted, equalTo(expected));
+	}
+
+	@Test
+	public void testCompareEqualPreReleases() {
+		assertThat(Version.fromString("1.0.0-99999999999999999999").compareTo(Version.fromString("1.0.0-99999999999999999999")), equalTo(0));
+		assertThat(Version.fromString("1.0.0-rc.1+a").compareTo(Version.fromString("1.0.0-rc.1+b")), equalTo(0));
+		assertThat(Version.fromString("1.0.0+a").compareTo(Version.fromString("1.0.0")), equalTo(0));
+	}
+
+	@Test
+	public void testSatisfyingReturnsFirstOfEqualVersions() {
+		List<Version> versions = Arrays.asList(
+			Version.fromString("1.0.0+a"),
+			Version.fromString("2.0.0+a"),
+			Version.fromString("1.0.0+b"),
+			Version.fromString("2.0.0+b")
+		);
+		Range range = Range.fromString("*");
+		assertThat(Version.maxVersionSatisfying(versions, range), sameInstance(versions.get(1)));
+		assertThat(Version.minVersionSatisfying(versions, range), sameInstance(versions.get(0)));
+		assertThat(versions.parallelStream().collect(Version.maxSatisfyingCollector(range)), sameInstance(versions.get(1)));
+		assertThat(versions.parallelStream().collect(Version.minSatisfyingCollector(range)), sameInstance(versions.get(0)));
+		assertThat(Version.maxSatisfying(Arrays.asList("v1.0.0", "=2.0.0+a", "2.0.0+b"), range), equalTo("2.0.0+a"));
+	}
+
+	@Test
+	public void testParallelMaxSatisfying() {
+		Random random = new Random(42);
+		List<String> strings = new ArrayList<String>();
+		List<Version> versions = new ArrayList<Version>();
+		for (int i = 0; i < Version.PARALLEL_THRESHOLD * 10; i++) {
+			String version = random.nextInt(5) + "." + random.nextInt(5) + "." + random.nextInt(5)
+				+ (random.nextBoolean() ? "-beta." + random.nextInt(3) : "") + "+" + i;
+			strings.add(version);
+			versions.add(Version.fromString(version));
+		}
+		for (String expression : Arrays.asList("*", "^1.2.3", ">=2.1.0-beta.1 <3", "~4.4.4-beta.2", "5.x")) {
+			Range range = Range.fromString(expression);
+			assertThat(Version.parallelMaxSatisfying(strings, range), equalTo(Version.maxSatisfying(strings, range)));
+			assertThat(Version.parallelMaxSatisfying(new LinkedList<String>(strings), range), equalTo(Version.maxSatisfying(strings, range)));
+			assertThat(Version.parallelMaxVersionSatisfying(versions, range), sameInstance(Version.maxVersionSatisfying(versions, range)));
+		}
+	}
+
+	@Test
+	public void testIdentifierOrdering() {
+		List<String> expected = Arrays.asList(
+			"0", "1", "02", "9", "10", "9223372036854775807", "9223372036854775808", "00099999999999999999999",
+			"100000000000000000000", "-", "1a", "A", "SNAPSHOT", "alpha", "alpha1", "beta", "rc"
+		);
+		List<Version.Identifier> identifiers = new ArrayList<Version.Identifier>();
+		for (String identifier : expected) {
+			identifiers.add(Version.Identifier.fromString(identifier));
+		}
+		for (int i = 0; i < identifiers.size(); i++) {
+			for (int j = 0; j < identifiers.size(); j++) {
+				int result = identifiers.get(i).compareTo(identifiers.get(j));
+				assertThat(expected.get(i) + " vs " + expected.get(j), Integer.signum(result), equalTo(Integer.signum(i - j)));
+			}
+		}
+		assertThat(Version.Identifier.fromString("01").compareTo(Version.Identifier.fromString("1")), equalTo(0));
+		assertThat(Version.Identifier.fromString("000000000000000000000001").compareTo(Version.Identifier.fromString("1")), equalTo(0));
+		assertThat(Version.Identifier.fromString("12").isNumeric(), equalTo(true));
+		assertThat(Version.Identifier.fromString("1-2").isNumeric(), equalTo(false));
+	}
+
+	@Test
+	public void testCommonIdentifiersAreShared() {
+		assertThat(Version.fromString("1.0.0-beta.1").getPreReleaseIdentifiers().get(0),
+			sameInstance(Version.fromString("2.0.0-beta.1").getPreReleaseIdentifiers().get(0)));
+		assertThat(Version.fromString("1.0.0-rc.1").getPreReleaseIdentifiers().get(1), sameInstance(Version.Identifier.fromString("1")));
+		assertThat(Version.fromString("1.0.0-betas").getPreReleaseIdentifiers().get(0).getIdentifier(), equalTo("betas"));
+	}
+
+	@Test
+	public void testInvalidIdentifiers() {
+		for (String identifier : Arrays.asList("", "a.b", "a+b", "a b", "\u00e9", "_")) {
+			try {
+				Version.Identifier.fromString(identifier);
+				throw new AssertionError("Expected \"" + identifier + "\" to be invalid");
+			} catch (IllegalArgumentException e) {
+				/* expected */
+			}
+		}
+	}
+
+	@Test
+	public void testCollectionSignaturesKept() throws NoSuchMethodException {
+		/* the signatures of earlier releases, so that clients compiled against them still link */
+		assertThat(Version.class.getMethod("maxSatisfying", Collection.class, String.class).getReturnType(), equalTo((Object) String.class));
+		assertThat(Version.class.getMethod("maxSatisfying", Collection.class, Range.class).getReturnType(), equalTo((Object) String.class));
+		assertThat(Version.class.getMethod("maxVersionSatisfying", Collection.class, String.class).getReturnType(), equalTo((Object) Version.class));
+		assertThat(Version.class.getMethod("maxVersionSatisfying", Collection.class, Range.class).getReturnType(), equalTo((Object) Version.class));
+		assertThat(SemVer.class.getMethod("maxSatisfying", Collection.class, String.class).getReturnType(), equalTo((Object) String.class));
+		assertThat(SemVer.class.getMethod("minSatisfying", Collection.class, String.class).getReturnType(), equalTo((Object) String.class));
+
+		List<String> versions = Arrays.asList("1.0.0", "2.0.0", "1.5.0");
+		assertThat(Version.maxSatisfying(versions, "^1.0.0"), equalTo("1.5.0"));
+		assertThat(SemVer.minSatisfying(versions, "^1.2.0"), equalTo("1.5.0"));
+		assertThat(Version.maxVersionSatisfying(Arrays.asList(Version.fromString("1.0.0")), "*"), equalTo(Version.fromString("1.0.0")));
+	}
+
+	@Test
+	public void testInterning() {
+		Version.enableInterning(16);
+		try {
+			Version v123 = Version.fromString("1.2.3");
+			assertThat(Version.fromString("1.2.3") == v123, equalTo(true));
+			assertThat(Version.fromString("v1.2.3") == v123, equalTo(true));
+			assertThat(Version.builder().fromString("=1.2.3").intern() == v123, equalTo(true));
+			assertThat(Version.fromString("1.2.3+build") == v123, equalTo(false));
+			assertThat(Version.fromString("1.2.3+build").intern() == Version.fromString("1.2.3+build"), equalTo(true));
+			assertThat(Version.getInternCache().size(), equalTo(3));
+		} finally {
+			Version.disableInterning();
+		}
+		assertThat(Version.fromString("1.2.3") == Version.fromString("1.2.3"), equalTo(false));
+	}
+
+	@Test
+	public void testInterningIsBounded() {
+		Version.enableInterning(8);
+		try {
+			for (int i = 0; i < 100; i++) {
+				assertThat(Version.fromString("v1.0." + i).getPatch(), equalTo(i));
+			}
+			assertThat(Version.getInternCache().size() <= 8, equalTo(true));
+		} finally {
+			Version.disableInterning();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInterningRejectsInvalidVersions() {
+		Version.enableInterning(8);
+		try {
+			Version.fromString("blerg");
+		} finally {
+			Version.disableInterning();
+		}
+	}
+
+	@Test
+	public void testStringComparatorOrdersAsVersions() {
+		List<String> strings = new ArrayList<String>();
+		for (Version version : RangeParserTest.VERSIONS) {
+			strings.add(version.toString());
+		}
+		strings.addAll(Arrays.asList(
+			"1", "1.2", "v1.2.3", "=V1.2.3", " 1.2.3\t", "1.2.3+build.5", "1.2.3-beta.01", "1.2.3-beta.001+b3",
+			"1.2.3beta", "1.2.34.5", "1.2.3-4.5", "1.2.01", "1.2.0-1", "1.2.3-", "1.2.3--", "1.2.3-+build",
+			"1.2.3-beta-", "1.2.3-betA", "1.2.3-99999999999999999999999", "1.2.3-100000000000000000000000",
+			"10.0.0", "9.9.9", "2147483647.0.0", "1.2.21474836470.5"
+		));
+		Comparator<CharSequence> comparator = Version.stringComparator();
+		for (String a : strings) {
+			for (String b : strings) {
+				int expected = Integer.signum(Version.fromString(a).compareTo(Version.fromString(b)));
+				assertThat(a + " vs " + b, Integer.signum(comparator.compare(a, b)), equalTo(expected));
+			}
+		}
+
+		List<String> shuffled = new ArrayList<String>(strings);
+		Collections.shuffle(shuffled, new Random(19));
+		Collections.sort(shuffled, comparator);
+		for (int i = 1; i < shuffled.size(); i++) {
+			assertThat(Version.fromString(shuffled.get(i - 1)).compareTo(Version.fromString(shuffled.get(i))) <= 0, equalTo(true));
+		}
+	}
+
+	@Test
+	public void testStringComparatorRejectsScannedErrors() {
+		assertStringComparatorRejects("1.2.3", "x1.2.3");
+		assertStringComparatorRejects("0.2.3", "01.2.3");
+		assertStringComparatorRejects("1.2.3-a", "1.2.3.4");
+		assertStringComparatorRejects("1.2.3-a.b", "1.2.3-a..b");
+		assertStringComparatorRejects("1.2.3-a", "1.2.3-a!");
+		assertStringComparatorRejects("1.2.3", "1.2147483648.0");
+		assertStringComparatorRejects("1.2.3", "1.2-beta");
+		assertStringComparatorRejects("1.2.3", "1.");
+
+		/* strings are only scanned as far as it takes to order them */
+		assertThat(Version.stringComparator().compare("1.2.3", "2.0.0!") < 0, equalTo(true));
+		assertThat(Version.stringComparator().compare("1.2.3+b", "1.2.3+b..") == 0, equalTo(true));
+	}
+
+	private static void assertStringComparatorRejects(String valid, String invalid) {
+		try {
+			Version.stringComparator().compare(valid, invalid);
+			throw new AssertionError("Expected \"" + invalid + "\" to be rejected");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), equalTo(Version.tryParse(invalid).getErrorMessage()));
+		}
+	}
+
+	@Test
+	public void testTopSatisfyingKeepsEqualVersionsInOrder() {
+		Version first = Version.fromString("1.2.3+b1");
+		Version second = Version.fromString("1.2.3+b2");
+		Version third = Version.fromString("1.2.3+b3");
+		List<Version> versions = Arrays.asList(
+			Version.fromString("1.0.0"), first, Version.fromString("2.0.0"), second, Version.fromString("1.1.0"), third);
+		Range range = Range.fromString("^1.0.0");
+
+		List<Version> top = Version.topVersionsSatisfying(versions, range, 2);
+		assertThat(top.size(), equalTo(2));
+		assertThat(top.get(0), sameInstance(first));
+		assertThat(top.get(1), sameInstance(second));
+		assertThat(Version.topVersionsSatisfying(versions, range, 3).get(2), sameInstance(third));
+		assertThat(Version.topVersionsSatisfying(versions, range, 10).size(), equalTo(5));
+		assertThat(Version.topVersionsSatisfying(versions, range, 0).isEmpty(), equalTo(true));
+
+		Iterator<Version> descending = Version.descendingVersionsSatisfying(versions, range);
+		assertThat(descending.next(), sameInstance(first));
+		assertThat(descending.next(), sameInstance(second));
+		assertThat(descending.next(), sameInstance(third));
+		assertThat(descending.next(), equalTo(Version.fromString("1.1.0")));
+		assertThat(descending.next(), equalTo(Version.fromString("1.0.0")));
+		assertThat(descending.hasNext(), equalTo(false));
+	}
+
+	@Test
+	public void testTopSatisfyingOfManyVersions() {
+		List<Version> versions = new ArrayList<Version>(RangeParserTest.VERSIONS);
+		Collections.shuffle(versions, new Random(5));
+		Range range = Range.fromString(">=1.1.0-beta <3.2");
+		List<Version> expected = new ArrayList<Version>();
+		for (Version version : versions) {
+			if (range.isSatisfiedBy(version)) {
+				expected.add(version);
+			}
+		}
+		Collections.sort(expected, Version.reverseComparator());
+		assertThat(Version.topVersionsSatisfying(versions, range, 25), equalTo(expected.subList(0, 25)));
+		assertThat(Version.topVersionsSatisfying(versions, range, expected.size() + 5), equalTo(expected));
+	}
+
+	@Test
+	public void testDescendingSatisfyingOfManyVersions() {
+		List<Version> versions = new ArrayList<Version>(RangeParserTest.VERSIONS);
+		/* in ascending order, as version lists usually are, and then in no order */
+		Collections.sort(versions);
+		for (int shuffle = 0; shuffle < 2; shuffle++) {
+			List<Version> expected = new ArrayList<Version>();
+			List<String> expectedStrings = new ArrayList<String>();
+			List<String> strings = new ArrayList<String>();
+			for (Version version : versions) {
+				strings.add(version.toString());
+				if (version.satisfies(">=1.1.0-beta <3.2")) {
+					expected.add(version);
+				}
+			}
+			Collections.sort(expected, Version.reverseComparator());
+			for (Version version : expected) {
+				expectedStrings.add(version.toString());
+			}
+
+			List<Version> descending = new ArrayList<Version>();
+			for (Iterator<Version> i = Version.descendingVersionsSatisfying(versions, ">=1.1.0-beta <3.2"); i.hasNext(); ) {
+				descending.add(i.next());
+			}
+			assertThat(descending, equalTo(expected));
+			List<String> descendingStrings = new ArrayList<String>();
+			for (Iterator<String> i = SemVer.descendingSatisfying(strings, ">=1.1.0-beta <3.2"); i.hasNext(); ) {
+				descendingStrings.add(i.next());
+			}
+			assertThat(descendingStrings, equalTo(expectedStrings));
+			Collections.shuffle(versions, new Random(9));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTopSatisfyingRejectsNegativeCounts() {
+		Version.topSatisfying(Arrays.asList("1.2.3"), "^1", -1);
+	}
+
+	@Test(expected = java.util.NoSuchElementException.class)
+	public void testDescendingSatisfyingIsExhausted() {
+		Iterator<String> descending = Version.descendingSatisfying(Arrays.asList("1.2.3", "2.0.0"), Range.fromString("^1"));
+		assertThat(descending.next(), equalTo("1.2.3"));
+		descending.next();
+	}
 }
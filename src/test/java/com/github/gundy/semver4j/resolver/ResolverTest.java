@@ -0,0 +1,176 @@
+package com.github.gundy.semver4j.resolver;
+
+import com.github.gundy.semver4j.model.Range;
+import com.github.gundy.semver4j.model.Version;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ResolverTest {
+
+	private static Map<String, Range> ranges(String... namesAndRanges) {
+		Map<String, Range> ranges = new LinkedHashMap<String, Range>();
+		for (int i = 0; i < namesAndRanges.length; i += 2) {
+			ranges.put(namesAndRanges[i], Range.fromString(namesAndRanges[i + 1]));
+		}
+		return ranges;
+	}
+
+	private static Map<String, Version> versions(String... namesAndVersions) {
+		Map<String, Version> versions = new HashMap<String, Version>();
+		for (int i = 0; i < namesAndVersions.length; i += 2) {
+			versions.put(namesAndVersions[i], Version.fromString(namesAndVersions[i + 1]));
+		}
+		return versions;
+	}
+
+	private static InMemoryPackageCatalog add(InMemoryPackageCatalog catalog, String name, String version, String... dependencies) {
+		return catalog.addVersion(name, Version.fromString(version), ranges(dependencies));
+	}
+
+	@Test
+	public void testChoosesGreatestVersions() {
+		InMemoryPackageCatalog catalog = new InMemoryPackageCatalog();
+		add(catalog, "a", "1.0.0", "b", "^1.0.0");
+		add(catalog, "a", "1.2.0", "b", "^1.1.0");
+		add(catalog, "a", "2.0.0", "b", "^2.0.0");
+		add(catalog, "b", "1.0.0");
+		add(catalog, "b", "1.1.0");
+		add(catalog, "b", "1.3.0-beta");
+		add(catalog, "b", "2.0.0");
+
+		Resolution resolution = new Resolver(catalog).resolve(ranges("a", "^1.0.0"));
+		assertThat(resolution.isResolved(), equalTo(true));
+		assertThat(resolution.getVersions(), equalTo(versions("a", "1.2.0", "b", "1.1.0")));
+		assertThat(resolution.getConflictingPackage(), nullValue());
+	}
+
+	@Test
+	public void testBacktracks() {
+		InMemoryPackageCatalog catalog = new InMemoryPackageCatalog();
+		add(catalog, "a", "1.0.0", "c", "^1.0.0");
+		add(catalog, "a", "1.1.0", "c", "^2.0.0");
+		add(catalog, "b", "1.0.0", "c", "~1.5.0");
+		add(catalog, "c", "1.4.0");
+		add(catalog, "c", "1.5.2");
+		add(catalog, "c", "1.6.0");
+		add(catalog, "c", "2.0.0");
+
+		Resolution resolution = new Resolver(catalog).resolve(ranges("a", "^1.0.0", "b", "^1.0.0"));
+		assertThat(resolution.getVersions(), equalTo(versions("a", "1.0.0", "b", "1.0.0", "c", "1.5.2")));
+	}
+
+	@Test
+	public void testReportsConflictingRequirements() {
+		InMemoryPackageCatalog catalog = new InMemoryPackageCatalog();
+		add(catalog, "a", "1.0.0");
+		add(catalog, "a", "2.0.0");
+		add(catalog, "b", "1.0.0", "a", "^2.0.0");
+		add(catalog, "b", "1.1.0", "a", ">=2.1.0");
+
+		Resolution resolution = new Resolver(catalog).resolve(ranges("a", "^1.0.0", "b", "^1.0.0"));
+		assertThat(resolution.isResolved(), equalTo(false));
+		assertThat(resolution.getVersions(), nullValue());
+		assertThat(resolution.getConflictingPackage(), equalTo("a"));
+		List<Resolution.Requirement> requirements = resolution.getConflictingRequirements();
+		assertThat(requirements.size(), equalTo(2));
+		assertThat(requirements.get(0).getRequiredBy(), nullValue());
+		assertThat(requirements.get(0).getRange().toString(), equalTo(Range.fromString("^1.0.0").toString()));
+		assertThat(requirements.get(1).getRequiredBy(), equalTo("b"));
+		assertThat(requirements.get(1).getRequiredByVersion(), equalTo(Version.fromString("1.0.0")));
+	}
+
+	@Test
+	public void testReportsMissingPackages() {
+		InMemoryPackageCatalog catalog = new InMemoryPackageCatalog();
+		add(catalog, "a", "1.0.0", "missing", "*");
+
+		Resolution resolution = new Resolver(catalog).resolve(ranges("a", "*"));
+		assertThat(resolution.getConflictingPackage(), equalTo("missing"));
+		assertThat(resolution.getConflictingRequirements().get(0).getRequiredBy(), equalTo("a"));
+	}
+
+	@Test
+	public void testEmptyRequirements() {
+		Resolution resolution = new Resolver(new InMemoryPackageCatalog()).resolve(Collections.<String, Range>emptyMap());
+		assertThat(resolution.getVersions().isEmpty(), equalTo(true));
+	}
+
+	@Test(timeout = 10000)
+	public void testUnrelatedChoicesAreNotRetried() {
+		/* twenty packages with two versions each are chosen before the conflict deep under "z" is found */
+		InMemoryPackageCatalog catalog = new InMemoryPackageCatalog();
+		String[] root = new String[42];
+		for (int i = 0; i < 20; i++) {
+			add(catalog, "p" + i, "1.0.0");
+			add(catalog, "p" + i, "2.0.0");
+			root[2 * i] = "p" + i;
+			root[2 * i + 1] = "*";
+		}
+		root[40] = "z";
+		root[41] = "*";
+		add(catalog, "z", "1.0.0", "y", "^1.0.0");
+		add(catalog, "y", "1.0.0", "x", "^2.0.0");
+		add(catalog, "y", "1.1.0", "x", "^3.0.0");
+		add(catalog, "x", "1.0.0");
+
+		Resolution resolution = new Resolver(catalog).resolve(ranges(root));
+		assertThat(resolution.getConflictingPackage(), equalTo("x"));
+	}
+
+	@Test(timeout = 30000)
+	public void testLargeGraph() {
+		/* each package depends on a few packages with lower numbers; the newest versions need newer dependencies */
+		final int packages = 20000;
+		Random random = new Random(3);
+		InMemoryPackageCatalog catalog = new InMemoryPackageCatalog();
+		for (int p = 0; p < packages; p++) {
+			for (int minor = 0; minor < 5; minor++) {
+				List<String> dependencies = new ArrayList<String>();
+				for (int d = 0; d < 4 && p > 0; d++) {
+					dependencies.add("p" + random.nextInt(p));
+					dependencies.add(minor == 4 ? "^1.9.0" : "^1.0.0");
+				}
+				add(catalog, "p" + p, "1." + minor + ".0", dependencies.toArray(new String[dependencies.size()]));
+			}
+		}
+		Map<String, Range> root = new LinkedHashMap<String, Range>();
+		for (int p = packages - 100; p < packages; p++) {
+			root.put("p" + p, Range.fromString("^1.0.0"));
+		}
+
+		Resolution resolution = new Resolver(catalog).resolve(root);
+		assertThat(resolution.isResolved(), equalTo(true));
+		for (Map.Entry<String, Version> chosen : resolution.getVersions().entrySet()) {
+			/* 1.4.0 of anything with dependencies needs a 1.9.0 that doesn't exist */
+			boolean hasDependencies = !chosen.getKey().equals("p0");
+			assertThat(chosen.getValue(), equalTo(Version.fromString(hasDependencies ? "1.3.0" : "1.4.0")));
+		}
+		assertConsistent(catalog, resolution, root);
+	}
+
+	private static void assertConsistent(PackageCatalog catalog, Resolution resolution, Map<String, Range> root) {
+		Map<String, Version> chosen = resolution.getVersions();
+		for (Map.Entry<String, Range> requirement : root.entrySet()) {
+			assertThat(requirement.getValue().isSatisfiedBy(chosen.get(requirement.getKey())), equalTo(true));
+		}
+		for (Map.Entry<String, Version> choice : chosen.entrySet()) {
+			Collection<Version> available = catalog.getVersions(choice.getKey());
+			assertThat(available.contains(choice.getValue()), equalTo(true));
+			for (Map.Entry<String, Range> dependency : catalog.getDependencies(choice.getKey(), choice.getValue()).entrySet()) {
+				assertThat(dependency.getValue().isSatisfiedBy(chosen.get(dependency.getKey())), equalTo(true));
+			}
+		}
+	}
+}